@@ -0,0 +1,137 @@
+package nl.cwi.reo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.cwi.reo.compile.PortImplementation;
+import nl.cwi.reo.runtime.Port;
+
+/**
+ * Common state of the benchmarks of a connector. The benchmark thread acts
+ * as the single producer or consumer of the connector, while the other
+ * endpoints and the protocol run in background threads. The benchmarks
+ * measure every port implementation that the compiler can generate.
+ * 
+ * Each trial runs in a fresh JVM, because background threads that block in
+ * a spinning port cannot always be terminated.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public abstract class ConnectorBenchmark {
+
+	/** The datum that is transported. */
+	protected static final Integer DATUM = 42;
+
+	/** The port implementation. */
+	@Param
+	public PortImplementation port;
+
+	/** Indicates that the background threads must terminate. */
+	protected volatile boolean stopped = false;
+
+	/** The protocol. */
+	private Protocol protocol;
+
+	/** The background threads. */
+	private final List<Thread> threads = new ArrayList<>();
+
+	/**
+	 * Constructs a new port of the measured implementation, in the same way
+	 * as the generated code does.
+	 *
+	 * @param <T>
+	 *            the generic type
+	 * @return a new port.
+	 */
+	@SuppressWarnings("unchecked")
+	protected <T> Port<T> newPort() {
+		try {
+			return (Port<T>) Class.forName("nl.cwi.reo.runtime." + port.getClassName()).getDeclaredConstructor()
+					.newInstance();
+		} catch (ReflectiveOperationException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Starts a protocol in a background thread.
+	 *
+	 * @param p
+	 *            protocol
+	 */
+	protected void start(Protocol p) {
+		protocol = p;
+		start((Runnable) p);
+	}
+
+	/**
+	 * Starts a background thread.
+	 *
+	 * @param r
+	 *            task
+	 */
+	protected void start(Runnable r) {
+		Thread t = new Thread(r);
+		t.setDaemon(true);
+		threads.add(t);
+		t.start();
+	}
+
+	/**
+	 * Starts a background thread that repeatedly puts a datum to a port.
+	 *
+	 * @param p
+	 *            port
+	 */
+	protected void produce(final Port<Integer> p) {
+		p.setProducer(new Endpoint());
+		start(() -> {
+			while (!stopped)
+				p.put(DATUM);
+		});
+	}
+
+	/**
+	 * Starts a background thread that repeatedly gets a datum from a port.
+	 *
+	 * @param p
+	 *            port
+	 */
+	protected void consume(final Port<Integer> p) {
+		p.setConsumer(new Endpoint());
+		start(() -> {
+			while (!stopped)
+				p.get();
+		});
+	}
+
+	/**
+	 * Stops the protocol and all background threads.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		stopped = true;
+		if (protocol != null)
+			protocol.stop();
+		for (Thread t : threads)
+			t.interrupt();
+		threads.clear();
+	}
+}
@@ -0,0 +1,26 @@
+package nl.cwi.reo.benchmarks;
+
+import nl.cwi.reo.runtime.Component;
+
+/**
+ * A component that stands for a thread that puts or gets at a port. Similar
+ * to atomic components in generated code, it only wakes up a thread that
+ * waits on its monitor.
+ */
+public class Endpoint implements Component {
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Component#activate()
+	 */
+	public void activate() {
+		synchronized (this) {
+			notify();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	public void run() {
+	}
+}
@@ -0,0 +1,75 @@
+package nl.cwi.reo.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks. This class accepts the same command line options as
+ * the JMH runner, but by default it writes the results as JSON to
+ * reo-benchmarks.json, and it varies the number of parties from one up to the
+ * number of available processors.
+ */
+public class Main {
+
+	/** Default file that stores the results. */
+	private static final String RESULT = "reo-benchmarks.json";
+
+	/**
+	 * The main method.
+	 *
+	 * @param args
+	 *            JMH command line options
+	 * @throws CommandLineOptionException
+	 *             if the options cannot be parsed
+	 * @throws RunnerException
+	 *             if a benchmark fails
+	 * @throws IOException
+	 *             if the help text cannot be written
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		if (cmd.shouldHelp()) {
+			cmd.showHelp();
+			return;
+		}
+
+		ChainedOptionsBuilder options = new OptionsBuilder().parent(cmd);
+		if (!cmd.getResultFormat().hasValue())
+			options.resultFormat(ResultFormatType.JSON);
+		if (!cmd.getResult().hasValue())
+			options.result(RESULT);
+		if (!cmd.getParameter("parties").hasValue())
+			options.param("parties", getParties());
+
+		Runner runner = new Runner(options.build());
+		if (cmd.shouldList())
+			runner.list();
+		else
+			runner.run();
+	}
+
+	/**
+	 * Gets the number of parties to measure: all powers of two below the
+	 * number of available processors, and the number of available
+	 * processors itself.
+	 *
+	 * @return array of party counts.
+	 */
+	private static String[] getParties() {
+		int cores = Runtime.getRuntime().availableProcessors();
+		List<String> parties = new ArrayList<>();
+		for (int n = 1; n < cores; n <<= 1)
+			parties.add(Integer.toString(n));
+		parties.add(Integer.toString(cores));
+		return parties.toArray(new String[parties.size()]);
+	}
+}
@@ -0,0 +1,60 @@
+package nl.cwi.reo.benchmarks;
+
+import java.util.List;
+
+import nl.cwi.reo.runtime.Port;
+
+/**
+ * Protocol of a merger that forwards a datum from any of its input ports to
+ * its single output port.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public class Merger<T> extends Protocol {
+
+	/** The input ports. */
+	private final List<Port<T>> a;
+
+	/** The output port. */
+	private final Port<T> b;
+
+	/** Index of the input port that is examined first in the next round. */
+	private int next = 0;
+
+	/**
+	 * Constructs a new merger.
+	 *
+	 * @param a
+	 *            list of input ports
+	 * @param b
+	 *            output port
+	 */
+	public Merger(List<Port<T>> a, Port<T> b) {
+		this.a = a;
+		this.b = b;
+		for (Port<T> p : a)
+			p.setConsumer(this);
+		b.setProducer(this);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.benchmarks.Protocol#fire()
+	 */
+	protected boolean fire() {
+		if (!b.hasGet())
+			return false;
+		int n = a.size();
+		for (int k = 0; k < n; k++) {
+			Port<T> p = a.get((next + k) % n);
+			T d = p.peek();
+			if (d != null) {
+				next = (next + k + 1) % n;
+				b.put(d);
+				p.get();
+				return true;
+			}
+		}
+		return false;
+	}
+}
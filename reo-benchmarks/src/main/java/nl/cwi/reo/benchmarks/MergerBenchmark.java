@@ -0,0 +1,50 @@
+package nl.cwi.reo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import nl.cwi.reo.runtime.Port;
+
+/**
+ * Measures many-to-one communication: a number of producers offer data via a
+ * merger to the benchmark thread.
+ */
+public class MergerBenchmark extends ConnectorBenchmark {
+
+	/** The number of producers. */
+	@Param({ "1", "2", "4" })
+	public int parties;
+
+	/** The output port of the merger. */
+	private Port<Integer> b;
+
+	/**
+	 * Sets up the connector.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		List<Port<Integer>> a = new ArrayList<>();
+		for (int i = 0; i < parties; i++)
+			a.add(newPort());
+		b = newPort();
+		b.setConsumer(new Endpoint());
+		start(new Merger<Integer>(a, b));
+		for (Port<Integer> p : a)
+			produce(p);
+	}
+
+	/**
+	 * Gets a datum from the merger.
+	 *
+	 * @return the datum
+	 */
+	@Benchmark
+	public Integer get() {
+		return b.get();
+	}
+}
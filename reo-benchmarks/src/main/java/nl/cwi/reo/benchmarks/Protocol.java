@@ -0,0 +1,62 @@
+package nl.cwi.reo.benchmarks;
+
+import nl.cwi.reo.runtime.Component;
+
+/**
+ * A hand-written protocol component that follows the structure of the
+ * protocols in generated Java code: the protocol thread sleeps until one of
+ * its ports activates it, and then fires transitions until none is enabled.
+ */
+public abstract class Protocol implements Component {
+
+	/** Indicates that a port has changed since the last round. */
+	private boolean pending = true;
+
+	/** Indicates that the protocol thread must terminate. */
+	private volatile boolean stopped = false;
+
+	/**
+	 * Fires at most one enabled transition.
+	 *
+	 * @return true, if a transition fired.
+	 */
+	protected abstract boolean fire();
+
+	/**
+	 * Requests the protocol thread to terminate.
+	 */
+	public void stop() {
+		stopped = true;
+		activate();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Component#activate()
+	 */
+	public void activate() {
+		synchronized (this) {
+			pending = true;
+			notify();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Runnable#run()
+	 */
+	public void run() {
+		while (!stopped) {
+			synchronized (this) {
+				while (!pending) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				pending = false;
+			}
+			while (!stopped && fire()) {
+			}
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package nl.cwi.reo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import nl.cwi.pr.runtime.QueueableHandler;
+import nl.cwi.pr.runtime.QueueableHandlersQueue;
+import nl.cwi.pr.runtime.SingleReaderQueue;
+import nl.cwi.pr.runtime.SingleReaderQueueItem;
+
+/**
+ * Measures the queues of the Lykos runtime under contention: a number of
+ * producers repeatedly offer to a queue, while the benchmark thread acts as
+ * its single reader. As in generated code, every producer waits until its
+ * element is taken before it offers again, and the capacity of the queue
+ * equals the number of producers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueBenchmark {
+
+	/** The queue: "items" for a single reader queue, "handlers" for a queueable handlers queue. */
+	@Param({ "items", "handlers" })
+	public String queue;
+
+	/** The number of producers. */
+	@Param({ "2", "4", "8", "16", "32", "64" })
+	public int producers;
+
+	/** Indicates that the producers must terminate. */
+	private volatile boolean stopped = false;
+
+	/** The single reader queue. */
+	private SingleReaderQueue items;
+
+	/** The queueable handlers queue. */
+	private QueueableHandlersQueue handlers;
+
+	/** The producers. */
+	private final List<Thread> threads = new ArrayList<>();
+
+	/**
+	 * Sets up the queue and starts the producers.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		items = new SingleReaderQueue(producers);
+		handlers = new QueueableHandlersQueue(producers);
+		for (int i = 0; i < producers; i++) {
+			Runnable r;
+			if (queue.equals("items")) {
+				final AtomicBoolean queued = new AtomicBoolean();
+				final SingleReaderQueueItem item = new SingleReaderQueueItem(null, null, () -> queued.set(false));
+				r = () -> {
+					while (!stopped) {
+						queued.set(true);
+						items.offer(item);
+						while (queued.get() && !stopped)
+							Thread.yield();
+					}
+				};
+			} else {
+				final QueueableHandler handler = new QueueableHandler(new Semaphore(1), handlers) {
+					@Override
+					public boolean call() {
+						return true;
+					}
+				};
+				r = () -> {
+					while (!stopped) {
+						handler.callAsync();
+						while (handler.isQueued.get() && !stopped)
+							Thread.yield();
+					}
+				};
+			}
+			Thread t = new Thread(r);
+			t.setDaemon(true);
+			threads.add(t);
+			t.start();
+		}
+	}
+
+	/**
+	 * Takes an element from the queue.
+	 *
+	 * @return the element
+	 */
+	@Benchmark
+	public Object take() {
+		if (queue.equals("handlers"))
+			return handlers.dequeue();
+		while (!items.canPoll())
+			Thread.yield();
+		SingleReaderQueueItem item = items.poll();
+		item.continuation.run();
+		return item;
+	}
+
+	/**
+	 * Stops the producers.
+	 */
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		stopped = true;
+		threads.clear();
+	}
+}
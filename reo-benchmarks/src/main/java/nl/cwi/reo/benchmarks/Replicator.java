@@ -0,0 +1,53 @@
+package nl.cwi.reo.benchmarks;
+
+import java.util.List;
+
+import nl.cwi.reo.runtime.Port;
+
+/**
+ * Protocol of a replicator that forwards a datum from its single input port
+ * to all of its output ports.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public class Replicator<T> extends Protocol {
+
+	/** The input port. */
+	private final Port<T> a;
+
+	/** The output ports. */
+	private final List<Port<T>> b;
+
+	/**
+	 * Constructs a new replicator.
+	 *
+	 * @param a
+	 *            input port
+	 * @param b
+	 *            list of output ports
+	 */
+	public Replicator(Port<T> a, List<Port<T>> b) {
+		this.a = a;
+		this.b = b;
+		a.setConsumer(this);
+		for (Port<T> p : b)
+			p.setProducer(this);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.benchmarks.Protocol#fire()
+	 */
+	protected boolean fire() {
+		T d = a.peek();
+		if (d == null)
+			return false;
+		for (Port<T> p : b)
+			if (!p.hasGet())
+				return false;
+		for (Port<T> p : b)
+			p.put(d);
+		a.get();
+		return true;
+	}
+}
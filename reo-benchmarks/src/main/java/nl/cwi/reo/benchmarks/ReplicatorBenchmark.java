@@ -0,0 +1,48 @@
+package nl.cwi.reo.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+
+import nl.cwi.reo.runtime.Port;
+
+/**
+ * Measures one-to-many communication: the benchmark thread offers data via a
+ * replicator to a number of consumers.
+ */
+public class ReplicatorBenchmark extends ConnectorBenchmark {
+
+	/** The number of consumers. */
+	@Param({ "1", "2", "4" })
+	public int parties;
+
+	/** The input port of the replicator. */
+	private Port<Integer> a;
+
+	/**
+	 * Sets up the connector.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		a = newPort();
+		a.setProducer(new Endpoint());
+		List<Port<Integer>> b = new ArrayList<>();
+		for (int i = 0; i < parties; i++)
+			b.add(newPort());
+		start(new Replicator<Integer>(a, b));
+		for (Port<Integer> p : b)
+			consume(p);
+	}
+
+	/**
+	 * Puts a datum to the replicator.
+	 */
+	@Benchmark
+	public void put() {
+		a.put(DATUM);
+	}
+}
@@ -0,0 +1,46 @@
+package nl.cwi.reo.benchmarks;
+
+import nl.cwi.reo.runtime.Port;
+
+/**
+ * Protocol of a sync channel from port a to port b.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public class Sync<T> extends Protocol {
+
+	/** The input port. */
+	private final Port<T> a;
+
+	/** The output port. */
+	private final Port<T> b;
+
+	/**
+	 * Constructs a new sync channel.
+	 *
+	 * @param a
+	 *            input port
+	 * @param b
+	 *            output port
+	 */
+	public Sync(Port<T> a, Port<T> b) {
+		this.a = a;
+		this.b = b;
+		a.setConsumer(this);
+		b.setProducer(this);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.benchmarks.Protocol#fire()
+	 */
+	protected boolean fire() {
+		T d;
+		if (b.hasGet() && (d = a.peek()) != null) {
+			b.put(d);
+			a.get();
+			return true;
+		}
+		return false;
+	}
+}
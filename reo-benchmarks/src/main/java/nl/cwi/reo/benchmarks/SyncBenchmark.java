@@ -0,0 +1,39 @@
+package nl.cwi.reo.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+
+import nl.cwi.reo.runtime.Port;
+
+/**
+ * Measures one-to-one communication: a single producer offers data via a
+ * sync channel to the benchmark thread.
+ */
+public class SyncBenchmark extends ConnectorBenchmark {
+
+	/** The output port of the sync channel. */
+	private Port<Integer> b;
+
+	/**
+	 * Sets up the connector.
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		Port<Integer> a = newPort();
+		b = newPort();
+		b.setConsumer(new Endpoint());
+		start(new Sync<Integer>(a, b));
+		produce(a);
+	}
+
+	/**
+	 * Gets a datum from the sync channel.
+	 *
+	 * @return the datum
+	 */
+	@Benchmark
+	public Integer get() {
+		return b.get();
+	}
+}
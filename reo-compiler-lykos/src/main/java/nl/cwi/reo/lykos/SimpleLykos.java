@@ -139,6 +139,7 @@ public class SimpleLykos {
 		mainCode += mainHeaderTemplate.render();
 
 		// Generate body
+		mainClassTemplate.add("settings", settings);
 		mainClassTemplate.add("signature", signature);
 		mainClassTemplate.add("protocolSignatures", protocolSignatures);
 		mainClassTemplate.add("workerSignatures", workerSignatures);
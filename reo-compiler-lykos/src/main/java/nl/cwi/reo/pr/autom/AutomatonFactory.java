@@ -1,5 +1,6 @@
 package nl.cwi.reo.pr.autom;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -26,11 +27,11 @@ import nl.cwi.reo.pr.autom.TermFactory.Term;
 import nl.cwi.reo.pr.autom.TermFactory.TermSet;
 import nl.cwi.reo.pr.autom.TransitionFactory.Transition;
 import nl.cwi.reo.pr.autom.TransitionFactory.TransitionSet;
+import nl.cwi.reo.pr.comp.Cancellation;
 import nl.cwi.reo.pr.misc.IdObjectFactory;
 import nl.cwi.reo.pr.misc.PortFactory;
 import nl.cwi.reo.pr.misc.PortFactory.Port;
 import nl.cwi.reo.pr.misc.PortFactory.PortSet;
-import nl.cwi.reo.pr.comp.Cancellation;
 
 public abstract class AutomatonFactory extends
 		IdObjectFactory<Automaton, AutomatonSet, AutomatonSpec> {
@@ -40,8 +41,16 @@ public abstract class AutomatonFactory extends
 	private final MemoryCellFactory memoryCellFactory;
 	private final PortFactory portFactory;
 	private final TermFactory termFactory;
-	private final int nStatesMax = 2048;
-	private final int nTransitionsMax = (int) Math.pow(2, 11 /* 12 */);
+
+	/*
+	 * Maximal number of states and transitions of a product automaton, set by
+	 * the system properties reo.lykos.states and reo.lykos.transitions; a
+	 * non-positive value means no maximum
+	 */
+	private final int nStatesMax = Integer.getInteger("reo.lykos.states",
+			1 << 16);
+	private final int nTransitionsMax = Integer.getInteger(
+			"reo.lykos.transitions", 1 << 18);
 
 	//
 	// CONSTRUCTORS
@@ -140,76 +149,75 @@ public abstract class AutomatonFactory extends
 
 
 		/*
-		 * Add states
+		 * Add reachable states and their transitions, starting from the
+		 * initial state: the outgoing transitions of a product state are
+		 * computed once, when the state is first reached, and the product is
+		 * canceled as soon as it exceeds the maximal number of states or
+		 * transitions
 		 */
 
-		StateSet states1 = automaton1.getStates();
-		StateSet states2 = automaton2.getStates();
+		Constraint keepConstraint1 = constraintFactory.newOrGetKeepConstraint(
+				automaton, automaton1.getMemoryCells());
+		Constraint keepConstraint2 = constraintFactory.newOrGetKeepConstraint(
+				automaton, automaton2.getMemoryCells());
 
+		Map<Transition, PortSet> projections = new HashMap<Transition, PortSet>();
 		Map<State, Map<State, State>> states = new HashMap<State, Map<State, State>>();
-		for (State s1 : states1) {
-			states.put(s1, new HashMap<State, State>());
-			for (State s2 : states2) {
-				boolean isInitialState = s1.isInitial() && s2.isInitial();
-				State state = automaton.addThenGetState(isInitialState);
-				states.get(s1).put(s2, state);
-
-
-			}
-		}
-
+		ArrayDeque<State[]> queue = new ArrayDeque<State[]>();
 
+		State initialState1 = automaton1.getInitialState();
+		State initialState2 = automaton2.getInitialState();
+		getOrAddProductState(automaton, states, queue, initialState1,
+				initialState2);
 
-		/*
-		 * Add synchronizing transitions
-		 */
-
-		TransitionSet transitions1 = automaton1.getTransitions();
-		TransitionSet transitions2 = automaton2.getTransitions();
-
-		for (Transition t1 : transitions1.getSorted()) {
-			PortSet ports1 = t1.getPorts();
-			for (Transition t2 : transitions2) {
-				PortSet ports2 = t2.getPorts();
-				PortSet intersection1 = portFactory.takeIntersection(allPorts1,
-						ports2);
-				PortSet intersection2 = portFactory.takeIntersection(allPorts2,
-						ports1);
+		int nStates = 0;
+		int nTransitions = 0;
+		while (!queue.isEmpty()) {
+			nStates++;
+			State[] pair = queue.poll();
+			State s1 = pair[0];
+			State s2 = pair[1];
+			State source = states.get(s1).get(s2);
 
-				if (intersection1.equals(intersection2)) {
+			List<Transition> transitions1 = s1.getTransitions().getSorted();
+			List<Transition> transitions2 = s2.getTransitions().getSorted();
 
-					State source, target;
-					source = states.get(t1.getSource()).get(t2.getSource());
-					target = states.get(t1.getTarget()).get(t2.getTarget());
-					PortSet ports = portFactory.takeUnion(ports1, ports2);
-					Constraint constraint = constraintFactory.compose(
-							automaton, t1.getConstraint(), t2.getConstraint());
+			/*
+			 * Add synchronizing transitions
+			 */
 
-					automaton.addOrKeepTransition(source, target, ports,
-							constraint);
+			for (Transition t1 : transitions1) {
+				PortSet ports1 = t1.getPorts();
+				PortSet intersection2 = project(projections, t1, allPorts2);
+				for (Transition t2 : transitions2) {
+					PortSet ports2 = t2.getPorts();
+					PortSet intersection1 = project(projections, t2,
+							allPorts1);
+
+					if (intersection1.equals(intersection2)) {
+						State target = getOrAddProductState(automaton, states,
+								queue, t1.getTarget(), t2.getTarget());
+						PortSet ports = portFactory.takeUnion(ports1, ports2);
+						Constraint constraint = constraintFactory.compose(
+								automaton, t1.getConstraint(),
+								t2.getConstraint());
+
+						automaton.addOrKeepTransition(source, target, ports,
+								constraint);
+						nTransitions++;
+					}
 				}
-
-
 			}
-		}
-
-
-		/*
-		 * Add independent transitions
-		 */
 
-		Constraint keepConstraint1 = constraintFactory.newOrGetKeepConstraint(
-				automaton, automaton1.getMemoryCells());
-		Constraint keepConstraint2 = constraintFactory.newOrGetKeepConstraint(
-				automaton, automaton2.getMemoryCells());
+			/*
+			 * Add independent transitions
+			 */
 
-		for (Transition t1 : transitions1) {
-			PortSet ports1 = t1.getPorts();
-			if (allPorts2.containsNone(ports1))
-				for (State s2 : states2) {
-					State source, target;
-					source = states.get(t1.getSource()).get(s2);
-					target = states.get(t1.getTarget()).get(s2);
+			for (Transition t1 : transitions1) {
+				PortSet ports1 = t1.getPorts();
+				if (allPorts2.containsNone(ports1)) {
+					State target = getOrAddProductState(automaton, states,
+							queue, t1.getTarget(), s2);
 
 					automaton.addOrKeepTransition(
 							source,
@@ -217,19 +225,15 @@ public abstract class AutomatonFactory extends
 							ports1,
 							constraintFactory.compose(automaton,
 									t1.getConstraint(), keepConstraint2));
-
+					nTransitions++;
 				}
-		}
-
-
+			}
 
-		for (Transition t2 : transitions2) {
-			PortSet ports2 = t2.getPorts();
-			if (allPorts1.containsNone(ports2))
-				for (State s1 : states1) {
-					State source, target;
-					source = states.get(s1).get(t2.getSource());
-					target = states.get(s1).get(t2.getTarget());
+			for (Transition t2 : transitions2) {
+				PortSet ports2 = t2.getPorts();
+				if (allPorts1.containsNone(ports2)) {
+					State target = getOrAddProductState(automaton, states,
+							queue, s1, t2.getTarget());
 
 					automaton.addOrKeepTransition(
 							source,
@@ -237,12 +241,32 @@ public abstract class AutomatonFactory extends
 							ports2,
 							constraintFactory.compose(automaton,
 									t2.getConstraint(), keepConstraint1));
+					nTransitions++;
+				}
+			}
+
+			/*
+			 * Check the size of the product: nTransitions counts added and
+			 * kept transitions, so it is recounted once it exceeds the maximum
+			 */
 
+			if (nStatesMax > 0 && nStates + queue.size() > nStatesMax) {
+				dispose(automaton);
+				throw new Cancellation("Too many states in a product automaton ("
+						+ (nStates + queue.size()) + ", while max=" + nStatesMax
+						+ ")");
+			}
 
-				}
+			if (nTransitionsMax > 0 && nTransitions > nTransitionsMax
+					&& (nTransitions = automaton.countTransitions()) > nTransitionsMax) {
+				dispose(automaton);
+				throw new Cancellation(
+						"Too many transitions in a product automaton ("
+								+ nTransitions + ", while max="
+								+ nTransitionsMax + ")");
+			}
 		}
 
-
 		return automaton;
 	}
 
@@ -344,21 +368,6 @@ public abstract class AutomatonFactory extends
 
 
 
-		if (automaton.countTransitions() > nTransitionsMax) {
-			dispose(automaton);
-			throw new Cancellation(
-					"Too many transitions in a product automaton ("
-							+ automaton.countTransitions() + ", while max="
-							+ nTransitionsMax + ")");
-		}
-
-		if (automaton.countStates() > nStatesMax) {
-			dispose(automaton);
-			throw new Cancellation("Too many states in a product automaton ("
-					+ automaton.countStates() + ", while max=" + nStatesMax
-					+ ")");
-		}
-
 		return automaton;
 	}
 
@@ -391,6 +400,44 @@ public abstract class AutomatonFactory extends
 	protected abstract TermFactory newTermFactory(PortFactory portFactory,
 			MemoryCellFactory memoryCellFactory);
 
+	//
+	// METHODS - PRIVATE
+	//
+
+	private State getOrAddProductState(Automaton automaton,
+			Map<State, Map<State, State>> states, ArrayDeque<State[]> queue,
+			State state1, State state2) {
+
+		Map<State, State> row = states.get(state1);
+		if (row == null) {
+			row = new HashMap<State, State>();
+			states.put(state1, row);
+		}
+
+		State state = row.get(state2);
+		if (state == null) {
+			state = automaton.addThenGetState(state1.isInitial()
+					&& state2.isInitial());
+			row.put(state2, state);
+			queue.add(new State[] { state1, state2 });
+		}
+
+		return state;
+	}
+
+	private PortSet project(Map<Transition, PortSet> projections,
+			Transition transition, PortSet ports) {
+
+		PortSet projection = projections.get(transition);
+		if (projection == null) {
+			projection = portFactory.takeIntersection(ports,
+					transition.getPorts());
+			projections.put(transition, projection);
+		}
+
+		return projection;
+	}
+
 	//
 	// CLASSES - PUBLIC
 	//
@@ -534,16 +581,20 @@ public abstract class AutomatonFactory extends
 		}
 
 		public void chainSilentTransitions() {
+			int id = 0;
 			while (true) {
 
 
 				/*
-				 * Find a silent nonloop transition
+				 * Find a silent nonloop transition (chaining constructs only
+				 * transitions with higher ids, so every search resumes after
+				 * the previous silent transition)
 				 */
 
 				Transition silentTransition = null;
-				for (Transition tr : transitions.getSilentSubset())
-					if (!tr.isLoop()) {
+				for (Transition tr = transitions.getNext(id); tr != null; tr = transitions
+						.getNext(tr.getId() + 1))
+					if (tr.isSilent() && !tr.isLoop()) {
 						silentTransition = tr;
 						break;
 					}
@@ -551,6 +602,8 @@ public abstract class AutomatonFactory extends
 				if (silentTransition == null)
 					break;
 
+				id = silentTransition.getId() + 1;
+
 				/*
 				 * Chain silentTransition with its successor transitions
 				 */
@@ -289,6 +289,8 @@ public abstract class ConstraintFactory extends
 
 		private List<Command> commandification = new ArrayList<>();
 
+		private boolean commandified = false;
+
 		//
 		// CONSTRUCTORS
 		//
@@ -310,6 +312,7 @@ public abstract class ConstraintFactory extends
 				throw new NullPointerException();
 
 			commandification.clear();
+			commandified = false;
 
 			/*
 			 * Add assignment/guarded failure commands
@@ -337,6 +340,7 @@ public abstract class ConstraintFactory extends
 						Term argument2 = equality.getArgument2();
 
 						if (argument1.isVariable()
+								&& !doneVariables.contains(argument1)
 								&& doneVariables.containsAll(argument2
 										.getVariables())) {
 
@@ -349,6 +353,7 @@ public abstract class ConstraintFactory extends
 						}
 
 						if (argument2.isVariable()
+								&& !doneVariables.contains(argument2)
 								&& doneVariables.containsAll(argument1
 										.getVariables())) {
 
@@ -405,6 +410,8 @@ public abstract class ConstraintFactory extends
 
 				if (!t.isPreVariable())
 					commandification.add(new Command.Export(t));
+
+			commandified = true;
 		}
 
 		public void disableCache() {
@@ -604,6 +611,10 @@ public abstract class ConstraintFactory extends
 			return quantifiedVariableIds;
 		}
 
+		public boolean isCommandified() {
+			return commandified;
+		}
+
 		@Override
 		public String toString() {
 			String string = "";
@@ -124,6 +124,24 @@ public class CompilerSettings implements Map<String, Object> {
 		return settings.isEmpty();
 	}
 
+	public boolean metrics() {
+		return settings.containsKey(FLAG_METRICS)
+				&& (boolean) settings.get(FLAG_METRICS);
+	}
+
+	public void metrics(boolean flag) {
+		settings.put(FLAG_METRICS, flag);
+	}
+
+	public boolean padded() {
+		return settings.containsKey(FLAG_PADDED)
+				&& (boolean) settings.get(FLAG_PADDED);
+	}
+
+	public void padded(boolean flag) {
+		settings.put(FLAG_PADDED, flag);
+	}
+
 	public boolean partition() {
 		return settings.containsKey(FLAG_PARTITION)
 				&& (boolean) settings.get(FLAG_PARTITION);
@@ -173,6 +191,15 @@ public class CompilerSettings implements Map<String, Object> {
 		return settings.values();
 	}
 
+	public boolean workerPool() {
+		return settings.containsKey(FLAG_WORKER_POOL)
+				&& (boolean) settings.get(FLAG_WORKER_POOL);
+	}
+
+	public void workerPool(boolean flag) {
+		settings.put(FLAG_WORKER_POOL, flag);
+	}
+
 	//
 	// STATIC - FIELDS
 	//
@@ -185,7 +212,13 @@ public class CompilerSettings implements Map<String, Object> {
 
 	public static final String FLAG_INFER_QUEUES = "INFER_QUEUES";
 
+	public static final String FLAG_METRICS = "METRICS";
+
+	public static final String FLAG_PADDED = "PADDED";
+
 	public static final String FLAG_PARTITION = "PARTITION";
 
 	public static final String FLAG_SUBTRACT_SYNTACTICALLY = "SUBTRACT_SYNTACTICALLY";
+
+	public static final String FLAG_WORKER_POOL = "WORKER_POOL";
 }
@@ -30,7 +30,7 @@ public abstract class IdObjectFactory<Obj extends IdObjectFactory<Obj, S, Sp>.Id
 	public void dispose(Obj object) {
 		if (object == null)
 			throw new NullPointerException();
-		if (!specs.containsValue(object))
+		if (!specs.containsKey(object.getSpec()))
 			throw new IllegalStateException();
 
 		specs.remove(object.getSpec());
@@ -409,6 +409,19 @@ public abstract class IdObjectFactory<Obj extends IdObjectFactory<Obj, S, Sp>.Id
 			return ids;
 		}
 
+		public Obj getNext(int id) {
+			for (int i = bits.nextSetBit(id); i >= 0; i = bits.nextSetBit(i + 1)) {
+				if (!ids.containsKey(i)) {
+					bits.clear(i);
+					continue;
+				}
+
+				return ids.get(i);
+			}
+
+			return null;
+		}
+
 		public List<Obj> getSorted() {
 			if (!isModified)
 				return sortedObjects;
@@ -581,35 +594,25 @@ public abstract class IdObjectFactory<Obj extends IdObjectFactory<Obj, S, Sp>.Id
 		public int nextSetBit(int index) {
 			int major = getMajor(index);
 
-			Iterator<Integer> iterator = map.keySet().iterator();
-			int key = -1;
-			while (iterator.hasNext()) {
-				key = iterator.next();
-				if (key >= major)
-					break;
-			}
-
-			if (key < major)
+			Entry<Integer, Integer> entry = map.ceilingEntry(major);
+			if (entry == null)
 				return -1;
 
-			int value = map.get(key);
-			int shift = 31 - getMinor(index);
+			int key = entry.getKey();
+			int value = entry.getValue();
+			if (key == major)
+				value &= -1 << getMinor(index);
 
-			while (true) {
-				while (shift >= 0) {
-					if (((value << shift) & 0b10000000_00000000_00000000_00000000) == 0b10000000_00000000_00000000_00000000)
-						return 32 * key + (31 - shift);
-
-					shift--;
-				}
-
-				if (!iterator.hasNext())
+			while (value == 0) {
+				entry = map.higherEntry(key);
+				if (entry == null)
 					return -1;
 
-				key = iterator.next();
-				value = map.get(key);
-				shift = 31;
+				key = entry.getKey();
+				value = entry.getValue();
 			}
+
+			return 32 * key + Integer.numberOfTrailingZeros(value);
 		}
 
 		public void or(BitSet set) {
@@ -20,6 +20,19 @@ import nl.cwi.reo.pr.targ.java.JavaVariable;
 
 public class JavaAutomatonFactory extends AutomatonFactory {
 	private JavaNames javaNames;
+	private final boolean padded;
+
+	//
+	// CONSTRUCTORS
+	//
+
+	public JavaAutomatonFactory() {
+		this(false);
+	}
+
+	public JavaAutomatonFactory(boolean padded) {
+		this.padded = padded;
+	}
 
 	//
 	// METHODS - PUBLIC
@@ -113,14 +126,14 @@ public class JavaAutomatonFactory extends AutomatonFactory {
 			for (Entry<Port, Integer> entr : getIndexPerPublicPort().entrySet()) {
 				Integer index = entr.getValue();
 				Map<String, Object> bitIndex = new HashMap<>();
-				bitIndex.put("wordIndex", index / 32);
+				bitIndex.put("wordIndex", index / getPortsPerWord());
 				bitIndex.put(
 						"mask",
 						"0b"
 								+ String.format(
 										"%32s",
 										Long.toBinaryString((long) Math.pow(2,
-												index % 32))).replace(' ', '0'));
+												index % getPortsPerWord()))).replace(' ', '0'));
 
 				portBitIndices.put(entr.getKey(), bitIndex);
 			}
@@ -136,6 +149,14 @@ public class JavaAutomatonFactory extends AutomatonFactory {
 			return className;
 		}
 
+		/*
+		 * In the padded layout, every port has a context word of its own, to
+		 * avoid contention between producers (see the runtime class Context).
+		 */
+		public int getPortsPerWord() {
+			return padded ? 1 : 32;
+		}
+
 		@Override
 		public String getVariableName() {
 			if (variableName == null)
@@ -12,6 +12,7 @@ import nl.cwi.reo.pr.autom.TransitionSpec;
 import nl.cwi.reo.pr.targ.java.JavaClass;
 import nl.cwi.reo.pr.targ.java.JavaNames;
 import nl.cwi.reo.pr.targ.java.JavaVariable;
+import nl.cwi.reo.pr.targ.java.autom.JavaAutomatonFactory.JavaAutomaton;
 
 public class JavaTransitionFactory extends TransitionFactory {
 	private final JavaNames javaNames;
@@ -95,11 +96,14 @@ public class JavaTransitionFactory extends TransitionFactory {
 			 * Get
 			 */
 
+			int portsPerWord = ((JavaAutomaton) getAutomaton())
+					.getPortsPerWord();
+
 			Map<Integer, Long> map = new TreeMap<>();
 			for (Integer integ : getIndexPerPublicPort().values()) {
-				Integer wordIndex = integ / 32;
+				Integer wordIndex = integ / portsPerWord;
 				map.put(wordIndex,
-						(long) Math.pow(2, integ % 32)
+						(long) Math.pow(2, integ % portsPerWord)
 								| (map.containsKey(wordIndex) ? map
 										.get(wordIndex) : 0));
 			}
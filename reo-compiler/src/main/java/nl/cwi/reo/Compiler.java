@@ -7,6 +7,8 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -22,6 +24,8 @@ import nl.cwi.reo.commands.Command;
 import nl.cwi.reo.commands.Commands;
 import nl.cwi.reo.compile.CompilerType;
 import nl.cwi.reo.compile.LykosCompiler;
+import nl.cwi.reo.compile.PortImplementation;
+import nl.cwi.reo.compile.ThreadImplementation;
 import nl.cwi.reo.interpret.Atom;
 import nl.cwi.reo.interpret.ReoProgram;
 import nl.cwi.reo.interpret.SemanticsType;
@@ -34,14 +38,26 @@ import nl.cwi.reo.interpret.interpreters.Interpreter;
 import nl.cwi.reo.interpret.ports.Port;
 import nl.cwi.reo.interpret.ports.PortType;
 import nl.cwi.reo.interpret.typetags.TypeTag;
+import nl.cwi.reo.interpret.values.IntegerValue;
 import nl.cwi.reo.interpret.values.StringValue;
 import nl.cwi.reo.interpret.values.Value;
 import nl.cwi.reo.pr.comp.CompilerSettings;
 import nl.cwi.reo.semantics.hypergraphs.ConstraintHypergraph;
 import nl.cwi.reo.semantics.prautomata.ListenerPR;
 import nl.cwi.reo.semantics.prba.ListenerPRBA;
+import nl.cwi.reo.semantics.predicates.Conjunction;
+import nl.cwi.reo.semantics.predicates.Constant;
+import nl.cwi.reo.semantics.predicates.Equality;
 import nl.cwi.reo.semantics.predicates.Formula;
+import nl.cwi.reo.semantics.predicates.Function;
+import nl.cwi.reo.semantics.predicates.MemoryVariable;
+import nl.cwi.reo.semantics.predicates.Negation;
+import nl.cwi.reo.semantics.predicates.PortVariable;
+import nl.cwi.reo.semantics.predicates.Relation;
+import nl.cwi.reo.semantics.predicates.Term;
+import nl.cwi.reo.semantics.predicates.Terms;
 import nl.cwi.reo.semantics.rulebasedautomata.ListenerRBA;
+import nl.cwi.reo.semantics.rulebasedautomata.Rule;
 import nl.cwi.reo.semantics.rulebasedautomata.RuleBasedAutomaton;
 import nl.cwi.reo.templates.Atomic;
 import nl.cwi.reo.templates.Component;
@@ -101,14 +117,43 @@ public class Compiler {
 	@Parameter(names = { "-pkg" }, description = "target code package")
 	private String packagename;
 
+	/**
+	 * Port implementation, or null for the default port implementation of
+	 * the thread implementation.
+	 */
+	@Parameter(names = {
+			"-port" }, description = "port implementation of the Java runtime (default WAITNOTIFY; -threads VIRTUAL requires LOCKFREE)")
+	private PortImplementation port;
+
 	/** Partitioning. */
 	@Parameter(names = { "-pt" }, description = "synchronous region decomposition")
 	private boolean partitioning = false;
 
+	/** Runtime metrics of generated protocols. */
+	@Parameter(names = { "-metrics" }, description = "count transition firings and measure port blocking times")
+	private boolean metrics = false;
+
+	/** Padded layout of the Lykos runtime. */
+	@Parameter(names = { "-padded" }, description = "cache line padded layout of the Lykos runtime")
+	private boolean padded = false;
+
+	/** Worker pool for the master automata of the Lykos runtime. */
+	@Parameter(names = { "-pool" }, description = "run master automata of a partitioned protocol on a work-stealing pool")
+	private boolean pool = false;
+
 	/** Scheduling. */
 	@Parameter(names = { "-sch" }, description = "generate custom scheduling policy")
 	private boolean scheduling = false;
 
+	/** Ports that cross a process boundary. */
+	@Parameter(names = {
+			"-shm" }, variableArity = true, description = "list of ports of the Java runtime that use the shared memory transport")
+	private List<String> shared = new ArrayList<String>();
+
+	/** Thread implementation. */
+	@Parameter(names = { "-threads" }, description = "thread implementation of the Java runtime")
+	private ThreadImplementation threads = ThreadImplementation.PLATFORM;
+
 	/**
 	 * Target language.
 	 */
@@ -185,6 +230,9 @@ public class Compiler {
 		settings.ignoreInput(false);
 		settings.ignoreData(false);
 		settings.partition(!partitioning);
+		settings.padded(padded);
+		settings.workerPool(pool);
+		settings.metrics(metrics);
 		settings.subtractSyntactically(true);
 		settings.commandify(true);
 		settings.inferQueues(true);
@@ -224,6 +272,14 @@ public class Compiler {
 	 */
 	private void compile() {
 
+		// Virtual threads must not block on monitors, so they require parking ports.
+		boolean virtual = threads == ThreadImplementation.VIRTUAL;
+		if (virtual && port != null && port != PortImplementation.LOCKFREE) {
+			monitor.add("-threads VIRTUAL requires -port LOCKFREE.");
+			return;
+		}
+		PortImplementation p = port != null ? port : virtual ? PortImplementation.LOCKFREE : PortImplementation.WAITNOTIFY;
+
 		Interpreter interpreter = getInterpreter(lang);
 
 		ReoProgram program; 	
@@ -235,21 +291,326 @@ public class Compiler {
 		connector = connector.flatten();
 		connector = connector.insertNodes(true, true, new RuleBasedAutomaton());
 		connector = connector.integrate();
+		if (lang == Language.JAVA)
+			connector = inferQueues(connector);
 		connector = compose(connector);
 	
 //		connector = rename(connector,program.getConnector().getLinks());
 		
 	  	Set<Transition> transitions = buildTransitions(connector);		
-		Set<Set<Transition>> partition = partition(transitions, false);
+		Set<Set<Transition>> partition = partition(transitions, partitioning);
 
 		List<Component> components = new ArrayList<>();
 		components.addAll(buildProtocols(connector, partition));
 		components.addAll(buildAtomics(connector, lang));
 
-		ReoTemplate template = new ReoTemplate(program.getFile(), version, packagename, program.getName(), components);
+		boolean scheduled = threads == ThreadImplementation.SCHEDULED;
+		ReoTemplate template = new ReoTemplate(program.getFile(), version, packagename, program.getName(), components,
+				p.getClassName(), virtual, scheduled, metrics, sharedPorts(components));
 		generateCode(template);
 	}
 
+	/**
+	 * Selects the ports that use the shared memory transport. Unknown ports
+	 * and ports of a primitive type, which the shared memory transport does
+	 * not support, are reported and remain in-heap.
+	 * 
+	 * @param components
+	 *            list of components
+	 * @return names of the ports that use the shared memory transport.
+	 */
+	private Set<String> sharedPorts(List<Component> components) {
+		Map<String, Port> ports = new HashMap<>();
+		for (Component c : components)
+			for (Port p : c.getPorts())
+				ports.put(p.getName(), p);
+		Set<String> primitives = new HashSet<>(Arrays.asList("Integer", "int", "Long", "long", "Double", "double"));
+		Set<String> names = new HashSet<>();
+		for (String name : shared) {
+			Port p = ports.get(name);
+			if (p == null)
+				monitor.add("Port " + name + " does not exist, and cannot use shared memory.");
+			else if (p.getTypeTag() != null && primitives.contains(p.getTypeTag().toString()))
+				monitor.add("Port " + name + " has a primitive type, and cannot use shared memory.");
+			else
+				names.add(name);
+		}
+		return names;
+	}
+
+	/**
+	 * Replaces every chain of two or more fifo1 channels by a single bounded
+	 * queue. The queue is a memory cell that holds a
+	 * nl.cwi.reo.runtime.RingBuffer, which is accessed via function and
+	 * relation symbols. Hence, a datum crosses the chain in two transitions,
+	 * instead of one transition per fifo1 channel.
+	 * 
+	 * @param connector
+	 *            flattened and integrated connector
+	 * @return connector wherein each chain of fifo1 channels is replaced by a
+	 *         single atom.
+	 */
+	private ReoConnector inferQueues(ReoConnector connector) {
+		List<ReoConnectorAtom> atoms = connector.getAtoms();
+
+		// Count the number of atoms that use each port.
+		Map<Port, Integer> degree = new HashMap<>();
+		for (ReoConnectorAtom atom : atoms)
+			for (Port p : atom.getInterface())
+				degree.merge(p, 1, Integer::sum);
+
+		// Find the input port and output port of each fifo1 channel.
+		Map<ReoConnectorAtom, Port[]> fifos = new LinkedHashMap<>();
+		Map<Port, ReoConnectorAtom> consumer = new HashMap<>();
+		for (ReoConnectorAtom atom : atoms) {
+			Port[] ends = getFifo1(atom);
+			if (ends != null) {
+				fifos.put(atom, ends);
+				consumer.put(ends[0], atom);
+			}
+		}
+
+		// Link each fifo1 to the next fifo1 via a hidden port of degree two.
+		Map<ReoConnectorAtom, ReoConnectorAtom> next = new HashMap<>();
+		Set<ReoConnectorAtom> successors = new HashSet<>();
+		for (Map.Entry<ReoConnectorAtom, Port[]> fifo : fifos.entrySet()) {
+			Port b = fifo.getValue()[1];
+			ReoConnectorAtom g = consumer.get(b);
+			if (g != null && g != fifo.getKey() && b.isHidden() && degree.get(b) == 2) {
+				next.put(fifo.getKey(), g);
+				successors.add(g);
+			}
+		}
+
+		List<ReoConnector> components = new ArrayList<>();
+		Map<Port, Port> links = new HashMap<>(connector.getLinks());
+		Set<ReoConnectorAtom> removed = new HashSet<>();
+		Set<String> cells = getMemoryCells(atoms);
+		int n_queue = 1;
+		for (ReoConnectorAtom head : fifos.keySet()) {
+			if (successors.contains(head) || !next.containsKey(head))
+				continue;
+			int k = 1;
+			ReoConnectorAtom tail = head;
+			removed.add(head);
+			while (next.containsKey(tail)) {
+				links.remove(fifos.get(tail)[1]);
+				tail = next.get(tail);
+				removed.add(tail);
+				k++;
+			}
+			Port a = fifos.get(head)[0];
+			Port b = fifos.get(tail)[1];
+			Map<Port, Port> _links = new LinkedHashMap<>();
+			_links.put(a, a);
+			_links.put(b, b);
+			String name;
+			while (!cells.add(name = "q" + n_queue))
+				n_queue++;
+			components.add(new ReoConnectorAtom("fifo", Arrays.asList(getQueue(a, b, k, name)), _links));
+		}
+
+		if (removed.isEmpty())
+			return connector;
+
+		for (ReoConnectorAtom atom : atoms)
+			if (!removed.contains(atom))
+				components.add(atom);
+		return new ReoConnectorComposite(connector.getName(), "", components, links);
+	}
+
+	/**
+	 * Gets the input and output port of a fifo1 channel, as defined in
+	 * reo/fifo1.rba.treo.
+	 * 
+	 * @param atom
+	 *            atomic component
+	 * @return array that contains the input port and the output port, or null
+	 *         if the atom is not an empty fifo1 channel.
+	 */
+	private static Port[] getFifo1(ReoConnectorAtom atom) {
+		if (!"fifo1".equals(atom.getName()) || atom.getSemantics().size() != 1
+				|| !(atom.getSemantics().get(0) instanceof RuleBasedAutomaton))
+			return null;
+		RuleBasedAutomaton rba = (RuleBasedAutomaton) atom.getSemantics().get(0);
+		if (!rba.getInitial().isEmpty())
+			return null;
+		Port a = null;
+		Port b = null;
+		for (Port p : rba.getInterface()) {
+			if (p.isInput() && a == null)
+				a = p;
+			else if (!p.isInput() && b == null)
+				b = p;
+			else
+				return null;
+		}
+		if (a == null || b == null || a.equals(b) || !isFifo1(rba, a, b))
+			return null;
+		return new Port[] { a, b };
+	}
+
+	/**
+	 * Checks whether the rules of an automaton are those of
+	 * reo/fifo1.rba.treo, i.e., a single memory cell m that is filled via a
+	 * if it is empty, and drained via b if it is full.
+	 * 
+	 * @param rba
+	 *            rule-based automaton
+	 * @param a
+	 *            input port
+	 * @param b
+	 *            output port
+	 * @return true, if rba behaves as a fifo1 channel from a to b.
+	 */
+	private static boolean isFifo1(RuleBasedAutomaton rba, Port a, Port b) {
+		List<Rule> rules = new ArrayList<>();
+		for (Set<Rule> part : rba.getRules())
+			rules.addAll(part);
+		if (rules.size() != 2)
+			return false;
+
+		Set<String> names = new HashSet<>();
+		for (Rule r : rules)
+			for (MemoryVariable m : r.getMemoryCells())
+				names.add(m.getName());
+		if (names.size() != 1)
+			return false;
+		String name = names.iterator().next();
+
+		MemoryVariable m = new MemoryVariable(name, false);
+		MemoryVariable _m = new MemoryVariable(name, true);
+		Set<Formula> fill = new HashSet<>(
+				Arrays.asList(new Equality(m, Terms.Null), new Equality(_m, new PortVariable(a))));
+		Set<Formula> drain = new HashSet<>(Arrays.asList(new Negation(new Equality(m, Terms.Null)),
+				new Equality(new PortVariable(b), m), new Equality(_m, Terms.Null)));
+
+		boolean filled = false;
+		boolean drained = false;
+		for (Rule r : rules) {
+			Map<Port, Boolean> sync = r.getSync();
+			boolean x = Boolean.TRUE.equals(sync.get(a));
+			boolean y = Boolean.TRUE.equals(sync.get(b));
+			Set<Formula> data = getDataConstraints(r.getFormula());
+			if (x && !y && data.equals(fill))
+				filled = true;
+			else if (!x && y && data.equals(drain))
+				drained = true;
+			else
+				return false;
+		}
+		return filled && drained;
+	}
+
+	/**
+	 * Gets the clauses of a conjunction that constrain data, i.e., all clauses
+	 * except those that only state whether a port fires.
+	 * 
+	 * @param f
+	 *            formula
+	 * @return set of data constraints of f.
+	 */
+	private static Set<Formula> getDataConstraints(Formula f) {
+		Set<Formula> clauses = new HashSet<>();
+		if (f instanceof Conjunction) {
+			for (Formula g : ((Conjunction) f).getClauses())
+				clauses.addAll(getDataConstraints(g));
+		} else {
+			Formula g = f instanceof Negation ? ((Negation) f).getFormula() : f;
+			if (!(g instanceof Equality) || !isSyncConstraint((Equality) g))
+				clauses.add(f);
+		}
+		return clauses;
+	}
+
+	/**
+	 * Checks whether an equality only states whether a port fires.
+	 * 
+	 * @param e
+	 *            equality
+	 * @return true, if e equates a port variable to null or to non-null.
+	 */
+	private static boolean isSyncConstraint(Equality e) {
+		Term s = e.getLHS();
+		Term t = e.getRHS();
+		if (t instanceof PortVariable) {
+			t = s;
+			s = e.getRHS();
+		}
+		return s instanceof PortVariable && (t == Terms.Null || t == Terms.NonNull);
+	}
+
+	/**
+	 * Gets the names of all memory cells of the rule-based automata of a list
+	 * of atoms.
+	 * 
+	 * @param atoms
+	 *            list of atoms
+	 * @return set of names of memory cells.
+	 */
+	private static Set<String> getMemoryCells(List<ReoConnectorAtom> atoms) {
+		Set<String> names = new HashSet<>();
+		for (ReoConnectorAtom atom : atoms)
+			for (Atom s : atom.getSemantics())
+				if (s instanceof RuleBasedAutomaton) {
+					RuleBasedAutomaton rba = (RuleBasedAutomaton) s;
+					for (MemoryVariable m : rba.getInitial().keySet())
+						names.add(m.getName());
+					for (Set<Rule> part : rba.getRules())
+						for (Rule r : part)
+							for (MemoryVariable m : r.getMemoryCells())
+								names.add(m.getName());
+				}
+		return names;
+	}
+
+	/**
+	 * Constructs the semantics of a bounded queue. The queue accepts a datum
+	 * at port a if it is not full, and it offers its oldest datum at port b
+	 * if it is not empty.
+	 * 
+	 * @param a
+	 *            input port
+	 * @param b
+	 *            output port
+	 * @param k
+	 *            capacity
+	 * @param name
+	 *            name of the memory cell
+	 * @return rule-based automaton of the queue.
+	 */
+	private static RuleBasedAutomaton getQueue(Port a, Port b, int k, String name) {
+		MemoryVariable q = new MemoryVariable(name, false);
+		MemoryVariable _q = new MemoryVariable(name, true);
+		PortVariable x = new PortVariable(a);
+		PortVariable y = new PortVariable(b);
+		TypeTag tag = new TypeTag("RingBuffer<" + (a.getTypeTag() != null ? a.getTypeTag() : "String") + ">");
+
+		Map<Port, Boolean> put = new HashMap<>();
+		put.put(a, true);
+		put.put(b, false);
+		Formula f = new Conjunction(Arrays.asList(new Relation("RingBuffer.hasSpace", Arrays.asList(q), false),
+				new Equality(_q, new Function("RingBuffer.enqueue", Arrays.asList(q, x), false, tag))));
+
+		Map<Port, Boolean> get = new HashMap<>();
+		get.put(a, false);
+		get.put(b, true);
+		Formula g = new Conjunction(Arrays.asList(new Relation("RingBuffer.hasData", Arrays.asList(q), false),
+				new Equality(y, new Function("RingBuffer.peek", Arrays.asList(q), false, a.getTypeTag())),
+				new Equality(_q, new Function("RingBuffer.dequeue", Arrays.asList(q), false, tag))));
+
+		Set<Rule> rules = new HashSet<>(Arrays.asList(new Rule(put, f), new Rule(get, g)));
+		Set<Set<Rule>> _rules = new HashSet<>();
+		_rules.add(rules);
+
+		Term init = new Function("RingBuffer.allocate", Arrays.asList(new Constant(new IntegerValue(k))), false,
+				tag);
+		Map<MemoryVariable, Term> initial = new HashMap<>();
+		initial.put(q, init);
+
+		return new RuleBasedAutomaton(_rules, initial);
+	}
+
 	/**
 	 * Composes all sub-connectors in a given connector. 
 	 * Composition is defined per semantics. 
@@ -440,31 +801,84 @@ public class Compiler {
 	}
 
 	/**
-	 * Partitions the set of transitions into independent regions.
+	 * Partitions the set of transitions into independent synchronous regions.
+	 * Two transitions belong to the same region if they are connected via a
+	 * chain of transitions that pairwise share a port or a memory cell.
+	 * Regions can execute concurrently, since they never access the same
+	 * port or memory cell.
 	 * 
 	 * @param transitions
 	 *            set of transitions
+	 * @param decompose
+	 *            if false, all transitions are put in a single region
 	 * @return partitioned set of transitions.
 	 */
-	private Set<Set<Transition>> partition(Set<Transition> transitions, Boolean max) {
-		Set<Set<Transition>> partition = new HashSet<>();
-
-		if (!transitions.isEmpty() ) {
-			if(max){
-				for(Transition t : transitions){
-					Set<Transition> s = new HashSet<>();
-					s.add(t);
-					partition.add(s);
-				}
+	private Set<Set<Transition>> partition(Set<Transition> transitions, boolean decompose) {
+		Set<Set<Transition>> partition = new LinkedHashSet<>();
+
+		if (transitions.isEmpty())
+			return partition;
+
+		if (!decompose) {
+			partition.add(transitions);
+			return partition;
+		}
+
+		// Union-find over transition indices, joined via shared ports and
+		// memory cells.
+		List<Transition> list = new ArrayList<>(transitions);
+		int[] parent = new int[list.size()];
+		for (int i = 0; i < parent.length; i++)
+			parent[i] = i;
+
+		Map<Object, Integer> owner = new HashMap<>();
+		for (int i = 0; i < list.size(); i++) {
+			Set<Object> resources = new HashSet<>();
+			for (Port p : list.get(i).getInterface())
+				resources.add(p.getName());
+			resources.addAll(list.get(i).getMemoryCells());
+			for (Object x : resources) {
+				Integer j = owner.putIfAbsent(x, i);
+				if (j != null)
+					parent[find(parent, i)] = find(parent, j);
 			}
-			else
-				partition.add(transitions);
 		}
-			
+
+		Map<Integer, Set<Transition>> regions = new LinkedHashMap<>();
+		for (int i = 0; i < list.size(); i++) {
+			int root = find(parent, i);
+			Set<Transition> region = regions.get(root);
+			if (region == null)
+				regions.put(root, region = new HashSet<>());
+			region.add(list.get(i));
+		}
+		partition.addAll(regions.values());
 
 		return partition;
 	}
 
+	/**
+	 * Finds the representative of an element in a union-find forest, and
+	 * compresses the path to this representative.
+	 * 
+	 * @param parent
+	 *            union-find forest
+	 * @param i
+	 *            element
+	 * @return representative of element i.
+	 */
+	private static int find(int[] parent, int i) {
+		int root = i;
+		while (parent[root] != root)
+			root = parent[root];
+		while (parent[i] != root) {
+			int next = parent[i];
+			parent[i] = root;
+			i = next;
+		}
+		return root;
+	}
+
 	/**
 	 * Generates code from the standard Reo template.
 	 * 
@@ -127,7 +127,7 @@ public class LykosCompiler {
 		 */
 		switch (targetLanguage) {
 		case JAVA:
-			this.automatonFactory = new JavaAutomatonFactory();
+			this.automatonFactory = new JavaAutomatonFactory(settings.padded());
 			this.portFactory = automatonFactory.getPortFactory();
 			break;
 		case C11:
@@ -0,0 +1,49 @@
+package nl.cwi.reo.compile;
+
+/**
+ * Enumerates the port implementations of the Java runtime that can be used by
+ * generated code.
+ */
+public enum PortImplementation {
+
+	/**
+	 * Port that blocks via wait and notify on the monitor of its components.
+	 */
+	WAITNOTIFY,
+
+	/**
+	 * Port that blocks via compare-and-set, adaptive spinning, and parking.
+	 */
+	LOCKFREE;
+
+	/**
+	 * Gets the name of the runtime class that implements this port.
+	 *
+	 * @return simple name of a class in nl.cwi.reo.runtime.
+	 */
+	public String getClassName() {
+		switch (this) {
+		case WAITNOTIFY:
+			return "PortWaitNotify";
+		case LOCKFREE:
+			return "PortLockFree";
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		switch (this) {
+		case WAITNOTIFY:
+			return "Wait/notify";
+		case LOCKFREE:
+			return "Lock-free";
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+}
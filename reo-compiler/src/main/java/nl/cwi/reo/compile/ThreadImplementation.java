@@ -0,0 +1,41 @@
+package nl.cwi.reo.compile;
+
+/**
+ * Enumerates the ways in which generated Java code runs its components.
+ */
+public enum ThreadImplementation {
+
+	/**
+	 * One platform thread per component, blocking via wait and notify.
+	 */
+	PLATFORM,
+
+	/**
+	 * One virtual thread per component, multiplexed on a bounded pool of
+	 * carrier threads, blocking via parking only.
+	 */
+	VIRTUAL,
+
+	/**
+	 * One platform thread per atomic component, and protocols as event-driven
+	 * tasks on a bounded pool of scheduler threads.
+	 */
+	SCHEDULED;
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		switch (this) {
+		case PLATFORM:
+			return "Platform";
+		case VIRTUAL:
+			return "Virtual";
+		case SCHEDULED:
+			return "Scheduled";
+		default:
+			throw new IllegalArgumentException();
+		}
+	}
+}
@@ -3,14 +3,24 @@
  */
 package nl.cwi.reo.templates;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import nl.cwi.reo.interpret.ports.Port;
+import nl.cwi.reo.interpret.typetags.TypeTag;
+import nl.cwi.reo.semantics.predicates.Function;
 import nl.cwi.reo.semantics.predicates.Term;
 import nl.cwi.reo.semantics.predicates.MemoryVariable;
+import nl.cwi.reo.semantics.predicates.PortVariable;
 
 /**
  * Compiled automaton that is independent of the target language.
@@ -32,6 +42,9 @@ public class Protocol implements Component {
 	/** The initial. */
 	private final Map<MemoryVariable, Term> initial;
 
+	/** The type tags of the memory cells, by name. */
+	private final Map<String, TypeTag> cellTypes;
+
 	/**
 	 * Instantiates a new protocol.
 	 *
@@ -50,15 +63,82 @@ public class Protocol implements Component {
 		for (Transition t : transitions)
 			ports.addAll(t.getInterface());
 		this.ports = ports;
-		this.transitions = transitions;
+		this.transitions = new LinkedHashSet<>(transitions);
 
 		this.initial = new HashMap<>();
-		for (Transition t : transitions){
-			this.initial.putAll(t.getInitial());
+		for (Transition t : transitions)
+			for (MemoryVariable m : t.getMemoryCells())
+				this.initial.put(m, null);
+		//Overwrite initial if not null, and skip memory cells of other protocols
+		for (MemoryVariable mv : initial.keySet()) {
+			MemoryVariable m = new MemoryVariable(mv.getName(),false,mv.getTypeTag());
+			if (this.initial.containsKey(m))
+				this.initial.put(m,initial.get(mv));
 		}
-		//Overwrite initial if not null
-		for (MemoryVariable mv : initial.keySet())
-			this.initial.put(new MemoryVariable(mv.getName(),false,mv.getTypeTag()),initial.get(mv));
+		this.cellTypes = inferCellTypes();
+	}
+
+	/**
+	 * Infers the type tag of every memory cell from the ports that write to
+	 * it and read from it, either directly or via other memory cells. A
+	 * memory cell gets no type tag if these ports disagree, or if it is
+	 * initialized by a function.
+	 * 
+	 * @return map that assigns a type tag to the name of some memory cells.
+	 */
+	private Map<String, TypeTag> inferCellTypes() {
+		Map<String, TypeTag> types = new HashMap<>();
+		Set<String> conflicts = new HashSet<>();
+		boolean changed = true;
+		while (changed) {
+			changed = false;
+			for (Transition t : transitions) {
+				for (Map.Entry<MemoryVariable, Term> upd : t.getMemory().entrySet()) {
+					Term v = upd.getValue();
+					TypeTag tag = null;
+					if (v instanceof PortVariable)
+						tag = ((PortVariable) v).getTypeTag();
+					else if (v instanceof MemoryVariable)
+						tag = types.get(((MemoryVariable) v).getName());
+					changed |= assign(upd.getKey().getName(), tag, types, conflicts);
+				}
+				for (Map.Entry<PortVariable, Term> upd : t.getOutput().entrySet())
+					if (upd.getValue() instanceof MemoryVariable)
+						changed |= assign(((MemoryVariable) upd.getValue()).getName(), upd.getKey().getTypeTag(),
+								types, conflicts);
+			}
+		}
+		for (Map.Entry<MemoryVariable, Term> init : initial.entrySet())
+			if (init.getValue() instanceof Function)
+				types.remove(init.getKey().getName());
+		return types;
+	}
+
+	/**
+	 * Assigns a type tag to a memory cell, unless the memory cell already has
+	 * a different type tag.
+	 * 
+	 * @param name
+	 *            name of the memory cell
+	 * @param tag
+	 *            type tag, or null
+	 * @param types
+	 *            type tags assigned so far
+	 * @param conflicts
+	 *            names of memory cells with conflicting type tags
+	 * @return true, if the assigned type tags changed.
+	 */
+	private static boolean assign(String name, @Nullable TypeTag tag, Map<String, TypeTag> types, Set<String> conflicts) {
+		if (tag == null || tag.toString().isEmpty() || tag.isDefaultType() || conflicts.contains(name))
+			return false;
+		TypeTag old = types.putIfAbsent(name, tag);
+		if (old == null)
+			return true;
+		if (old.equals(tag))
+			return false;
+		types.remove(name);
+		conflicts.add(name);
+		return true;
 	}
 
 	/**
@@ -70,6 +150,65 @@ public class Protocol implements Component {
 		return transitions;
 	}
 
+	/**
+	 * Gets, for every port of this protocol, the indices of all transitions
+	 * that mention this port. Indices refer to the iteration order of
+	 * {@link #getTransitions()}.
+	 *
+	 * @return map that assigns to each port name a list of transition
+	 *         indices.
+	 */
+	public Map<String, List<Integer>> getPortIndex() {
+		Map<String, List<Integer>> index = new LinkedHashMap<>();
+		int i = 0;
+		for (Transition t : transitions) {
+			for (Port p : t.getInterface()) {
+				List<Integer> list = index.get(p.getName());
+				if (list == null)
+					index.put(p.getName(), list = new ArrayList<>());
+				if (!list.contains(i))
+					list.add(i);
+			}
+			i++;
+		}
+		return index;
+	}
+
+	/**
+	 * Gets, for every transition, the indices of all transitions that share a
+	 * port or a memory cell with it, including the transition itself. After a
+	 * transition fires, only its dependent transitions need to be checked
+	 * again.
+	 *
+	 * @return list that assigns to each transition index a list of transition
+	 *         indices.
+	 */
+	public List<List<Integer>> getDependencies() {
+		List<Set<Object>> names = new ArrayList<>();
+		for (Transition t : transitions) {
+			Set<Object> s = new HashSet<>();
+			for (Port p : t.getInterface())
+				s.add(p.getName());
+			s.addAll(t.getMemoryCells());
+			names.add(s);
+		}
+
+		Map<Object, List<Integer>> users = new HashMap<>();
+		for (int i = 0; i < names.size(); i++)
+			for (Object x : names.get(i))
+				users.computeIfAbsent(x, k -> new ArrayList<>()).add(i);
+
+		List<List<Integer>> dependencies = new ArrayList<>();
+		for (int i = 0; i < names.size(); i++) {
+			Set<Integer> set = new TreeSet<>();
+			set.add(i);
+			for (Object x : names.get(i))
+				set.addAll(users.get(x));
+			dependencies.add(new ArrayList<>(set));
+		}
+		return dependencies;
+	}
+
 	/**
 	 * Gets the initial.
 	 *
@@ -79,6 +218,16 @@ public class Protocol implements Component {
 		return initial;
 	}
 
+	/**
+	 * Gets the type tags of the memory cells. A memory cell without a type
+	 * tag is not in this map.
+	 *
+	 * @return map that assigns type tags to names of memory cells
+	 */
+	public Map<String, TypeTag> getCellTypes() {
+		return cellTypes;
+	}
+
 	/**
 	 * Gets the name.
 	 *
@@ -35,6 +35,21 @@ public final class ReoTemplate {
 	/** The components. */
 	private final List<Component> components;
 
+	/** The name of the runtime class that implements ports. */
+	private final String port;
+
+	/** Whether components run in virtual threads. */
+	private final boolean virtual;
+
+	/** Whether protocols run as tasks on a pool of scheduler threads. */
+	private final boolean scheduled;
+
+	/** Whether generated code records runtime metrics. */
+	private final boolean metrics;
+
+	/** Names of the ports that use the shared memory transport. */
+	private final Map<String, Boolean> shared;
+
 	/**
 	 * Instantiates a new reo template.
 	 *
@@ -46,13 +61,32 @@ public final class ReoTemplate {
 	 *            the name
 	 * @param components
 	 *            the components
+	 * @param port
+	 *            the name of the runtime class that implements ports
+	 * @param virtual
+	 *            whether components run in virtual threads
+	 * @param scheduled
+	 *            whether protocols run as tasks on a pool of scheduler threads
+	 * @param metrics
+	 *            whether generated code records runtime metrics
+	 * @param shared
+	 *            names of the ports that use the shared memory transport
 	 */
-	public ReoTemplate(String reofile, String version, String packagename, String name, List<Component> components) {
+	public ReoTemplate(String reofile, String version, String packagename, String name, List<Component> components,
+			String port, boolean virtual, boolean scheduled, boolean metrics, Collection<String> shared) {
 		this.reofile = reofile;
 		this.version = version;
 		this.packagename = packagename;
 		this.name = name;
 		this.components = Collections.unmodifiableList(components);
+		this.port = port;
+		this.virtual = virtual;
+		this.scheduled = scheduled;
+		this.metrics = metrics;
+		Map<String, Boolean> S = new HashMap<>();
+		for (String s : shared)
+			S.put(s, true);
+		this.shared = Collections.unmodifiableMap(S);
 		Set<Port> P = new HashSet<Port>();
 		for (Component c : components)
 			P.addAll(c.getPorts());
@@ -95,6 +129,52 @@ public final class ReoTemplate {
 		return name;
 	}
 
+	/**
+	 * Gets the name of the runtime class that implements ports.
+	 *
+	 * @return the port class name
+	 */
+	public String getPort() {
+		return port;
+	}
+
+	/**
+	 * Checks whether components run in virtual threads.
+	 *
+	 * @return true, if components run in virtual threads
+	 */
+	public boolean isVirtual() {
+		return virtual;
+	}
+
+	/**
+	 * Checks whether protocols run as tasks on a pool of scheduler threads.
+	 *
+	 * @return true, if protocols run as tasks on a pool of scheduler threads
+	 */
+	public boolean isScheduled() {
+		return scheduled;
+	}
+
+	/**
+	 * Checks whether generated code records runtime metrics.
+	 *
+	 * @return true, if generated code records runtime metrics
+	 */
+	public boolean isMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Gets the ports that use the shared memory transport. The names map to
+	 * true, such that string templates can look them up.
+	 *
+	 * @return map from the names of shared memory ports to true
+	 */
+	public Map<String, Boolean> getShared() {
+		return shared;
+	}
+
 	/**
 	 * Gets the ports.
 	 *
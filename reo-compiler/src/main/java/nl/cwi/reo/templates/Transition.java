@@ -3,11 +3,13 @@ package nl.cwi.reo.templates;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.TreeMap;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -56,13 +58,59 @@ public class Transition {
 			throw new IllegalArgumentException("No guard specified.");
 		this.guard = guard;
 		this.output = new HashMap<>();
-		this.memory = new HashMap<>();
+		Map<MemoryVariable, Term> memory = new TreeMap<>();
 		for(Variable v : update.keySet()) {
 			if(v instanceof PortVariable)
 				output.put((PortVariable) v, update.get(v));
 			if(v instanceof MemoryVariable)
 				memory.put((MemoryVariable) v, update.get(v));
 		}
+		this.memory = order(memory);
+	}
+
+	/**
+	 * Orders the memory updates of a transition, such that every update that
+	 * reads a memory cell precedes the update that overwrites this memory
+	 * cell. Generated code performs the updates sequentially. A RingBuffer
+	 * update returns a new view of the buffer, but enqueue writes the item
+	 * into the array that it shares with the current view. If the buffer is
+	 * full before a dequeue, the item overwrites the oldest item of the
+	 * current view. Hence, all reads of the current view must happen first.
+	 * 
+	 * @param memory
+	 *            memory updates
+	 * @return the same memory updates, in a suitable order.
+	 */
+	private static Map<MemoryVariable, Term> order(Map<MemoryVariable, Term> memory) {
+		Map<MemoryVariable, Term> ordered = new LinkedHashMap<>();
+		Set<MemoryVariable> visited = new HashSet<>();
+		for (MemoryVariable m : memory.keySet())
+			order(m, memory, visited, ordered);
+		return ordered;
+	}
+
+	/**
+	 * Adds the update of memory cell m to a list of ordered updates, after
+	 * all updates that read the current value of m.
+	 * 
+	 * @param m
+	 *            updated memory cell
+	 * @param memory
+	 *            memory updates
+	 * @param visited
+	 *            set of visited memory cells
+	 * @param ordered
+	 *            ordered memory updates
+	 */
+	private static void order(MemoryVariable m, Map<MemoryVariable, Term> memory, Set<MemoryVariable> visited,
+			Map<MemoryVariable, Term> ordered) {
+		if (!visited.add(m))
+			return;
+		MemoryVariable current = new MemoryVariable(m.getName(), false);
+		for (Map.Entry<MemoryVariable, Term> upd : memory.entrySet())
+			if (!upd.getKey().equals(m) && upd.getValue().getFreeVariables().contains(current))
+				order(upd.getKey(), memory, visited, ordered);
+		ordered.put(m, memory.get(m));
 	}
 	
 	/**
@@ -160,6 +208,27 @@ public class Transition {
 		return this.memory;
 	}
 	
+	/**
+	 * Gets the set of memory cells that this transition reads or writes. Each
+	 * memory cell is represented by its variable without prime.
+	 * 
+	 * @return set of memory cells accessed by this transition.
+	 */
+	public Set<MemoryVariable> getMemoryCells() {
+		Set<Variable> vars = new HashSet<>(guard.getFreeVariables());
+		vars.addAll(memory.keySet());
+		for (Term t : memory.values())
+			vars.addAll(t.getFreeVariables());
+		for (Term t : output.values())
+			vars.addAll(t.getFreeVariables());
+
+		Set<MemoryVariable> cells = new HashSet<>();
+		for (Variable v : vars)
+			if (v instanceof MemoryVariable)
+				cells.add(new MemoryVariable(v.getName(), false, v.getTypeTag()));
+		return cells;
+	}
+
 	/**
 	 * Gets the set of ports that participate in this transition.
 	 * 
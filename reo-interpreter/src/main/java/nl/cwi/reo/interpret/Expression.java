@@ -1,5 +1,7 @@
 package nl.cwi.reo.interpret;
 
+import java.io.Serializable;
+
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 import nl.cwi.reo.util.Monitor;
@@ -10,7 +12,7 @@ import nl.cwi.reo.util.Monitor;
  * @param <T>
  *            expression type
  */
-public interface Expression<T> {
+public interface Expression<T> extends Serializable {
 
 	/**
 	 * Evaluates this expression with respect to a given scope, and adds any
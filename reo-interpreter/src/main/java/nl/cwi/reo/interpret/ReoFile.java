@@ -1,6 +1,7 @@
 package nl.cwi.reo.interpret;
 
 import java.io.File;
+import java.io.Serializable;
 import java.util.List;
 import java.util.Set;
 
@@ -16,7 +17,7 @@ import nl.cwi.reo.util.Monitor;
 /**
  * Interpretation of a Reo source file.
  */
-public final class ReoFile {
+public final class ReoFile implements Serializable {
 
 	/**
 	 * File name.
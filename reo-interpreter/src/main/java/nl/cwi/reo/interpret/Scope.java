@@ -1,5 +1,6 @@
 package nl.cwi.reo.interpret;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -14,7 +15,7 @@ import nl.cwi.reo.interpret.variables.Identifier;
 /**
  * A finite set of assignments.
  */
-public final class Scope {
+public final class Scope implements Serializable {
 
 	/**
 	 * Set of assignments.
@@ -1,5 +1,6 @@
 package nl.cwi.reo.interpret.connectors;
 
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -9,7 +10,7 @@ import nl.cwi.reo.interpret.ports.Port;
 /**
  * This class provides two operations on sets of links.
  */
-public final class Links {
+public final class Links implements Serializable {
 
 	/**
 	 * Global integer used for generating fresh port names.
@@ -1,5 +1,6 @@
 package nl.cwi.reo.interpret.connectors;
 
+import java.io.Serializable;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -17,7 +18,7 @@ import nl.cwi.reo.util.Monitor;
  * 
  * @see ReoConnectorComposite
  */
-public interface ReoConnector{
+public interface ReoConnector extends Serializable {
 
 	/**
 	 * Gets the component.
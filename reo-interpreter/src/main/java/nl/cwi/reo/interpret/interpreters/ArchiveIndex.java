@@ -0,0 +1,143 @@
+package nl.cwi.reo.interpret.interpreters;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import nl.cwi.reo.util.Monitor;
+
+/**
+ * Index of the entries of all .zip archives in a directory. An index is built
+ * once per directory, and it is rebuilt only if an archive in this directory
+ * is added, removed, or modified.
+ */
+final class ArchiveIndex {
+
+	/**
+	 * Indices of all directories that have been searched so far.
+	 */
+	private static final Map<String, ArchiveIndex> indices = new ConcurrentHashMap<>();
+
+	/**
+	 * Filter that accepts .zip archives.
+	 */
+	private static final FilenameFilter archiveFilter = new FilenameFilter() {
+		public boolean accept(File dir, String name) {
+			return name.toLowerCase().endsWith(".zip");
+		}
+	};
+
+	/**
+	 * Archives in this directory, in the order in which they are searched.
+	 */
+	private final File[] archives;
+
+	/**
+	 * Last modification time of each archive, when this index was built.
+	 */
+	private final long[] modified;
+
+	/**
+	 * Maps every entry name to the position of the first archive that
+	 * contains it.
+	 */
+	private final Map<String, Integer> entries = new HashMap<>();
+
+	/**
+	 * Constructs an index of a list of archives.
+	 *
+	 * @param archives
+	 *            list of archives
+	 * @param m
+	 *            monitor
+	 */
+	private ArchiveIndex(File[] archives, Monitor m) {
+		this.archives = archives;
+		this.modified = new long[archives.length];
+		for (int i = 0; i < archives.length; i++) {
+			modified[i] = archives[i].lastModified();
+			try (ZipFile zipFile = new ZipFile(archives[i].getPath())) {
+				Enumeration<? extends ZipEntry> e = zipFile.entries();
+				while (e.hasMoreElements())
+					entries.putIfAbsent(e.nextElement().getName(), i);
+			} catch (IOException e) {
+				m.add("Cannot open " + archives[i].toString());
+			}
+		}
+	}
+
+	/**
+	 * Gets the index of a directory, and builds it if necessary.
+	 *
+	 * @param dir
+	 *            directory
+	 * @param m
+	 *            monitor
+	 * @return index of all archives in the given directory.
+	 */
+	static ArchiveIndex get(String dir, Monitor m) {
+		File[] archives = null;
+		File folder = new File(dir);
+		if (folder.isDirectory())
+			archives = folder.listFiles(archiveFilter);
+		if (archives == null)
+			archives = new File[0];
+		ArchiveIndex index = indices.get(dir);
+		if (index == null || !index.isCurrent(archives)) {
+			index = new ArchiveIndex(archives, m);
+			indices.put(dir, index);
+		}
+		return index;
+	}
+
+	/**
+	 * Checks whether this index is built from the given archives, as they are
+	 * now.
+	 *
+	 * @param files
+	 *            list of archives
+	 * @return true, if the given archives are unchanged since this index was
+	 *         built.
+	 */
+	private boolean isCurrent(File[] files) {
+		if (files.length != archives.length)
+			return false;
+		for (int i = 0; i < files.length; i++)
+			if (!files[i].equals(archives[i]) || files[i].lastModified() != modified[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Finds the position of the first archive that contains an entry.
+	 *
+	 * @param entry
+	 *            entry name
+	 * @return position of the first archive that contains the given entry, or
+	 *         {@link Integer#MAX_VALUE}, if no such archive exists.
+	 */
+	int find(String entry) {
+		Integer i = entries.get(entry);
+		return i != null ? i : Integer.MAX_VALUE;
+	}
+
+	/**
+	 * Gets the archive at a position.
+	 *
+	 * @param i
+	 *            position
+	 * @return archive at position i, or null if there is no such archive.
+	 */
+	@Nullable
+	File getArchive(int i) {
+		return 0 <= i && i < archives.length ? archives[i] : null;
+	}
+}
@@ -1,9 +1,13 @@
 package nl.cwi.reo.interpret.interpreters;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FilenameFilter;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -17,7 +21,6 @@ import java.util.Set;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
-import org.antlr.v4.runtime.ANTLRFileStream;
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CommonTokenStream;
@@ -241,7 +244,7 @@ public class Interpreter {
 			InputStream in1 = getClass().getResourceAsStream(r1);
 			if (in1 != null) {
 				try {
-					prog = parse(new ANTLRInputStream(in1), File.separator + cp1);
+					prog = load(in1, File.separator + cp1);
 					break;
 				} catch (IOException e1) {
 					m.add("Cannot open " + cp1);
@@ -252,7 +255,7 @@ public class Interpreter {
 			InputStream in2 = getClass().getResourceAsStream(r2);
 			if (in2 != null) {
 				try {
-					prog = parse(new ANTLRInputStream(in2), File.separator + cp2);
+					prog = load(in2, File.separator + cp2);
 					break;
 				} catch (IOException e1) {
 					m.add("Cannot open " + cp2);
@@ -263,7 +266,7 @@ public class Interpreter {
 			File f1 = new File(dir + File.separator + cp1);
 			if (f1.exists() && !f1.isDirectory()) {
 				try {
-					prog = parse(new ANTLRFileStream(dir + File.separator + cp1), dir + File.separator + cp1);
+					prog = load(new FileInputStream(f1), dir + File.separator + cp1);
 					break;
 				} catch (IOException e) {
 					m.add("Cannot open " + f1.toString());
@@ -275,7 +278,7 @@ public class Interpreter {
 			File f2 = new File(dir + File.separator + cp2);
 			if (f2.exists() && !f2.isDirectory()) {
 				try {
-					prog = parse(new ANTLRFileStream(dir + File.separator + cp2), dir + File.separator + cp2);
+					prog = load(new FileInputStream(f2), dir + File.separator + cp2);
 					break;
 				} catch (IOException e) {
 					m.add("Cannot open " + f2.toString());
@@ -283,47 +286,23 @@ public class Interpreter {
 				break search;
 			}
 
-			// Check if this directory contains a .zip file.
-			File folder = new File(dir);
-			if (folder.exists() && folder.isDirectory()) {
-
-				FilenameFilter archiveFilter = new FilenameFilter() {
-					public boolean accept(File dir, String name) {
-						return name.toLowerCase().endsWith(".zip");
-					}
-				};
-
-				File[] files = folder.listFiles(archiveFilter);
-				if (files != null) {
-					for (File file : files) {
-						if (!file.isDirectory()) {
-							ZipFile zipFile = null;
-							try {
-								zipFile = new ZipFile(file.getPath());
-								ZipEntry entry1 = zipFile.getEntry(cp1);
-								ZipEntry entry2 = zipFile.getEntry(cp2);
-								if (entry1 != null) {
-									InputStream input = zipFile.getInputStream(entry1);
-									assert input != null : "@AssumeAssertion(nullness)";
-									prog = parse(new ANTLRInputStream(input), cp1);
-									break search;
-								} else if (entry2 != null) {
-									InputStream input = zipFile.getInputStream(entry2);
-									assert input != null : "@AssumeAssertion(nullness)";
-									prog = parse(new ANTLRInputStream(input), cp2);
-									break search;
-								}
-							} catch (IOException e) {
-								m.add("Cannot open " + file.toString());
-							} finally {
-								try {
-									if (zipFile != null)
-										zipFile.close();
-								} catch (IOException e) {
-								}
-							}
-						}
+			// Check if an archive in this directory contains the component.
+			ArchiveIndex index = ArchiveIndex.get(dir, m);
+			int i1 = index.find(cp1);
+			int i2 = index.find(cp2);
+			File file = index.getArchive(Math.min(i1, i2));
+			if (file != null) {
+				String cp = i1 <= i2 ? cp1 : cp2;
+				try (ZipFile zipFile = new ZipFile(file.getPath())) {
+					ZipEntry entry = zipFile.getEntry(cp);
+					if (entry != null) {
+						InputStream input = zipFile.getInputStream(entry);
+						assert input != null : "@AssumeAssertion(nullness)";
+						prog = load(input, cp);
+						break search;
 					}
+				} catch (IOException e) {
+					m.add("Cannot open " + file.toString());
 				}
 			}
 		}
@@ -332,23 +311,48 @@ public class Interpreter {
 	}
 
 	/**
-	 * Parses a source file using ANTLR4, and walks over the parse tree to
-	 * interpret this source file as a Java object.
+	 * Parses a source file, unless an identical source file at the same
+	 * location has been parsed before by an interpreter with the same
+	 * semantics, possibly in an earlier run. In that case, the previous
+	 * interpretation is taken from the {@link ParseCache}. The input stream is
+	 * closed afterwards.
 	 *
 	 * @param is
 	 *            input stream
-	 * @param file
-	 *            the file
+	 * @param path
+	 *            location of the file
 	 * @return an interpreted source file, or null in case of an error.
+	 * @throws IOException
+	 *             if the input stream cannot be read.
 	 */
 	@Nullable
-	private ReoFile parse(InputStream is, String file) {
+	private ReoFile load(InputStream is, String path) throws IOException {
+		byte[] content;
+		try (InputStream in = is) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			byte[] buffer = new byte[8192];
+			int n;
+			while ((n = in.read(buffer)) > 0)
+				out.write(buffer, 0, n);
+			content = out.toByteArray();
+		}
+
+		byte[] hash;
 		try {
-			return parse(new ANTLRInputStream(is), file);
-		} catch (IOException e) {
-			m.add("Cannot open " + file + ".");
+			hash = MessageDigest.getInstance("SHA-256").digest(content);
+		} catch (NoSuchAlgorithmException e) {
+			return parse(new ANTLRInputStream(new ByteArrayInputStream(content)), path);
 		}
-		return null;
+
+		String key = semantics + ":" + listener.getClass().getName() + ":" + path;
+		ReoFile cached = ParseCache.shared.get(key, hash, listener.getClass());
+		if (cached != null)
+			return cached;
+
+		ReoFile file = parse(new ANTLRInputStream(new ByteArrayInputStream(content)), path);
+		if (file != null)
+			ParseCache.shared.put(key, hash, listener.getClass(), file);
+		return file;
 	}
 
 	/**
@@ -362,7 +366,7 @@ public class Interpreter {
 	@Nullable
 	private ReoFile parse(String path) {
 		try {
-			return parse(new ANTLRFileStream(path), path);
+			return load(new FileInputStream(path), path);
 		} catch (IOException e) {
 			m.add("Cannot open " + path + ".");
 		}
@@ -0,0 +1,303 @@
+package nl.cwi.reo.interpret.interpreters;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.net.JarURLConnection;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import nl.cwi.reo.interpret.ReoFile;
+
+/**
+ * Cache of interpreted source files, keyed by location and validated by the
+ * SHA-256 hash of the content of the source file. A bounded number of
+ * recently used files is kept in memory, and every file is also stored in a
+ * cache directory, such that later compiler runs need not parse unchanged
+ * source files again.
+ * <p>
+ * The cache directory is given by the system property {@code reo.cache}, and
+ * defaults to {@code .reo/cache} in the home directory of the user. An empty
+ * value disables the cache directory. The number of files kept in memory is
+ * given by the system property {@code reo.cache.size}, and defaults to 512.
+ * <p>
+ * Entries in the cache directory are written together with a fingerprint of
+ * the archives that contain the interpreter and the listener, such that
+ * entries written by another build of the compiler are ignored. Any failure to read or write an entry
+ * is treated as a cache miss.
+ */
+final class ParseCache {
+
+	/**
+	 * Cache shared by all interpreters.
+	 */
+	static final ParseCache shared = new ParseCache(directory(), Integer.getInteger("reo.cache.size", 512));
+
+	/**
+	 * Cache directory, or null if files are kept in memory only.
+	 */
+	@Nullable
+	private final File dir;
+
+	/**
+	 * Recently used files, in access order.
+	 */
+	private final Map<String, Entry> recent;
+
+	/**
+	 * Interpreted source file together with the hash of its content.
+	 */
+	private static final class Entry {
+
+		/** SHA-256 hash of the content of the source file. */
+		private final byte[] hash;
+
+		/** Interpretation of the source file. */
+		private final ReoFile file;
+
+		/**
+		 * Constructs a new cache entry.
+		 *
+		 * @param hash
+		 *            hash of the content
+		 * @param file
+		 *            interpretation of the content
+		 */
+		private Entry(byte[] hash, ReoFile file) {
+			this.hash = hash;
+			this.file = file;
+		}
+	}
+
+	/**
+	 * Constructs a new cache.
+	 *
+	 * @param dir
+	 *            cache directory, or null
+	 * @param size
+	 *            maximal number of files kept in memory
+	 */
+	ParseCache(@Nullable File dir, final int size) {
+		this.dir = dir;
+		this.recent = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+				return size() > size;
+			}
+		};
+	}
+
+	/**
+	 * Gets the cache directory from the system properties.
+	 *
+	 * @return cache directory, or null if the cache directory is disabled.
+	 */
+	@Nullable
+	private static File directory() {
+		String d = System.getProperty("reo.cache");
+		if (d == null)
+			return new File(System.getProperty("user.home"), ".reo" + File.separator + "cache");
+		return d.isEmpty() ? null : new File(d);
+	}
+
+	/**
+	 * Gets the interpretation of a source file, if it has been cached for the
+	 * same content.
+	 *
+	 * @param key
+	 *            location of the source file, and the semantics and listener
+	 *            used to interpret it
+	 * @param hash
+	 *            SHA-256 hash of the content of the source file
+	 * @param listener
+	 *            class of the listener used to interpret the source file
+	 * @return cached interpretation, or null if there is none.
+	 */
+	@Nullable
+	ReoFile get(String key, byte[] hash, Class<?> listener) {
+		synchronized (recent) {
+			Entry e = recent.get(key);
+			if (e != null) {
+				if (Arrays.equals(e.hash, hash))
+					return e.file;
+				recent.remove(key);
+			}
+		}
+
+		File f = entry(key);
+		if (f == null || !f.isFile())
+			return null;
+		try (ObjectInputStream in = new ReoObjectInputStream(new FileInputStream(f))) {
+			if (!fingerprint(listener).equals(in.readUTF()))
+				return null;
+			byte[] h = (byte[]) in.readObject();
+			if (!Arrays.equals(h, hash))
+				return null;
+			ReoFile file = (ReoFile) in.readObject();
+			synchronized (recent) {
+				recent.put(key, new Entry(hash, file));
+			}
+			return file;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the interpretation of a source file.
+	 *
+	 * @param key
+	 *            location of the source file, and the semantics and listener
+	 *            used to interpret it
+	 * @param hash
+	 *            SHA-256 hash of the content of the source file
+	 * @param listener
+	 *            class of the listener used to interpret the source file
+	 * @param file
+	 *            interpretation of the source file
+	 */
+	void put(String key, byte[] hash, Class<?> listener, ReoFile file) {
+		synchronized (recent) {
+			recent.put(key, new Entry(hash, file));
+		}
+
+		File f = entry(key);
+		if (f == null)
+			return;
+		File tmp = null;
+		try {
+			Files.createDirectories(f.getParentFile().toPath());
+			tmp = File.createTempFile("reo", ".tmp", f.getParentFile());
+			try (ObjectOutputStream out = new ObjectOutputStream(new FileOutputStream(tmp))) {
+				out.writeUTF(fingerprint(listener));
+				out.writeObject(hash);
+				out.writeObject(file);
+			}
+			try {
+				Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(tmp.toPath(), f.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			tmp = null;
+		} catch (IOException e) {
+			// The file stays in memory only.
+		} finally {
+			if (tmp != null)
+				tmp.delete();
+		}
+	}
+
+	/**
+	 * Gets the file in the cache directory that stores the entry of a key.
+	 *
+	 * @param key
+	 *            key
+	 * @return file in the cache directory, or null if there is no cache
+	 *         directory.
+	 */
+	@Nullable
+	private File entry(String key) {
+		if (dir == null)
+			return null;
+		try {
+			byte[] h = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+			StringBuilder name = new StringBuilder();
+			for (byte b : h)
+				name.append(String.format("%02x", b));
+			return new File(dir, name.toString());
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Identifies the build of the interpreter and of a listener by the size
+	 * and modification time of the archives that contain them.
+	 *
+	 * @param listener
+	 *            class of the listener
+	 * @return fingerprint of the interpreter and the listener.
+	 */
+	private static String fingerprint(Class<?> listener) {
+		return stamp(ParseCache.class) + ";" + stamp(listener);
+	}
+
+	/**
+	 * Identifies the archive that contains a class, or the class file itself
+	 * if the class is not loaded from an archive, by its location, size, and
+	 * modification time.
+	 *
+	 * @param c
+	 *            class
+	 * @return location, size, and modification time of the archive or class
+	 *         file.
+	 */
+	private static String stamp(Class<?> c) {
+		URL url = c.getResource(c.getName().substring(c.getName().lastIndexOf('.') + 1) + ".class");
+		if (url == null)
+			return c.getName();
+		try {
+			if (url.getProtocol().equals("jar"))
+				url = ((JarURLConnection) url.openConnection()).getJarFileURL();
+			URLConnection conn = url.openConnection();
+			try (InputStream in = conn.getInputStream()) {
+				return url + ":" + conn.getContentLengthLong() + ":" + conn.getLastModified();
+			}
+		} catch (IOException e) {
+			return url.toString();
+		}
+	}
+
+	/**
+	 * Object input stream that resolves only classes of the Reo compiler and
+	 * of the Java class library.
+	 */
+	private static final class ReoObjectInputStream extends ObjectInputStream {
+
+		/**
+		 * Constructs a new object input stream.
+		 *
+		 * @param in
+		 *            underlying input stream
+		 * @throws IOException
+		 *             if the stream header cannot be read
+		 */
+		private ReoObjectInputStream(InputStream in) throws IOException {
+			super(in);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+			String name = desc.getName();
+			int i = 0;
+			while (i < name.length() && name.charAt(i) == '[')
+				i++;
+			if (i > 0 && name.length() == i + 1)
+				return super.resolveClass(desc);
+			String n = i > 0 ? name.substring(i + 1) : name;
+			if (!n.startsWith("nl.cwi.reo.") && !n.startsWith("java."))
+				throw new InvalidClassException(name, "not allowed in the cache");
+			return super.resolveClass(desc);
+		}
+	}
+}
@@ -275,7 +275,7 @@ public class BaseListener extends ReoBaseListener {
 			conjunctions.add(definitions.get(defn_ctx));
 		Conjunction c = new Conjunction(conjunctions);
 		Location l = new Location(ctx.start, filename);
-		program = new ReoFile(sec, imports, filename, c, l);
+		program = new ReoFile(sec, new HashSet<String>(imports), filename, c, l);
 	}
 
 	/*
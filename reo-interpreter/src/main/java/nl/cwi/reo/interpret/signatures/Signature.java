@@ -1,5 +1,6 @@
 package nl.cwi.reo.interpret.signatures;
 
+import java.io.Serializable;
 import java.util.Map;
 
 import nl.cwi.reo.interpret.Scope;
@@ -10,7 +11,7 @@ import nl.cwi.reo.interpret.ports.Port;
  * Result after evaluating a signature expression in a given set of parameter
  * values and ports.
  */
-public final class Signature {
+public final class Signature implements Serializable {
 
 	/**
 	 * Interface renaming.
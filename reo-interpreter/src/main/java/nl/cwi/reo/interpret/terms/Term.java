@@ -1,9 +1,11 @@
 package nl.cwi.reo.interpret.terms;
 
+import java.io.Serializable;
+
 /**
  * An identifier, component definition, component instance, or a data item, such
  * as a string, integer, boolean, etc.
  */
-public interface Term {
+public interface Term extends Serializable {
 
 }
@@ -78,4 +78,18 @@ public final class TypeTag implements ParameterType {
 	public int hashCode() {
 		return Objects.hash(this.tag);
 	}
+
+	/**
+	 * Resolves a deserialized tag to the constant in {@link TypeTags}, which
+	 * is compared by reference.
+	 *
+	 * @return the canonical type tag
+	 */
+	private Object readResolve() {
+		for (TypeTag t : new TypeTag[] { TypeTags.Object, TypeTags.Decimal, TypeTags.Integer, TypeTags.Boolean,
+				TypeTags.String })
+			if (t.tag.equals(tag))
+				return t;
+		return this;
+	}
 }
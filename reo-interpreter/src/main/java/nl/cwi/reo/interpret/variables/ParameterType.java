@@ -1,10 +1,12 @@
 package nl.cwi.reo.interpret.variables;
 
+import java.io.Serializable;
+
 // TODO: Auto-generated Javadoc
 /**
  * Interpretation of a parameter type.
  */
-public interface ParameterType {
+public interface ParameterType extends Serializable {
 
 	/**
 	 * Checks if this parameter type defines the same type as a given parameter
@@ -1,6 +1,7 @@
 package nl.cwi.reo.util;
 
 import java.io.File;
+import java.io.Serializable;
 import java.util.Objects;
 
 import org.antlr.v4.runtime.Token;
@@ -10,7 +11,7 @@ import org.checkerframework.checker.nullness.qual.Nullable;
 /**
  * A location in a Reo source file.
  */
-public final class Location {
+public final class Location implements Serializable {
 
 	/**
 	 * Name of Reo source file.
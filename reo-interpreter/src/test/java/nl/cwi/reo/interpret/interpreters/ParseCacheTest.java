@@ -0,0 +1,90 @@
+package nl.cwi.reo.interpret.interpreters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Test;
+
+import nl.cwi.reo.interpret.ReoFile;
+import nl.cwi.reo.interpret.statements.Conjunction;
+import nl.cwi.reo.interpret.statements.PredicateExpression;
+import nl.cwi.reo.util.Location;
+
+/**
+ * The Class ParseCacheTest.
+ */
+public class ParseCacheTest {
+
+	/**
+	 * Constructs an interpreted source file without definitions.
+	 *
+	 * @param name
+	 *            file name
+	 * @return interpreted source file.
+	 */
+	private static ReoFile file(String name) {
+		return new ReoFile("lib", new HashSet<>(Arrays.asList("lib.sync")), name,
+				new Conjunction(new ArrayList<PredicateExpression>()), new Location(name, 1, 0));
+	}
+
+	/**
+	 * Deletes a cache directory.
+	 *
+	 * @param dir
+	 *            cache directory
+	 */
+	private static void delete(File dir) {
+		File[] files = dir.listFiles();
+		if (files != null)
+			for (File f : files)
+				f.delete();
+		dir.delete();
+	}
+
+	/**
+	 * A file stored by one cache is found by a later cache in the same
+	 * directory, but only for the same content.
+	 */
+	@Test
+	public void get_ReadsEarlierRun() throws IOException {
+		File dir = Files.createTempDirectory("reo").toFile();
+		try {
+			byte[] hash = { 1, 2, 3 };
+			new ParseCache(dir, 4).put("a.treo", hash, getClass(), file("a.treo"));
+
+			ParseCache cache = new ParseCache(dir, 4);
+			ReoFile f = cache.get("a.treo", hash, getClass());
+			assertEquals("lib.a", f.getName());
+			assertEquals(new HashSet<>(Arrays.asList("lib.sync")), f.getImports());
+			assertSame(f, cache.get("a.treo", hash, getClass()));
+			assertNull(new ParseCache(dir, 4).get("a.treo", new byte[] { 1, 2, 4 }, getClass()));
+			assertNull(new ParseCache(dir, 4).get("a.treo", hash, Object.class));
+		} finally {
+			delete(dir);
+		}
+	}
+
+	/**
+	 * A cache without directory keeps only the most recently used files.
+	 */
+	@Test
+	public void get_EvictsLeastRecentlyUsed() {
+		ParseCache cache = new ParseCache(null, 2);
+		byte[] hash = { 0 };
+		ReoFile a = file("a.treo");
+		cache.put("a", hash, getClass(), a);
+		cache.put("b", hash, getClass(), file("b.treo"));
+		cache.get("a", hash, getClass());
+		cache.put("c", hash, getClass(), file("c.treo"));
+		assertSame(a, cache.get("a", hash, getClass()));
+		assertNull(cache.get("b", hash, getClass()));
+	}
+}
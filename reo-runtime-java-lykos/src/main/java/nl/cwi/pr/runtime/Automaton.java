@@ -16,7 +16,11 @@ public abstract class Automaton extends Thread {
 	//
 
 	public Automaton(final int nPorts) {
-		this.context = new Context(nPorts);
+		this(nPorts, false);
+	}
+
+	public Automaton(final int nPorts, final boolean padded) {
+		this.context = new Context(nPorts, padded);
 	}
 
 	//
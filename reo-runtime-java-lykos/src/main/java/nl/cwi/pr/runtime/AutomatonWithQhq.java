@@ -1,5 +1,8 @@
 package nl.cwi.pr.runtime;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
 public class AutomatonWithQhq extends Automaton {
 
 	//
@@ -8,12 +11,28 @@ public class AutomatonWithQhq extends Automaton {
 
 	public final QueueableHandlersQueue qhq;
 
+	private final AtomicBoolean isScheduled = new AtomicBoolean(false);
+	private volatile Executor executor = null;
+
+	private final Runnable drain = new Runnable() {
+		@Override
+		public void run() {
+			drain();
+		}
+	};
+
 	//
 	// CONSTRUCTORS
 	//
 
 	public AutomatonWithQhq(final int nPublicPorts, final int nPrivatePorts) {
-		super(nPublicPorts);
+		this(nPublicPorts, nPrivatePorts, false);
+	}
+
+	public AutomatonWithQhq(final int nPublicPorts, final int nPrivatePorts,
+			final boolean padded) {
+
+		super(nPublicPorts, padded);
 		this.qhq = new QueueableHandlersQueue(nPrivatePorts);
 	}
 
@@ -34,4 +53,49 @@ public class AutomatonWithQhq extends Automaton {
 			super.semaphore.release();
 		}
 	}
+
+	/*
+	 * Runs this automaton on a worker pool instead of in a thread of its own:
+	 * whenever a handler is enqueued, a task that drains the queue is
+	 * submitted to the executor, unless such a task is already pending. Tasks
+	 * of different automata, which have different semaphores, run in
+	 * parallel.
+	 */
+	public void start(final Executor executor) {
+		if (executor == null)
+			throw new NullPointerException();
+
+		this.executor = executor;
+		qhq.setListener(new Runnable() {
+			@Override
+			public void run() {
+				schedule();
+			}
+		});
+
+		if (!qhq.isEmpty())
+			schedule();
+	}
+
+	//
+	// METHODS - PRIVATE
+	//
+
+	private void drain() {
+		super.semaphore.acquireUninterruptibly();
+		QueueableHandler handler;
+		while ((handler = qhq.poll()) != null)
+			handler.call();
+
+		super.semaphore.release();
+
+		isScheduled.set(false);
+		if (!qhq.isEmpty())
+			schedule();
+	}
+
+	private void schedule() {
+		if (!isScheduled.get() && isScheduled.compareAndSet(false, true))
+			executor.execute(drain);
+	}
 }
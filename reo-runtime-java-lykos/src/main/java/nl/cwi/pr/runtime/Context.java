@@ -1,23 +1,45 @@
 package nl.cwi.pr.runtime;
 
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 public class Context {
 
+	//
+	// STATIC - FIELDS
+	//
+
+	/*
+	 * Number of ints in a cache line
+	 */
+
+	private static final int STRIDE = 16;
+
 	//
 	// FIELDS
 	//
 
-	private final AtomicInteger[] integers;
+	private final AtomicIntegerArray integers;
+	private final int offset;
+	private final int stride;
 
 	//
 	// CONSTRUCTORS
 	//
 
 	public Context(final int nPorts) {
-		this.integers = new AtomicInteger[(nPorts / 32) + 1];
-		for (int i = 0; i < this.integers.length; i++)
-			this.integers[i] = new AtomicInteger();
+		this(nPorts, false);
+	}
+
+	/*
+	 * In the padded layout, every port has a word of its own, and every word
+	 * occupies a cache line of its own, so that producers that flag different
+	 * ports never contend. The generated masks must then use one bit per word.
+	 */
+	public Context(final int nPorts, final boolean padded) {
+		int nWords = padded ? nPorts + 1 : (nPorts / 32) + 1;
+		this.offset = padded ? STRIDE : 0;
+		this.stride = padded ? STRIDE : 1;
+		this.integers = new AtomicIntegerArray(offset + nWords * stride);
 	}
 
 	//
@@ -25,20 +47,20 @@ public class Context {
 	//
 
 	public void add(final int index, final int mask) {
-		AtomicInteger integer = integers[index];
-		int bits = integer.get();
-		while (!integer.compareAndSet(bits, bits | mask))
-			bits = integer.get();
+		int i = offset + index * stride;
+		int bits = integers.get(i);
+		while (!integers.compareAndSet(i, bits, bits | mask))
+			bits = integers.get(i);
 	}
 
 	public boolean contains(final int index, final int mask) {
-		return mask == (integers[index].get() & mask);
+		return mask == (integers.get(offset + index * stride) & mask);
 	}
 
 	public void remove(final int index, final int mask) {
-		AtomicInteger integer = integers[index];
-		int current = integer.get();
-		while (!integer.compareAndSet(current, current & ~mask))
-			current = integer.get();
+		int i = offset + index * stride;
+		int current = integers.get(i);
+		while (!integers.compareAndSet(i, current, current & ~mask))
+			current = integers.get(i);
 	}
-}
\ No newline at end of file
+}
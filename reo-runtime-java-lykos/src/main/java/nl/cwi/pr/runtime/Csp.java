@@ -1,11 +1,6 @@
 package nl.cwi.pr.runtime;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collection;
 import java.util.HashSet;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Set;
 
 public class Csp {
@@ -17,12 +12,16 @@ public class Csp {
 	private CspLiteral[] literals;
 	private CspVariable[] variables;
 
+	private CspLiteral[] openLiterals;
+	private final Set<Object> domain = new HashSet<Object>();
+
 	//
 	// METHODS
 	//
 
 	public void setLiterals(final CspLiteral... literals) {
 		this.literals = literals;
+		this.openLiterals = new CspLiteral[literals.length];
 	}
 
 	public void setVariables(final CspVariable... variables) {
@@ -34,45 +33,46 @@ public class Csp {
 	//
 
 	public static boolean solve(final Csp csp) {
-		final List<CspVariable> variables = new ArrayList<CspVariable>();
-		for (final CspVariable v : csp.variables)
-			variables.add(v);
-
-		return solve(variables, csp.literals);
+		return solve(csp.variables, csp.literals, csp.openLiterals, csp.domain);
 	}
 
 	public static boolean solve(final Csp[] csps) {
-		final List<CspVariable> variables = new ArrayList<CspVariable>();
-		for (final Csp csp : csps)
-			for (final CspVariable v : csp.variables)
-				variables.add(v);
-
+		int nVariables = 0;
 		int nLiterals = 0;
-		for (final Csp csp : csps)
+		for (final Csp csp : csps) {
+			nVariables += csp.variables.length;
 			nLiterals += csp.literals.length;
+		}
 
+		final CspVariable[] variables = new CspVariable[nVariables];
 		final CspLiteral[] literals = new CspLiteral[nLiterals];
-		int index = 0;
+		int variableIndex = 0;
+		int literalIndex = 0;
 		for (final Csp csp : csps) {
-			int length = csp.literals.length;
-			System.arraycopy(csp.literals, 0, literals, index, length);
-			index += length;
+			System.arraycopy(csp.variables, 0, variables, variableIndex,
+					csp.variables.length);
+			System.arraycopy(csp.literals, 0, literals, literalIndex,
+					csp.literals.length);
+
+			variableIndex += csp.variables.length;
+			literalIndex += csp.literals.length;
 		}
 
-		return solve(variables, literals);
+		return solve(variables, literals, new CspLiteral[nLiterals],
+				new HashSet<Object>());
 	}
 
 	//
 	// STATIC - METHODS - PRIVATE
 	//
 
-	private static boolean search(final Collection<Object> domain,
-			final List<CspVariable> variables, final int i) {
+	private static boolean search(final Set<Object> domain,
+			final CspVariable[] variables, final int i) {
 
-		if (variables.size() == i)
+		if (variables.length == i)
 			return true;
 
-		final CspVariable variable = variables.get(i);
+		final CspVariable variable = variables[i];
 		if (variable.value != null)
 			return variable.check() && search(domain, variables, i + 1);
 
@@ -84,8 +84,9 @@ public class Csp {
 		return false;
 	}
 
-	private static boolean solve(final List<CspVariable> variables,
-			final CspLiteral[] literals) {
+	private static boolean solve(final CspVariable[] variables,
+			final CspLiteral[] literals, final CspLiteral[] openLiterals,
+			final Set<Object> domain) {
 
 		for (final CspVariable v : variables)
 			v.importValue();
@@ -97,17 +98,17 @@ public class Csp {
 		 * Close
 		 */
 
-		final List<CspLiteral> openLiterals = new ArrayList<>(
-				Arrays.asList(literals));
+		System.arraycopy(literals, 0, openLiterals, 0, literals.length);
 
-		int nOpenLiterals = Integer.MAX_VALUE;
-		while (!openLiterals.isEmpty() && openLiterals.size() < nOpenLiterals) {
-			nOpenLiterals = openLiterals.size();
+		int nOpenLiterals = literals.length;
+		int nOpenLiteralsBefore = Integer.MAX_VALUE;
+		while (nOpenLiterals > 0 && nOpenLiterals < nOpenLiteralsBefore) {
+			nOpenLiteralsBefore = nOpenLiterals;
 
-			Iterator<CspLiteral> iterator = openLiterals.iterator();
-			while (iterator.hasNext())
-				if (iterator.next().close())
-					iterator.remove();
+			nOpenLiterals = 0;
+			for (int i = 0; i < nOpenLiteralsBefore; i++)
+				if (!openLiterals[i].close())
+					openLiterals[nOpenLiterals++] = openLiterals[i];
 		}
 
 		/*
@@ -115,7 +116,7 @@ public class Csp {
 		 */
 
 		boolean hasSolution;
-		if (openLiterals.isEmpty()) {
+		if (nOpenLiterals == 0) {
 			hasSolution = true;
 			for (final CspLiteral l : literals)
 				if (!l.isClosed() || !l.holds()) {
@@ -125,12 +126,13 @@ public class Csp {
 		}
 
 		else {
-			final Set<Object> domain = new HashSet<Object>();
+			domain.clear();
 			for (final CspVariable v : variables)
-				domain.add(v.value);
+				if (v.value != null)
+					domain.add(v.value);
 
-			domain.remove(null);
 			hasSolution = search(domain, variables, 0);
+			domain.clear();
 		}
 
 		/*
@@ -148,4 +150,4 @@ public class Csp {
 
 		return true;
 	}
-}
\ No newline at end of file
+}
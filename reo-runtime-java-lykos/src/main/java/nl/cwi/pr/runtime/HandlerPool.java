@@ -0,0 +1,20 @@
+package nl.cwi.pr.runtime;
+
+import java.util.concurrent.ForkJoinPool;
+
+/*
+ * The work-stealing pool that runs the queueable handlers of master automata
+ * when the protocol is compiled with a worker pool. The pool has one thread
+ * per available processor, and runs tasks in FIFO order, because drain tasks
+ * are never joined.
+ */
+public class HandlerPool {
+
+	//
+	// STATIC - FIELDS
+	//
+
+	public static final ForkJoinPool POOL = new ForkJoinPool(Runtime
+			.getRuntime().availableProcessors(),
+			ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+}
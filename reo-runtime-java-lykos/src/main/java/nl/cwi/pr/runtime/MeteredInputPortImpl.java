@@ -0,0 +1,49 @@
+package nl.cwi.pr.runtime;
+
+import java.util.concurrent.TimeoutException;
+
+import nl.cwi.reo.runtime.Histogram;
+
+/*
+ * InputPortImpl that records how long every get blocks.
+ */
+class MeteredInputPortImpl extends InputPortImpl {
+
+	//
+	// FIELDS
+	//
+
+	private final Histogram waits;
+
+	//
+	// CONSTRUCTORS
+	//
+
+	MeteredInputPortImpl(final Histogram waits) {
+		this.waits = waits;
+	}
+
+	//
+	// METHODS
+	//
+
+	@Override
+	public Object get() throws InterruptedException {
+		long start = System.nanoTime();
+		try {
+			return super.get();
+		} finally {
+			waits.record(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public Object get(long timeout) throws TimeoutException {
+		long start = System.nanoTime();
+		try {
+			return super.get(timeout);
+		} finally {
+			waits.record(System.nanoTime() - start);
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package nl.cwi.pr.runtime;
+
+import java.util.concurrent.TimeoutException;
+
+import nl.cwi.reo.runtime.Histogram;
+
+/*
+ * OutputPortImpl that records how long every put blocks.
+ */
+class MeteredOutputPortImpl extends OutputPortImpl {
+
+	//
+	// FIELDS
+	//
+
+	private final Histogram waits;
+
+	//
+	// CONSTRUCTORS
+	//
+
+	MeteredOutputPortImpl(final Histogram waits) {
+		this.waits = waits;
+	}
+
+	//
+	// METHODS
+	//
+
+	@Override
+	public void put(Object datum) throws InterruptedException {
+		long start = System.nanoTime();
+		try {
+			super.put(datum);
+		} finally {
+			waits.record(System.nanoTime() - start);
+		}
+	}
+
+	@Override
+	public void put(Object datum, long timeout) throws TimeoutException {
+		long start = System.nanoTime();
+		try {
+			super.put(datum, timeout);
+		} finally {
+			waits.record(System.nanoTime() - start);
+		}
+	}
+}
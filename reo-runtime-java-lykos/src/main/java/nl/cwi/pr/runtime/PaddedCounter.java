@@ -0,0 +1,60 @@
+package nl.cwi.pr.runtime;
+
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+/*
+ * A counter that occupies a cache line of its own: the value is surrounded by
+ * 56 bytes of padding on either side, so that counters written by different
+ * threads never share a cache line. The padding is spread over a class
+ * hierarchy, because the JVM may reorder the fields of a single class but lays
+ * out the fields of a superclass before those of its subclasses.
+ */
+abstract class PaddedCounterLeft {
+
+	//
+	// FIELDS
+	//
+
+	protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class PaddedCounterValue extends PaddedCounterLeft {
+
+	//
+	// FIELDS
+	//
+
+	protected volatile long value;
+}
+
+final class PaddedCounter extends PaddedCounterValue {
+
+	//
+	// STATIC - FIELDS
+	//
+
+	private static final AtomicLongFieldUpdater<PaddedCounterValue> UPDATER = AtomicLongFieldUpdater
+			.newUpdater(PaddedCounterValue.class, "value");
+
+	//
+	// FIELDS
+	//
+
+	protected long p11, p12, p13, p14, p15, p16, p17;
+
+	//
+	// METHODS
+	//
+
+	public boolean compareAndSet(final long expect, final long update) {
+		return UPDATER.compareAndSet(this, expect, update);
+	}
+
+	public long get() {
+		return value;
+	}
+
+	public void lazySet(final long newValue) {
+		UPDATER.lazySet(this, newValue);
+	}
+}
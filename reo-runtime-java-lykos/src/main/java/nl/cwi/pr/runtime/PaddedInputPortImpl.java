@@ -0,0 +1,14 @@
+package nl.cwi.pr.runtime;
+
+/*
+ * InputPortImpl followed by a cache line of padding, so that the fields of
+ * ports used by different threads never share a cache line.
+ */
+class PaddedInputPortImpl extends InputPortImpl {
+
+	//
+	// FIELDS
+	//
+
+	protected long p01, p02, p03, p04, p05, p06, p07, p08;
+}
@@ -0,0 +1,25 @@
+package nl.cwi.pr.runtime;
+
+/*
+ * MemoryCell followed by a cache line of padding, so that the contents of
+ * memory cells used by different threads never share a cache line.
+ */
+public class PaddedMemoryCell extends MemoryCell {
+
+	//
+	// FIELDS
+	//
+
+	protected long p01, p02, p03, p04, p05, p06, p07, p08;
+
+	//
+	// CONSTRUCTORS
+	//
+
+	public PaddedMemoryCell() {
+	}
+
+	public PaddedMemoryCell(final Object content) {
+		super(content);
+	}
+}
@@ -0,0 +1,14 @@
+package nl.cwi.pr.runtime;
+
+/*
+ * OutputPortImpl followed by a cache line of padding, so that the fields of
+ * ports used by different threads never share a cache line.
+ */
+class PaddedOutputPortImpl extends OutputPortImpl {
+
+	//
+	// FIELDS
+	//
+
+	protected long p01, p02, p03, p04, p05, p06, p07, p08;
+}
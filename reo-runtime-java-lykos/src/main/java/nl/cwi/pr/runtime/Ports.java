@@ -2,6 +2,7 @@ package nl.cwi.pr.runtime;
 
 import nl.cwi.pr.runtime.api.InputPort;
 import nl.cwi.pr.runtime.api.OutputPort;
+import nl.cwi.reo.runtime.Metrics;
 
 public class Ports {
 
@@ -12,4 +13,20 @@ public class Ports {
 	public static OutputPort newOutputPort() {
 		return new OutputPortImpl();
 	}
+
+	public static InputPort newMeteredInputPort(final String name) {
+		return new MeteredInputPortImpl(Metrics.waitTime(name));
+	}
+
+	public static OutputPort newMeteredOutputPort(final String name) {
+		return new MeteredOutputPortImpl(Metrics.waitTime(name));
+	}
+
+	public static InputPort newPaddedInputPort() {
+		return new PaddedInputPortImpl();
+	}
+
+	public static OutputPort newPaddedOutputPort() {
+		return new PaddedOutputPortImpl();
+	}
 }
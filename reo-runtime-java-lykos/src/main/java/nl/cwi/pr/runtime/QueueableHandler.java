@@ -1,6 +1,7 @@
 package nl.cwi.pr.runtime;
 
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public abstract class QueueableHandler extends Handler {
 
@@ -9,7 +10,7 @@ public abstract class QueueableHandler extends Handler {
 	//
 
 	public final QueueableHandlersQueue qhq;
-	public volatile boolean isQueued = false;
+	public final AtomicBoolean isQueued = new AtomicBoolean(false);
 
 	//
 	// CONSTRUCTORS
@@ -1,27 +1,40 @@
 package nl.cwi.pr.runtime;
 
-import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 
+/*
+ * A bounded lock-free queue of handlers with many writers and a single
+ * reader. Writers claim slots with a compare-and-set on the tail and publish
+ * handlers by setting the slot; the reader owns the head, and either parks
+ * while the queue is empty, or is notified by a listener.
+ */
 public class QueueableHandlersQueue {
 
 	//
 	// FIELDS
 	//
 
-	private final QueueableHandler[] handlers;
-	private final Semaphore counter = new Semaphore(0);
-	private final Semaphore mutex = new Semaphore(1);
-	private final int size;
-	private volatile int start = 0;
-	private volatile int end = 0;
+	private final AtomicReferenceArray<QueueableHandler> handlers;
+	private final int mask;
+
+	private final PaddedCounter head = new PaddedCounter();
+	private final PaddedCounter tail = new PaddedCounter();
+
+	private volatile Thread reader = null;
+	private volatile Runnable listener = null;
 
 	//
 	// CONSTRUCTORS
 	//
 
 	public QueueableHandlersQueue(final int size) {
-		this.handlers = new QueueableHandler[size];
-		this.size = size;
+		int capacity = Integer.highestOneBit(Math.max(1, size));
+		if (capacity < size)
+			capacity <<= 1;
+
+		this.handlers = new AtomicReferenceArray<QueueableHandler>(capacity);
+		this.mask = capacity - 1;
 	}
 
 	//
@@ -29,31 +42,65 @@ public class QueueableHandlersQueue {
 	//
 
 	public QueueableHandler dequeue() {
-		counter.acquireUninterruptibly();
-
-		mutex.acquireUninterruptibly();
-		QueueableHandler handler = handlers[start];
-		start = (start + 1) % size;
-		handler.isQueued = false;
-		mutex.release();
+		QueueableHandler handler = poll();
+		if (handler == null) {
+			reader = Thread.currentThread();
+			while ((handler = poll()) == null)
+				LockSupport.park(this);
+			reader = null;
+		}
 
 		return handler;
 	}
 
 	public void enqueue(final QueueableHandler handler) {
-		mutex.acquireUninterruptibly();
-		if (!handler.isQueued) {
-			handlers[end] = handler;
-			end = (end + 1) % size;
-			handler.isQueued = true;
+		if (handler.isQueued.get() || !handler.isQueued.compareAndSet(false, true))
+			return;
 
-			counter.release();
+		long t;
+		while (true) {
+			t = tail.get();
+			if (t - head.get() > mask)
+				Thread.yield();
+			else if (tail.compareAndSet(t, t + 1))
+				break;
 		}
 
-		mutex.release();
+		handlers.set((int) t & mask, handler);
+
+		Runnable r = listener;
+		if (r != null)
+			r.run();
+
+		Thread thread = reader;
+		if (thread != null)
+			LockSupport.unpark(thread);
 	}
 
 	public boolean isEmpty() {
-		return counter.availablePermits() == 0;
+		return handlers.get((int) head.get() & mask) == null;
+	}
+
+	public QueueableHandler poll() {
+		long h = head.get();
+		int i = (int) h & mask;
+
+		QueueableHandler handler = handlers.get(i);
+		if (handler == null)
+			return null;
+
+		handlers.lazySet(i, null);
+		head.lazySet(h + 1);
+		handler.isQueued.set(false);
+		return handler;
+	}
+
+	/*
+	 * Sets a listener that runs after every enqueue, instead of a blocked
+	 * reader being woken up. This lets the queue be drained by tasks on a
+	 * worker pool instead of by a dedicated reader thread.
+	 */
+	public void setListener(final Runnable listener) {
+		this.listener = listener;
 	}
-}
\ No newline at end of file
+}
@@ -1,32 +1,41 @@
 package nl.cwi.pr.runtime;
 
-import java.util.concurrent.Semaphore;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicReferenceArray;
-
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/*
+ * A bounded lock-free queue with many writers and a single reader. Every slot
+ * carries a sequence number that tells whether the slot is free for the writer
+ * that claimed position i (sequence i), or holds the item at position i
+ * (sequence i + 1). Writers claim positions with a compare-and-set on the
+ * tail; the reader owns the head and needs no atomic read-modify-write at all.
+ */
 public class SingleReaderQueue {
 
 	//
 	// FIELDS
 	//
 
-	private final AtomicReferenceArray<SingleReaderQueueItem> array;
-	private final AtomicInteger head = new AtomicInteger(0);
-	private final int boundary;
-	private final int size;
-	private final Semaphore semaphore = new Semaphore(1);
+	private final SingleReaderQueueItem[] items;
+	private final AtomicLongArray sequences;
+	private final int mask;
 
-	private volatile int tail = 0;
-	private volatile int headForWriters = 0;
+	private final PaddedCounter head = new PaddedCounter();
+	private final PaddedCounter tail = new PaddedCounter();
 
 	//
 	// CONSTRUCTORS
 	//
 
 	public SingleReaderQueue(final int size) {
-		this.array = new AtomicReferenceArray<SingleReaderQueueItem>(size);
-		this.boundary = Integer.MAX_VALUE - size;
-		this.size = size;
+		int capacity = Integer.highestOneBit(Math.max(1, size));
+		if (capacity < size)
+			capacity <<= 1;
+
+		this.items = new SingleReaderQueueItem[capacity];
+		this.sequences = new AtomicLongArray(capacity);
+		this.mask = capacity - 1;
+		for (int i = 0; i < capacity; i++)
+			sequences.lazySet(i, i);
 	}
 
 	//
@@ -34,33 +43,39 @@ public class SingleReaderQueue {
 	//
 
 	public boolean canPoll() {
-		return tail != head.get();
+		long h = head.get();
+		return sequences.get((int) h & mask) == h + 1;
 	}
 
 	public SingleReaderQueueItem peek() {
-		return array.get(tail % size);
+		return items[(int) head.get() & mask];
 	}
 
 	public SingleReaderQueueItem poll() {
-		if (tail == Integer.MAX_VALUE)
-			tail = Integer.MAX_VALUE % size;
-
-		return array.get(tail++ % size);
+		long h = head.get();
+		int i = (int) h & mask;
+		SingleReaderQueueItem item = items[i];
+		items[i] = null;
+		sequences.lazySet(i, h + mask + 1);
+		head.lazySet(h + 1);
+		return item;
 	}
 
 	public void offer(SingleReaderQueueItem item) {
-		semaphore.acquireUninterruptibly();
-		if (boundary < headForWriters) {
-			headForWriters = headForWriters % size;
-
-			int i = head.get();
-			while (!head.compareAndSet(i, i % size))
-				i = head.get();
+		long t;
+		int i;
+		while (true) {
+			t = tail.get();
+			i = (int) t & mask;
+			long s = sequences.get(i);
+			if (s == t) {
+				if (tail.compareAndSet(t, t + 1))
+					break;
+			} else if (s < t)
+				Thread.yield();
 		}
 
-		array.set(headForWriters++ % size, item);
-		semaphore.release();
-
-		head.getAndIncrement();
+		items[i] = item;
+		sequences.lazySet(i, t + 1);
 	}
 }
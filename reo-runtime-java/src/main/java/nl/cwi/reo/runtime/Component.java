@@ -10,4 +10,17 @@ public interface Component extends Runnable {
 	 * Activates this component.
 	 */
 	public void activate();
+
+	/**
+	 * Activates this component on behalf of a given port. Components that
+	 * index their transitions by port override this method to re-examine
+	 * only the transitions that depend on this port. By default, this method
+	 * behaves as {@link #activate()}.
+	 *
+	 * @param port
+	 *            port whose state has changed
+	 */
+	public default void activate(Port<?> port) {
+		activate();
+	}
 }
@@ -0,0 +1,124 @@
+package nl.cwi.reo.runtime;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs a protocol component as an event-driven task on a shared pool of
+ * scheduler threads.
+ *
+ * Every protocol owns one scheduler. Activating the scheduler enqueues the
+ * step of the protocol on the pool, unless it is already enqueued. A step
+ * fires the enabled transitions of the protocol, and then yields its scheduler
+ * thread. If the protocol is activated while its step runs, the step is
+ * enqueued again once it returns, at the end of the queue. Hence, a step never
+ * runs concurrently with itself, no activation is lost, and no protocol keeps
+ * a scheduler thread to itself.
+ *
+ * The pool has a fixed number of daemon threads, set by the system property
+ * reo.scheduler.threads, which defaults to the number of available
+ * processors. No scheduler thread spins or waits for a protocol, so many
+ * protocols share a few cores.
+ */
+public final class CooperativeScheduler implements Scheduler {
+
+	/** The step is not enqueued and does not run. */
+	private static final int IDLE = 0;
+
+	/** The step is enqueued, but does not run yet. */
+	private static final int QUEUED = 1;
+
+	/** The step runs. */
+	private static final int RUNNING = 2;
+
+	/** The step runs, and must be enqueued again once it returns. */
+	private static final int RERUN = 3;
+
+	/**
+	 * Holds the pool of scheduler threads, which is created only if some
+	 * protocol is activated.
+	 */
+	private static final class Pool {
+
+		/** Number of scheduler threads. */
+		static final int THREADS = Math.max(1,
+				Integer.getInteger("reo.scheduler.threads", Runtime.getRuntime().availableProcessors()));
+
+		/** Shared pool of scheduler threads. */
+		static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(THREADS, new ThreadFactory() {
+
+			private final AtomicInteger count = new AtomicInteger();
+
+			public Thread newThread(Runnable r) {
+				Thread t = new Thread(r, "reo-scheduler-" + count.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			}
+		});
+	}
+
+	/** Step of the protocol. */
+	private final Runnable step;
+
+	/** State of the step: IDLE, QUEUED, RUNNING or RERUN. */
+	private final AtomicInteger state = new AtomicInteger(IDLE);
+
+	/**
+	 * Constructs a new scheduler for a protocol.
+	 *
+	 * @param step
+	 *            fires the enabled transitions of the protocol
+	 */
+	public CooperativeScheduler(Runnable step) {
+		this.step = step;
+	}
+
+	/**
+	 * Gets the number of scheduler threads.
+	 *
+	 * @return the number of threads that run the steps of all protocols.
+	 */
+	public static int getParallelism() {
+		return Pool.THREADS;
+	}
+
+	/**
+	 * Enqueues the step of the protocol, unless it is enqueued already. If the
+	 * step runs, it is enqueued again once it returns. This method does not
+	 * block, and may be called from any thread.
+	 */
+	public void activate() {
+		while (true) {
+			int s = state.get();
+			if (s == IDLE) {
+				if (state.compareAndSet(IDLE, QUEUED)) {
+					Pool.EXECUTOR.execute(this);
+					return;
+				}
+			} else if (s == RUNNING) {
+				if (state.compareAndSet(RUNNING, RERUN))
+					return;
+			} else {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Runs the step of the protocol once. This method is called by the
+	 * scheduler threads only.
+	 */
+	public void run() {
+		state.set(RUNNING);
+		try {
+			step.run();
+		} finally {
+			if (!state.compareAndSet(RUNNING, IDLE)) {
+				state.set(QUEUED);
+				Pool.EXECUTOR.execute(this);
+			}
+		}
+	}
+}
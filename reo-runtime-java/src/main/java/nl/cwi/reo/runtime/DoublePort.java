@@ -0,0 +1,94 @@
+package nl.cwi.reo.runtime;
+
+/**
+ * A synchronous port that transfers double values without boxing. Generated
+ * protocols use this port for ports with type tag Double or double.
+ */
+public class DoublePort extends PrimitivePort<Double> {
+
+	/** The offered datum, which is valid only if a datum is offered. */
+	private volatile double datum;
+
+	/**
+	 * Offers a datum to this port. This method blocks until a previously
+	 * offered datum is taken, and until the consumer has requested the
+	 * offered datum.
+	 *
+	 * @param datum
+	 *            datum
+	 */
+	public void putDouble(double datum) {
+		boolean interrupted = reserve();
+		this.datum = datum;
+		offer(interrupted);
+	}
+
+	/**
+	 * Retrieves a datum from this port, and blocks until a datum is offered.
+	 *
+	 * @return the offered datum.
+	 */
+	public double getDouble() {
+		boolean interrupted = request();
+		double d = datum;
+		release(interrupted);
+		return d;
+	}
+
+	/**
+	 * Gets the offered datum, without taking it. The result is valid only if
+	 * {@link #hasDatum()} holds.
+	 *
+	 * @return the offered datum.
+	 */
+	public double peekDouble() {
+		return datum;
+	}
+
+	/**
+	 * Takes the offered datum, without activating the producer.
+	 *
+	 * @return the offered datum.
+	 */
+	public double takeDouble() {
+		double d = datum;
+		taken();
+		return d;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Output#put(java.lang.Object)
+	 */
+	public void put(Double datum) {
+		putDouble(datum);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Input#get()
+	 */
+	public Double get() {
+		return getDouble();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setPut(java.lang.Object)
+	 */
+	public void setPut(Double datum) {
+		this.datum = datum;
+		offered();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#peek()
+	 */
+	public Double peek() {
+		return hasDatum() ? datum : null;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#take()
+	 */
+	public Double take() {
+		return takeDouble();
+	}
+}
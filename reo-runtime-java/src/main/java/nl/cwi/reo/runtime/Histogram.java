@@ -0,0 +1,151 @@
+package nl.cwi.reo.runtime;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of non-negative values, such as blocking times in
+ * nanoseconds. Like an HDR histogram, it divides every power of two into a
+ * fixed number of linear sub-buckets, so that every recorded value is known up
+ * to a relative error of at most 1/{@value #SUB_BUCKETS}, while recording
+ * takes constant time and never allocates.
+ */
+public final class Histogram {
+
+	/** Number of sub-buckets per power of two. */
+	public static final int SUB_BUCKETS = 8;
+
+	/** Base two logarithm of {@link #SUB_BUCKETS}. */
+	private static final int SUB_BITS = 3;
+
+	/** Count of every bucket. */
+	private final AtomicLongArray counts = new AtomicLongArray((64 - SUB_BITS) * SUB_BUCKETS);
+
+	/** Total number of recorded values. */
+	private final LongAdder count = new LongAdder();
+
+	/** Sum of all recorded values. */
+	private final LongAdder sum = new LongAdder();
+
+	/** Largest recorded value. */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records a value.
+	 *
+	 * @param value
+	 *            non-negative value
+	 */
+	public void record(long value) {
+		if (value < 0)
+			value = 0;
+		counts.getAndIncrement(index(value));
+		count.increment();
+		sum.add(value);
+		long m = max.get();
+		while (value > m && !max.compareAndSet(m, value))
+			m = max.get();
+	}
+
+	/**
+	 * Gets the number of recorded values.
+	 *
+	 * @return number of recorded values.
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * Gets the mean of all recorded values.
+	 *
+	 * @return mean of all recorded values, or zero if there are none.
+	 */
+	public double getMean() {
+		long n = count.sum();
+		return n == 0 ? 0 : (double) sum.sum() / n;
+	}
+
+	/**
+	 * Gets the largest recorded value.
+	 *
+	 * @return largest recorded value.
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * Gets a percentile of the recorded values.
+	 *
+	 * @param p
+	 *            percentage between 0 and 100
+	 * @return the largest value that is equivalent to the recorded value at
+	 *         percentile p, or zero if there are no values.
+	 */
+	public long getPercentile(double p) {
+		long n = count.sum();
+		if (n == 0)
+			return 0;
+		long rank = Math.max(1, (long) Math.ceil(p / 100 * n));
+		long seen = 0;
+		for (int i = 0; i < counts.length(); i++) {
+			seen += counts.get(i);
+			if (seen >= rank)
+				return Math.min(highest(i), max.get());
+		}
+		return max.get();
+	}
+
+	/**
+	 * Clears this histogram.
+	 */
+	public void reset() {
+		for (int i = 0; i < counts.length(); i++)
+			counts.set(i, 0);
+		count.reset();
+		sum.reset();
+		max.set(0);
+	}
+
+	/**
+	 * Summarizes this histogram, with values in microseconds.
+	 *
+	 * @return count, mean, median, 99th percentile and maximum.
+	 */
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus", getCount(), getMean() / 1e3,
+				getPercentile(50) / 1e3, getPercentile(99) / 1e3, getMax() / 1e3);
+	}
+
+	/**
+	 * Computes the bucket of a value.
+	 *
+	 * @param value
+	 *            non-negative value
+	 * @return index of the bucket that contains the value.
+	 */
+	private static int index(long value) {
+		if (value < SUB_BUCKETS)
+			return (int) value;
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+		return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+	/**
+	 * Computes the largest value in a bucket.
+	 *
+	 * @param index
+	 *            index of a bucket
+	 * @return largest value in the bucket.
+	 */
+	private static long highest(int index) {
+		if (index < SUB_BUCKETS)
+			return index;
+		int shift = index / SUB_BUCKETS - 1;
+		long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+		return lowest + (1L << shift) - 1;
+	}
+}
@@ -1,5 +1,7 @@
 package nl.cwi.reo.runtime;
 
+import java.util.Collection;
+
 // TODO: Auto-generated Javadoc
 /**
  * An input port.
@@ -16,4 +18,24 @@ public interface Input<T> {
 	 * @return an offered datum.
 	 */
 	public T get();
+
+	/**
+	 * Retrieves a batch of data from this port, and adds it to a given
+	 * collection. This method blocks until at least one datum is retrieved.
+	 * Ports that support batches may retrieve further data that becomes
+	 * available without another handshake with the producer. By default,
+	 * this method retrieves exactly one datum.
+	 * 
+	 * @param c
+	 *            collection that receives the data
+	 * @param max
+	 *            maximum number of data to retrieve
+	 * @return number of retrieved data.
+	 */
+	public default int drainTo(Collection<? super T> c, int max) {
+		if (max <= 0)
+			return 0;
+		c.add(get());
+		return 1;
+	}
 }
@@ -0,0 +1,94 @@
+package nl.cwi.reo.runtime;
+
+/**
+ * A synchronous port that transfers int values without boxing. Generated
+ * protocols use this port for ports with type tag Integer or int.
+ */
+public class IntPort extends PrimitivePort<Integer> {
+
+	/** The offered datum, which is valid only if a datum is offered. */
+	private volatile int datum;
+
+	/**
+	 * Offers a datum to this port. This method blocks until a previously
+	 * offered datum is taken, and until the consumer has requested the
+	 * offered datum.
+	 *
+	 * @param datum
+	 *            datum
+	 */
+	public void putInt(int datum) {
+		boolean interrupted = reserve();
+		this.datum = datum;
+		offer(interrupted);
+	}
+
+	/**
+	 * Retrieves a datum from this port, and blocks until a datum is offered.
+	 *
+	 * @return the offered datum.
+	 */
+	public int getInt() {
+		boolean interrupted = request();
+		int d = datum;
+		release(interrupted);
+		return d;
+	}
+
+	/**
+	 * Gets the offered datum, without taking it. The result is valid only if
+	 * {@link #hasDatum()} holds.
+	 *
+	 * @return the offered datum.
+	 */
+	public int peekInt() {
+		return datum;
+	}
+
+	/**
+	 * Takes the offered datum, without activating the producer.
+	 *
+	 * @return the offered datum.
+	 */
+	public int takeInt() {
+		int d = datum;
+		taken();
+		return d;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Output#put(java.lang.Object)
+	 */
+	public void put(Integer datum) {
+		putInt(datum);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Input#get()
+	 */
+	public Integer get() {
+		return getInt();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setPut(java.lang.Object)
+	 */
+	public void setPut(Integer datum) {
+		this.datum = datum;
+		offered();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#peek()
+	 */
+	public Integer peek() {
+		return hasDatum() ? datum : null;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#take()
+	 */
+	public Integer take() {
+		return takeInt();
+	}
+}
@@ -0,0 +1,45 @@
+package nl.cwi.reo.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * A serializer that uses Java object serialization, and accepts every datum
+ * that implements {@link java.io.Serializable}.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public final class JavaSerializer<T> implements Serializer<T> {
+
+	/**
+	 * {@inheritDoc}
+	 */
+	public void write(T datum, ByteBuffer buffer) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(datum);
+		} catch (IOException e) {
+			throw new IllegalArgumentException(e);
+		}
+		buffer.put(bytes.toByteArray());
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@SuppressWarnings("unchecked")
+	public T read(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (T) in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,94 @@
+package nl.cwi.reo.runtime;
+
+/**
+ * A synchronous port that transfers long values without boxing. Generated
+ * protocols use this port for ports with type tag Long or long.
+ */
+public class LongPort extends PrimitivePort<Long> {
+
+	/** The offered datum, which is valid only if a datum is offered. */
+	private volatile long datum;
+
+	/**
+	 * Offers a datum to this port. This method blocks until a previously
+	 * offered datum is taken, and until the consumer has requested the
+	 * offered datum.
+	 *
+	 * @param datum
+	 *            datum
+	 */
+	public void putLong(long datum) {
+		boolean interrupted = reserve();
+		this.datum = datum;
+		offer(interrupted);
+	}
+
+	/**
+	 * Retrieves a datum from this port, and blocks until a datum is offered.
+	 *
+	 * @return the offered datum.
+	 */
+	public long getLong() {
+		boolean interrupted = request();
+		long d = datum;
+		release(interrupted);
+		return d;
+	}
+
+	/**
+	 * Gets the offered datum, without taking it. The result is valid only if
+	 * {@link #hasDatum()} holds.
+	 *
+	 * @return the offered datum.
+	 */
+	public long peekLong() {
+		return datum;
+	}
+
+	/**
+	 * Takes the offered datum, without activating the producer.
+	 *
+	 * @return the offered datum.
+	 */
+	public long takeLong() {
+		long d = datum;
+		taken();
+		return d;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Output#put(java.lang.Object)
+	 */
+	public void put(Long datum) {
+		putLong(datum);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Input#get()
+	 */
+	public Long get() {
+		return getLong();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setPut(java.lang.Object)
+	 */
+	public void setPut(Long datum) {
+		this.datum = datum;
+		offered();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#peek()
+	 */
+	public Long peek() {
+		return hasDatum() ? datum : null;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#take()
+	 */
+	public Long take() {
+		return takeLong();
+	}
+}
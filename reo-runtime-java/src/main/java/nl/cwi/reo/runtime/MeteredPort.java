@@ -0,0 +1,166 @@
+package nl.cwi.reo.runtime;
+
+import java.util.Collection;
+
+/**
+ * Port that records how long its user blocks in every put and get of an
+ * underlying port. Generated code hands a metered port only to atomic
+ * components, so that protocols keep comparing the underlying ports by
+ * identity.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public final class MeteredPort<T> implements Port<T> {
+
+	/** Underlying port. */
+	private final Port<T> port;
+
+	/** Blocking times, in nanoseconds. */
+	private final Histogram waits;
+
+	/**
+	 * Constructs a metered view of a port.
+	 *
+	 * @param port
+	 *            underlying port
+	 * @param waits
+	 *            histogram that records the blocking times
+	 */
+	public MeteredPort(Port<T> port, Histogram waits) {
+		this.port = port;
+		this.waits = waits;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void put(T datum) {
+		long t = System.nanoTime();
+		port.put(datum);
+		waits.record(System.nanoTime() - t);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void putAll(T[] data) {
+		long t = System.nanoTime();
+		port.putAll(data);
+		waits.record(System.nanoTime() - t);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void putAll(Collection<? extends T> data) {
+		long t = System.nanoTime();
+		port.putAll(data);
+		waits.record(System.nanoTime() - t);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T get() {
+		long t = System.nanoTime();
+		T datum = port.get();
+		waits.record(System.nanoTime() - t);
+		return datum;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int drainTo(Collection<? super T> c, int max) {
+		long t = System.nanoTime();
+		int n = port.drainTo(c, max);
+		waits.record(System.nanoTime() - t);
+		return n;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setProducer(Component p) {
+		port.setProducer(p);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setConsumer(Component c) {
+		port.setConsumer(c);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setPut(T datum) {
+		port.setPut(datum);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setGet() {
+		port.setGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T hasPut() {
+		return port.hasPut();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T peek() {
+		return port.peek();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean hasGet() {
+		return port.hasGet();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T take() {
+		return port.take();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void activateProducer() {
+		port.activateProducer();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void activateConsumer() {
+		port.activateConsumer();
+	}
+}
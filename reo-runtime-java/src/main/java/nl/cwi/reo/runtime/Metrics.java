@@ -0,0 +1,196 @@
+package nl.cwi.reo.runtime;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Registry of the runtime metrics of generated protocols, namely the number of
+ * guard evaluations and firings of every transition, and the blocking times of
+ * every metered port.
+ *
+ * Generated code registers its metrics only if it is compiled with metrics
+ * enabled. On first use, this registry exposes all metrics over JMX via a
+ * {@link MetricsMXBean}. If the system property {@value #INTERVAL} is set to
+ * a positive number of seconds, a daemon thread moreover prints a report of
+ * all metrics to the standard error stream at that interval.
+ */
+public final class Metrics {
+
+	/** JMX object name of the registry. */
+	public static final String OBJECT_NAME = "nl.cwi.reo.runtime:type=Metrics";
+
+	/** System property that sets the interval, in seconds, of the report. */
+	public static final String INTERVAL = "reo.metrics.interval";
+
+	/** Transition counters of every protocol, ordered by name. */
+	private static final ConcurrentMap<String, TransitionCounters> transitions = new ConcurrentSkipListMap<>();
+
+	/** Blocking times of every metered port, ordered by name. */
+	private static final ConcurrentMap<String, Histogram> waits = new ConcurrentSkipListMap<>();
+
+	static {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(new Bean(), new ObjectName(OBJECT_NAME));
+		} catch (JMException | SecurityException e) {
+			// Metrics remain available via report().
+		}
+		long interval = Long.getLong(INTERVAL, 0);
+		if (interval > 0) {
+			Thread t = new Thread(() -> {
+				try {
+					while (true) {
+						Thread.sleep(interval * 1000);
+						print(System.err);
+					}
+				} catch (InterruptedException e) {
+					return;
+				}
+			}, "reo-metrics");
+			t.setDaemon(true);
+			t.start();
+		}
+	}
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private Metrics() {
+	}
+
+	/**
+	 * Gets the transition counters of a protocol, and creates them if
+	 * necessary.
+	 *
+	 * @param name
+	 *            name of the protocol
+	 * @param n
+	 *            number of transitions of the protocol
+	 * @return transition counters of the protocol.
+	 */
+	public static TransitionCounters transitions(String name, int n) {
+		return transitions.computeIfAbsent(name, k -> new TransitionCounters(n));
+	}
+
+	/**
+	 * Gets the blocking time histogram of a port, and creates it if
+	 * necessary.
+	 *
+	 * @param name
+	 *            name of the port
+	 * @return blocking time histogram of the port, in nanoseconds.
+	 */
+	public static Histogram waitTime(String name) {
+		return waits.computeIfAbsent(name, k -> new Histogram());
+	}
+
+	/**
+	 * Composes a textual report of all metrics.
+	 *
+	 * @return report of all metrics.
+	 */
+	public static String report() {
+		StringBuilder s = new StringBuilder();
+		for (Map.Entry<String, TransitionCounters> e : transitions.entrySet()) {
+			TransitionCounters c = e.getValue();
+			for (int i = 0; i < c.size(); i++)
+				s.append(String.format("%s[%d] guards=%d fires=%d%n", e.getKey(), i, c.getGuards(i), c.getFires(i)));
+		}
+		for (Map.Entry<String, Histogram> e : waits.entrySet())
+			s.append(String.format("%s wait %s%n", e.getKey(), e.getValue()));
+		return s.toString();
+	}
+
+	/**
+	 * Prints a textual report of all metrics.
+	 *
+	 * @param out
+	 *            output stream
+	 */
+	public static void print(PrintStream out) {
+		out.print(report());
+		out.flush();
+	}
+
+	/**
+	 * Clears all metrics.
+	 */
+	public static void reset() {
+		for (TransitionCounters c : transitions.values())
+			c.reset();
+		for (Histogram h : waits.values())
+			h.reset();
+	}
+
+	/**
+	 * Exposes the registry over JMX.
+	 */
+	private static final class Bean implements MetricsMXBean {
+
+		/**
+		 * Collects one counter of every transition.
+		 *
+		 * @param fires
+		 *            if true, count firings, and otherwise guard evaluations
+		 * @return map from protocol name and transition index to the counter.
+		 */
+		private static Map<String, Long> collect(boolean fires) {
+			Map<String, Long> m = new LinkedHashMap<>();
+			for (Map.Entry<String, TransitionCounters> e : transitions.entrySet()) {
+				TransitionCounters c = e.getValue();
+				for (int i = 0; i < c.size(); i++)
+					m.put(e.getKey() + "[" + i + "]", fires ? c.getFires(i) : c.getGuards(i));
+			}
+			return m;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Map<String, Long> getFirings() {
+			return collect(true);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Map<String, Long> getGuardEvaluations() {
+			return collect(false);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public Map<String, String> getWaitTimes() {
+			Map<String, String> m = new LinkedHashMap<>();
+			for (Map.Entry<String, Histogram> e : waits.entrySet())
+				m.put(e.getKey(), e.getValue().toString());
+			return m;
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public String getReport() {
+			return Metrics.report();
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public void reset() {
+			Metrics.reset();
+		}
+	}
+}
@@ -0,0 +1,46 @@
+package nl.cwi.reo.runtime;
+
+import java.util.Map;
+
+/**
+ * Management interface that exposes the {@link Metrics} of all protocols in
+ * this Java virtual machine over JMX, under the name
+ * {@value Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMXBean {
+
+	/**
+	 * Gets the number of firings of every transition.
+	 *
+	 * @return map from protocol name and transition index to the number of
+	 *         firings.
+	 */
+	public Map<String, Long> getFirings();
+
+	/**
+	 * Gets the number of guard evaluations of every transition.
+	 *
+	 * @return map from protocol name and transition index to the number of
+	 *         guard evaluations.
+	 */
+	public Map<String, Long> getGuardEvaluations();
+
+	/**
+	 * Gets a summary of the blocking time of every metered port.
+	 *
+	 * @return map from port name to a summary of its blocking times.
+	 */
+	public Map<String, String> getWaitTimes();
+
+	/**
+	 * Gets a textual report of all metrics.
+	 *
+	 * @return report of all metrics.
+	 */
+	public String getReport();
+
+	/**
+	 * Clears all metrics.
+	 */
+	public void reset();
+}
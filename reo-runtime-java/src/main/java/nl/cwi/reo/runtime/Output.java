@@ -1,5 +1,7 @@
 package nl.cwi.reo.runtime;
 
+import java.util.Collection;
+
 // TODO: Auto-generated Javadoc
 /**
  * An output port.
@@ -17,4 +19,31 @@ public interface Output<T> {
 	 *            offered datum
 	 */
 	public void put(T datum);
+
+	/**
+	 * Offers an array of data to this port, in order. This method blocks
+	 * until all data are taken. Ports that support batches offer the next
+	 * datum without another handshake with the consumer. By default, this
+	 * method puts each datum separately.
+	 * 
+	 * @param data
+	 *            offered data
+	 */
+	public default void putAll(T[] data) {
+		for (T datum : data)
+			put(datum);
+	}
+
+	/**
+	 * Offers a collection of data to this port, in iteration order. This
+	 * method blocks until all data are taken. By default, this method puts
+	 * each datum separately.
+	 * 
+	 * @param data
+	 *            offered data
+	 */
+	public default void putAll(Collection<? extends T> data) {
+		for (T datum : data)
+			put(datum);
+	}
 }
@@ -79,7 +79,7 @@ public class PortBusyWait<T> implements Port<T> {
 		}
 		put = null;
 		get = false;
-		prod.activate();
+		prod.activate(this);
 		return datum;
 	}
 
@@ -87,14 +87,14 @@ public class PortBusyWait<T> implements Port<T> {
 	 * @see nl.cwi.reo.runtime.Port#activateProducer()
 	 */
 	public void activateProducer() {
-		prod.activate();
+		prod.activate(this);
 	}
 
 	/* (non-Javadoc)
 	 * @see nl.cwi.reo.runtime.Port#activateConsumer()
 	 */
 	public void activateConsumer() {
-		cons.activate();
+		cons.activate(this);
 	}
 
 	/* (non-Javadoc)
@@ -107,7 +107,7 @@ public class PortBusyWait<T> implements Port<T> {
 		while (put != null) {
 		}
 		put = datum;
-		cons.activate();
+		cons.activate(this);
 		// Wait for signal from scheduler
 		while (!get && put != null) {
 		}
@@ -119,14 +119,14 @@ public class PortBusyWait<T> implements Port<T> {
 	public T get() {
 		// Signal the scheduler
 		get = true;
-		prod.activate();
+		prod.activate(this);
 		// Wait for signal from scheduler
 		T datum;
 		while ((datum = put) == null) {
 		}
 		put = null;
 		get = false;
-		prod.activate();
+		prod.activate(this);
 		return datum;
 	}
 
@@ -147,7 +147,7 @@ public class PortBusyWait<T> implements Port<T> {
 		while (put != null) {
 		}
 		put = datum;
-		cons.activate();
+		cons.activate(this);
 		// Wait for signal from scheduler
 		while (!get && put != null) {
 			if (System.nanoTime() >= deadline) {
@@ -170,7 +170,7 @@ public class PortBusyWait<T> implements Port<T> {
 		// Signal the scheduler
 		long deadline = System.nanoTime() + timeout;
 		get = true;
-		prod.activate();
+		prod.activate(this);
 		// Wait for signal from scheduler
 		T datum;
 		while ((datum = put) == null) {
@@ -181,7 +181,7 @@ public class PortBusyWait<T> implements Port<T> {
 		}
 		put = null;
 		get = false;
-		prod.activate();
+		prod.activate(this);
 		return datum;
 	}
 }
\ No newline at end of file
@@ -79,14 +79,14 @@ public class PortFIFO1<T> implements Port<T> {
 	 * @see nl.cwi.reo.runtime.Port#activateProducer()
 	 */
 	public void activateProducer() {
-		producer.activate();
+		producer.activate(this);
 	}
 
 	/* (non-Javadoc)
 	 * @see nl.cwi.reo.runtime.Port#activateConsumer()
 	 */
 	public void activateConsumer() {
-		consumer.activate();
+		consumer.activate(this);
 	}
 
 	/* (non-Javadoc)
@@ -96,7 +96,7 @@ public class PortFIFO1<T> implements Port<T> {
 		if (datum == null)
 			throw new NullPointerException();
 		put = datum;
-		consumer.activate();
+		consumer.activate(this);
 		while (put != null) {
 		}
 	}
@@ -105,12 +105,12 @@ public class PortFIFO1<T> implements Port<T> {
 	 * @see nl.cwi.reo.runtime.Input#get()
 	 */
 	public T get() {
-		producer.activate();
+		producer.activate(this);
 		while (put == null) {
 		}
 		T datum = put;
 		put = null;
-		producer.activate();
+		producer.activate(this);
 		return datum;
 	}
 }
\ No newline at end of file
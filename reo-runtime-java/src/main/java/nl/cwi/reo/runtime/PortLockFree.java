@@ -0,0 +1,281 @@
+package nl.cwi.reo.runtime;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A synchronous port that coordinates its producer and consumer via a single
+ * state word that is updated by compare-and-set. A blocked thread first spins
+ * for an adaptively chosen number of iterations, and then parks until the
+ * other side unparks it. This port never acquires a monitor, and it does not
+ * allocate after construction.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public class PortLockFree<T> implements Port<T> {
+
+	/** State in which no put and no get is pending. */
+	private static final int EMPTY = 0;
+
+	/** Bit that indicates that a datum is offered. */
+	private static final int PUT = 1;
+
+	/** Bit that indicates that a datum is requested. */
+	private static final int GET = 2;
+
+	/** State in which an offered datum is committed to a pending get. */
+	private static final int TRANSFER = PUT | GET;
+
+	/** Producer condition: a previously offered datum is not yet taken. */
+	private static final int PENDING = 0;
+
+	/** Producer condition: the offered datum is not yet requested. */
+	private static final int UNREQUESTED = 1;
+
+	/** Consumer condition: no datum is offered. */
+	private static final int ABSENT = 2;
+
+	/** Maximum number of spin iterations before parking. */
+	private static final int MAX_SPINS = 1 << 10;
+
+	/** Minimum number of spin iterations before parking. */
+	private static final int MIN_SPINS = 1 << 4;
+
+	/** Atomic updater of the state word. */
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<PortLockFree> STATE = AtomicIntegerFieldUpdater
+			.newUpdater(PortLockFree.class, "state");
+
+	/** The prod. */
+	private Component prod;
+
+	/** The cons. */
+	private Component cons;
+
+	/** The state word: a combination of the PUT and GET bits. */
+	private volatile int state = EMPTY;
+
+	/** The offered datum, which is valid only if the PUT bit is set. */
+	private volatile T datum;
+
+	/** Thread that is parked in a put, if any. */
+	private volatile Thread producer;
+
+	/** Thread that is parked in a get, if any. */
+	private volatile Thread consumer;
+
+	/**
+	 * Current spin budget. This value is a heuristic that is shared
+	 * (unsynchronized) by both sides: it grows whenever spinning succeeds,
+	 * and it shrinks whenever a thread has to park.
+	 */
+	private int spins = MIN_SPINS;
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setProducer(nl.cwi.reo.runtime.Component)
+	 */
+	public void setProducer(Component p) {
+		prod = p;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setConsumer(nl.cwi.reo.runtime.Component)
+	 */
+	public void setConsumer(Component c) {
+		cons = c;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setGet()
+	 */
+	public void setGet() {
+		set(GET);
+		unpark(producer);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setPut(java.lang.Object)
+	 */
+	public void setPut(T datum) {
+		this.datum = datum;
+		set(PUT);
+		unpark(consumer);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#take()
+	 */
+	public T take() {
+		T d = datum;
+		datum = null;
+		clear(TRANSFER);
+		unpark(producer);
+		return d;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#hasGet()
+	 */
+	public boolean hasGet() {
+		return state == GET;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#hasPut()
+	 */
+	public T hasPut() {
+		return (state & PUT) != 0 ? datum : null;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#peek()
+	 */
+	public T peek() {
+		return (state & PUT) != 0 ? datum : null;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#activateProducer()
+	 */
+	public void activateProducer() {
+		prod.activate(this);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#activateConsumer()
+	 */
+	public void activateConsumer() {
+		cons.activate(this);
+	}
+
+	/**
+	 * Offers a datum to this port. This method blocks until a previously
+	 * offered datum is taken, and until the consumer has requested the
+	 * offered datum.
+	 */
+	public void put(T datum) {
+		if (datum == null)
+			throw new NullPointerException();
+		boolean interrupted = await(PENDING);
+		this.datum = datum;
+		set(PUT);
+		unpark(consumer);
+		cons.activate(this);
+		interrupted |= await(UNREQUESTED);
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Input#get()
+	 */
+	public T get() {
+		set(GET);
+		unpark(producer);
+		prod.activate(this);
+		boolean interrupted = await(ABSENT);
+		T d = take();
+		prod.activate(this);
+		if (interrupted)
+			Thread.currentThread().interrupt();
+		return d;
+	}
+
+	/**
+	 * Atomically sets the given bits in the state word.
+	 *
+	 * @param bits
+	 *            bits to set
+	 */
+	private void set(int bits) {
+		int s;
+		do {
+			s = state;
+		} while (!STATE.compareAndSet(this, s, s | bits));
+	}
+
+	/**
+	 * Atomically clears the given bits in the state word.
+	 *
+	 * @param bits
+	 *            bits to clear
+	 */
+	private void clear(int bits) {
+		int s;
+		do {
+			s = state;
+		} while (!STATE.compareAndSet(this, s, s & ~bits));
+	}
+
+	/**
+	 * Checks whether the current thread must block on a given condition.
+	 *
+	 * @param condition
+	 *            one of PENDING, UNREQUESTED, or ABSENT
+	 * @return true, if the current thread must block.
+	 */
+	private boolean blocks(int condition) {
+		int s = state;
+		switch (condition) {
+		case PENDING:
+			return (s & PUT) != 0;
+		case UNREQUESTED:
+			return s == PUT;
+		default:
+			return (s & PUT) == 0;
+		}
+	}
+
+	/**
+	 * Blocks the current thread while a given condition holds. The thread
+	 * first spins, and then parks. Producers wait on the conditions PENDING
+	 * and UNREQUESTED, and consumers wait on the condition ABSENT.
+	 *
+	 * @param condition
+	 *            one of PENDING, UNREQUESTED, or ABSENT
+	 * @return true, if the current thread has been interrupted while waiting.
+	 */
+	private boolean await(int condition) {
+		if (!blocks(condition))
+			return false;
+
+		int n = spins;
+		for (int i = 0; i < n; i++) {
+			if (!blocks(condition)) {
+				if (n < MAX_SPINS)
+					spins = n << 1;
+				return false;
+			}
+		}
+		if (n > MIN_SPINS)
+			spins = n >> 1;
+
+		boolean interrupted = false;
+		boolean isProducer = condition != ABSENT;
+		if (isProducer)
+			producer = Thread.currentThread();
+		else
+			consumer = Thread.currentThread();
+		while (blocks(condition)) {
+			LockSupport.park(this);
+			interrupted |= Thread.interrupted();
+		}
+		if (isProducer)
+			producer = null;
+		else
+			consumer = null;
+		return interrupted;
+	}
+
+	/**
+	 * Unparks a thread, if it exists.
+	 *
+	 * @param t
+	 *            thread
+	 */
+	private static void unpark(Thread t) {
+		if (t != null)
+			LockSupport.unpark(t);
+	}
+}
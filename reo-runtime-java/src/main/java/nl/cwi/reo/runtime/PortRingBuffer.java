@@ -103,14 +103,14 @@ public class PortRingBuffer<T> implements Port<T> {
 	 * @see nl.cwi.reo.runtime.Port#activateProducer()
 	 */
 	public void activateProducer() {
-		prod.activate();
+		prod.activate(this);
 	}
 
 	/* (non-Javadoc)
 	 * @see nl.cwi.reo.runtime.Port#activateConsumer()
 	 */
 	public void activateConsumer() {
-		cons.activate();
+		cons.activate(this);
 	}
 
 	/* (non-Javadoc)
@@ -118,7 +118,7 @@ public class PortRingBuffer<T> implements Port<T> {
 	 */
 	public void put(T datum) {
 		setPut(datum);
-		cons.activate();
+		cons.activate(this);
 		int n;
 		while (tail == ((n = head + 1) == put.length ? 0 : n)) {
 		}
@@ -132,7 +132,7 @@ public class PortRingBuffer<T> implements Port<T> {
 		int n;
 		if (tail == ((n = head + 1) == put.length ? 0 : n)) {
 			datum = take();
-			prod.activate();
+			prod.activate(this);
 		} else {
 			while (head == tail) {
 			}
@@ -0,0 +1,372 @@
+package nl.cwi.reo.runtime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A port whose producer and consumer may run in different processes on the
+ * same host. Both processes construct this port on the same file, which they
+ * map into memory. The file holds a single-producer single-consumer ring
+ * buffer of serialized data, and three counters: the number of data put, the
+ * number of data taken, and the number of data requested by the consumer.
+ * Each counter is written by one side only.
+ *
+ * Like a put on {@link PortWaitNotify}, a put returns only once the consumer
+ * requested or took its datum. The ring buffer holds at most capacity data
+ * that are put but not yet taken, and a put also waits while it is full.
+ *
+ * A process sets only its own components as producer or consumer. Since a
+ * process cannot notify a thread in another process, a daemon thread polls
+ * the counters and activates the local component whenever the other side
+ * makes progress. Blocked puts and gets poll as well, first by spinning and
+ * then by parking for increasing periods.
+ *
+ * The counters are never reset. Hence, a file that is reused by a later run
+ * still describes a consistent ring buffer, but any data left in it are
+ * delivered again. Remove the file to discard them.
+ *
+ * The runtime library is compiled for Java 8, which offers no ordered access
+ * to mapped memory. Accesses to the file are therefore ordered by a write
+ * followed by a read of a volatile field, which no access to the file may
+ * cross: such a pair follows every read of a counter, and precedes every
+ * write of a counter.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public class PortSharedMemory<T> implements Port<T>, Closeable {
+
+	/** Offset of the number of data put. */
+	private static final int PUTS = 0;
+
+	/** Offset of the number of data taken. */
+	private static final int TAKES = 64;
+
+	/** Offset of the number of data requested. */
+	private static final int GETS = 128;
+
+	/** Offset of the first slot. */
+	private static final int DATA = 192;
+
+	/** Number of polls that spin before a poll parks. */
+	private static final int SPINS = 1 << 8;
+
+	/** Minimum period, in nanoseconds, of a parked poll. */
+	private static final long MIN_PARK = 1000;
+
+	/** Maximum period, in nanoseconds, of a parked poll. */
+	private static final long MAX_PARK = 200 * 1000;
+
+	/** The prod. */
+	private Component prod;
+
+	/** The cons. */
+	private Component cons;
+
+	/** The file. */
+	private final Path file;
+
+	/** The channel of the file. */
+	private final FileChannel channel;
+
+	/** The mapped file. */
+	private final MappedByteBuffer buffer;
+
+	/** The serializer of the data. */
+	private final Serializer<T> serializer;
+
+	/** Maximum number of data in the ring buffer. */
+	private final int capacity;
+
+	/** Maximum number of bytes of a serialized datum. */
+	private final int slot;
+
+	/** Distance, in bytes, between two slots. */
+	private final int stride;
+
+	/** Field whose accesses order the accesses to the mapped file. */
+	private volatile int fence;
+
+	/** Most recently read datum. */
+	private T cached;
+
+	/** Index of the most recently read datum, or -1. */
+	private long index = -1;
+
+	/** Thread that activates local components, if started. */
+	private Thread watcher;
+
+	/**
+	 * Instantiates a new shared memory port. The file is created, if it does
+	 * not exist.
+	 *
+	 * @param file
+	 *            the file that is shared by the producer and the consumer
+	 * @param capacity
+	 *            maximum number of data in transit
+	 * @param slot
+	 *            maximum number of bytes of a serialized datum
+	 * @param serializer
+	 *            the serializer of the data
+	 * @throws IOException
+	 *             if the file cannot be mapped
+	 */
+	public PortSharedMemory(Path file, int capacity, int slot, Serializer<T> serializer) throws IOException {
+		if (capacity <= 0 || slot <= 0)
+			throw new IllegalArgumentException();
+		this.file = file;
+		this.capacity = capacity;
+		this.slot = slot;
+		this.stride = (4 + slot + 7) & ~7;
+		this.serializer = serializer;
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, DATA + (long) capacity * stride);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setProducer(nl.cwi.reo.runtime.Component)
+	 */
+	public void setProducer(Component p) {
+		prod = p;
+		watch();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setConsumer(nl.cwi.reo.runtime.Component)
+	 */
+	public void setConsumer(Component c) {
+		cons = c;
+		watch();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setPut(java.lang.Object)
+	 */
+	public void setPut(T datum) {
+		long n = read(PUTS);
+		int offset = DATA + (int) (n % capacity) * stride;
+		ByteBuffer b = buffer.duplicate();
+		b.limit(offset + 4 + slot);
+		b.position(offset + 4);
+		try {
+			serializer.write(datum, b);
+		} catch (BufferOverflowException e) {
+			throw new IllegalArgumentException("Serialized datum exceeds " + slot + " bytes.");
+		}
+		buffer.putInt(offset, b.position() - offset - 4);
+		write(PUTS, n + 1);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setGet()
+	 */
+	public void setGet() {
+		long n = read(TAKES);
+		if (read(GETS) <= n)
+			write(GETS, n + 1);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#hasGet()
+	 */
+	public boolean hasGet() {
+		return read(GETS) > read(PUTS);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#hasPut()
+	 */
+	public T hasPut() {
+		return peek();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#peek()
+	 */
+	public T peek() {
+		long n = read(TAKES);
+		if (read(PUTS) <= n)
+			return null;
+		if (index != n) {
+			int offset = DATA + (int) (n % capacity) * stride;
+			ByteBuffer b = buffer.duplicate();
+			b.limit(offset + 4 + buffer.getInt(offset));
+			b.position(offset + 4);
+			cached = serializer.read(b.slice());
+			index = n;
+		}
+		return cached;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#take()
+	 */
+	public T take() {
+		T datum = peek();
+		if (datum != null) {
+			cached = null;
+			write(TAKES, index + 1);
+		}
+		return datum;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#activateProducer()
+	 */
+	public void activateProducer() {
+		Component p = prod;
+		if (p != null)
+			p.activate(this);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#activateConsumer()
+	 */
+	public void activateConsumer() {
+		Component c = cons;
+		if (c != null)
+			c.activate(this);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Output#put(java.lang.Object)
+	 */
+	public void put(T datum) {
+		if (datum == null)
+			throw new NullPointerException();
+		for (int k = 0; read(PUTS) - read(TAKES) >= capacity; k++)
+			backoff(k);
+		setPut(datum);
+		activateConsumer();
+		// Like PortWaitNotify, return once the datum is requested or taken.
+		long n = read(PUTS);
+		for (int k = 0; read(GETS) < n && read(TAKES) < n; k++)
+			backoff(k);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Input#get()
+	 */
+	public T get() {
+		setGet();
+		activateProducer();
+		T datum;
+		for (int k = 0; (datum = take()) == null; k++)
+			backoff(k);
+		activateProducer();
+		return datum;
+	}
+
+	/**
+	 * Stops activating local components, and closes the file. Data in transit
+	 * remain in the file.
+	 *
+	 * @throws IOException
+	 *             if the file cannot be closed
+	 */
+	public synchronized void close() throws IOException {
+		if (watcher != null)
+			watcher.interrupt();
+		watcher = null;
+		channel.close();
+	}
+
+	/**
+	 * Reads a counter from the file, before all subsequent reads from the
+	 * file.
+	 *
+	 * @param offset
+	 *            offset of the counter
+	 * @return the value of the counter.
+	 */
+	private long read(int offset) {
+		long value = buffer.getLong(offset);
+		fence();
+		return value;
+	}
+
+	/**
+	 * Writes a counter to the file, after all preceding writes to the file.
+	 *
+	 * @param offset
+	 *            offset of the counter
+	 * @param value
+	 *            new value of the counter
+	 */
+	private void write(int offset, long value) {
+		fence();
+		buffer.putLong(offset, value);
+	}
+
+	/**
+	 * Orders all preceding accesses to the file before all subsequent
+	 * accesses. No access may move after the volatile write, the volatile
+	 * read may not move before the volatile write, and no access may move
+	 * before the volatile read.
+	 */
+	@SuppressWarnings("unused")
+	private void fence() {
+		fence = 0;
+		int f = fence;
+	}
+
+	/**
+	 * Waits before the next poll of a blocked put or get.
+	 *
+	 * @param k
+	 *            number of preceding polls
+	 */
+	private static void backoff(int k) {
+		if (k < SPINS)
+			return;
+		if (k < 2 * SPINS) {
+			Thread.yield();
+			return;
+		}
+		int e = Math.min(k - 2 * SPINS, 8);
+		LockSupport.parkNanos(Math.min(MIN_PARK << e, MAX_PARK));
+	}
+
+	/**
+	 * Starts the thread that activates local components, if it is not started
+	 * yet.
+	 */
+	private synchronized void watch() {
+		if (watcher != null)
+			return;
+		watcher = new Thread(new Runnable() {
+			public void run() {
+				long puts = -1;
+				long progress = -1;
+				int k = 0;
+				while (!Thread.currentThread().isInterrupted()) {
+					long p = read(PUTS);
+					long q = read(TAKES) + read(GETS);
+					boolean changed = false;
+					if (p != puts) {
+						puts = p;
+						activateConsumer();
+						changed = true;
+					}
+					if (q != progress) {
+						progress = q;
+						activateProducer();
+						changed = true;
+					}
+					k = changed ? 0 : k + 1;
+					backoff(k);
+				}
+			}
+		}, "reo-shm-" + file.getFileName());
+		watcher.setDaemon(true);
+		watcher.start();
+	}
+}
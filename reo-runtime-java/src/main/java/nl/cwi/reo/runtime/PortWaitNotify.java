@@ -1,5 +1,7 @@
 package nl.cwi.reo.runtime;
 
+import java.util.Collection;
+
 // TODO: Auto-generated Javadoc
 /**
  * The Class PortWaitNotify.
@@ -21,6 +23,35 @@ public class PortWaitNotify<T> implements Port<T> {
 	/** The get. */
 	private volatile boolean get;
 
+	/** Data offered via putAll that follow the current put, if any. */
+	private volatile Object[] batch;
+
+	/** Index in the batch of the datum that follows the current put. */
+	private int next;
+
+	/** Collection that receives the data of a pending drainTo, if any. */
+	private volatile Collection<? super T> sink;
+
+	/** Maximum number of data that the pending drainTo accepts. */
+	private int limit;
+
+	/** Number of data delivered to the pending drainTo. */
+	private volatile int count;
+
+	/**
+	 * Indicates that a drainTo returned while its request was still open.
+	 * 
+	 * The producer calls hasGet and put without holding a lock, so it may
+	 * have committed to a put for the request that drainTo withdraws. Since
+	 * drainTo clears get before it sets this flag, and the producer calls
+	 * hasGet before every put, at most one put is in flight once this flag
+	 * is set. That put clears the flag in deliver and keeps its datum for
+	 * the next get or drainTo, without waiting for the consumer. A get or
+	 * drainTo clears the flag, because a racing put then serves its new
+	 * request.
+	 */
+	private volatile boolean closed;
+
 	/* (non-Javadoc)
 	 * @see nl.cwi.reo.runtime.Port#setProducer(nl.cwi.reo.runtime.Component)
 	 */
@@ -84,14 +115,14 @@ public class PortWaitNotify<T> implements Port<T> {
 	 * @see nl.cwi.reo.runtime.Port#activateProducer()
 	 */
 	public void activateProducer() {
-		prod.activate();
+		prod.activate(this);
 	}
 
 	/* (non-Javadoc)
 	 * @see nl.cwi.reo.runtime.Port#activateConsumer()
 	 */
 	public void activateConsumer() {
-		cons.activate();
+		cons.activate(this);
 	}
 
 	/* (non-Javadoc)
@@ -100,10 +131,12 @@ public class PortWaitNotify<T> implements Port<T> {
 	public void put(T datum) {
 		if (datum == null)
 			throw new NullPointerException();
+		if ((sink != null || closed) && deliver(datum))
+			return;
 		while (put != null) {
 		}
 		put = datum;
-		cons.activate();
+		cons.activate(this);
 		if (!get && put != null)
 			synchronized (prod) {
 				while (!get && put != null)
@@ -119,20 +152,158 @@ public class PortWaitNotify<T> implements Port<T> {
 	 * @see nl.cwi.reo.runtime.Input#get()
 	 */
 	public T get() {
-		get = true;
-		prod.activate();
-		if (put == null)
+		closed = false;
+		T datum = put;
+		if (datum == null || batch == null) {
+			get = true;
+			prod.activate(this);
+			if (put == null)
+				synchronized (cons) {
+					while (put == null)
+						try {
+							cons.wait();
+						} catch (InterruptedException e) {
+						}
+				}
+			datum = put;
+		}
+		advance();
+		return datum;
+	}
+
+	/**
+	 * Offers an array of data to this port. The consumer takes the data one
+	 * by one, but the producer is activated only after the last datum is
+	 * taken. Hence, a protocol can fire the same transition for every datum
+	 * without waiting for the producer.
+	 * 
+	 * @param data
+	 *            offered data
+	 */
+	public void putAll(T[] data) {
+		for (T datum : data)
+			if (datum == null)
+				throw new NullPointerException();
+		if (data.length == 0)
+			return;
+		while (put != null) {
+		}
+		next = 1;
+		batch = data;
+		put = data[0];
+		cons.activate(this);
+		if (batch != null)
+			synchronized (prod) {
+				while (batch != null)
+					try {
+						prod.wait();
+					} catch (InterruptedException e) {
+					}
+			}
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Output#putAll(java.util.Collection)
+	 */
+	@SuppressWarnings("unchecked")
+	public void putAll(Collection<? extends T> data) {
+		putAll((T[]) data.toArray());
+	}
+
+	/**
+	 * Retrieves a batch of data from this port. This method opens a request
+	 * that the producer can serve repeatedly, without waiting for the
+	 * consumer. The request is closed as soon as the consumer observes that
+	 * at least one datum is delivered, or if max data are delivered.
+	 * 
+	 * @param c
+	 *            collection that receives the data
+	 * @param max
+	 *            maximum number of data to retrieve
+	 * @return number of retrieved data.
+	 */
+	public int drainTo(Collection<? super T> c, int max) {
+		if (max <= 0)
+			return 0;
+		if (put != null || max == 1) {
+			c.add(get());
+			return 1;
+		}
+		synchronized (this) {
+			closed = false;
+			count = 0;
+			limit = max;
+			sink = c;
+			get = true;
+		}
+		prod.activate(this);
+		if (count == 0)
 			synchronized (cons) {
-				while (put == null)
+				while (count == 0)
 					try {
 						cons.wait();
 					} catch (InterruptedException e) {
 					}
 			}
-		T datum = put;
+		int n;
+		synchronized (this) {
+			n = count;
+			// Set closed before sink is cleared, since put reads both fields
+			// without lock: a put that finds no sink then finds closed set.
+			if (get) {
+				get = false;
+				closed = true;
+			}
+			sink = null;
+		}
+		return n;
+	}
+
+	/**
+	 * Removes the current put, and replaces it by the next datum of the
+	 * pending batch, if any. The producer is activated only if no datum
+	 * remains.
+	 */
+	@SuppressWarnings("unchecked")
+	private void advance() {
+		Object[] b = batch;
+		if (b != null) {
+			if (next < b.length) {
+				put = (T) b[next++];
+				return;
+			}
+			batch = null;
+		}
 		put = null;
 		get = false;
-		prod.activate();
-		return datum;
+		prod.activate(this);
+	}
+
+	/**
+	 * Delivers a datum to a pending drainTo, or keeps a datum that was
+	 * committed to a drainTo that has just returned.
+	 * 
+	 * @param datum
+	 *            datum
+	 * @return true, if the datum is delivered or kept.
+	 */
+	private synchronized boolean deliver(T datum) {
+		if (sink != null) {
+			sink.add(datum);
+			int n = count + 1;
+			if (n == limit)
+				get = false;
+			count = n;
+			if (n == 1 || n == limit)
+				cons.activate(this);
+			return true;
+		}
+		if (closed) {
+			closed = false;
+			put = datum;
+			cons.activate(this);
+			return true;
+		}
+		return false;
 	}
-}
\ No newline at end of file
+}
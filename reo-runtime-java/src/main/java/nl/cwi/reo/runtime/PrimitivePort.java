@@ -0,0 +1,299 @@
+package nl.cwi.reo.runtime;
+
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Synchronization protocol of the ports that transfer a primitive datum,
+ * without boxing. A subclass stores the offered datum in a field of a
+ * primitive type, and this class coordinates the producer and the consumer
+ * in the same way as {@link PortLockFree}: via a single state word that is
+ * updated by compare-and-set, adaptive spinning, and parking. Hence, these
+ * ports never acquire a monitor, and they can be used with platform threads
+ * as well as with virtual threads.
+ *
+ * The boxed methods of {@link Port} are still available for atomic
+ * components, but generated protocols use only the primitive methods of the
+ * subclasses, and test whether a datum is offered via {@link #hasDatum()}.
+ *
+ * @param <T>
+ *            the boxed type of the transferred datum
+ */
+public abstract class PrimitivePort<T> implements Port<T> {
+
+	/** State in which no put and no get is pending. */
+	private static final int EMPTY = 0;
+
+	/** Bit that indicates that a datum is offered. */
+	private static final int PUT = 1;
+
+	/** Bit that indicates that a datum is requested. */
+	private static final int GET = 2;
+
+	/** State in which an offered datum is committed to a pending get. */
+	private static final int TRANSFER = PUT | GET;
+
+	/** Producer condition: a previously offered datum is not yet taken. */
+	private static final int PENDING = 0;
+
+	/** Producer condition: the offered datum is not yet requested. */
+	private static final int UNREQUESTED = 1;
+
+	/** Consumer condition: no datum is offered. */
+	private static final int ABSENT = 2;
+
+	/** Maximum number of spin iterations before parking. */
+	private static final int MAX_SPINS = 1 << 10;
+
+	/** Minimum number of spin iterations before parking. */
+	private static final int MIN_SPINS = 1 << 4;
+
+	/** Atomic updater of the state word. */
+	@SuppressWarnings("rawtypes")
+	private static final AtomicIntegerFieldUpdater<PrimitivePort> STATE = AtomicIntegerFieldUpdater
+			.newUpdater(PrimitivePort.class, "state");
+
+	/** The prod. */
+	private Component prod;
+
+	/** The cons. */
+	private Component cons;
+
+	/** The state word: a combination of the PUT and GET bits. */
+	private volatile int state = EMPTY;
+
+	/** Thread that is parked in a put, if any. */
+	private volatile Thread producer;
+
+	/** Thread that is parked in a get, if any. */
+	private volatile Thread consumer;
+
+	/**
+	 * Current spin budget, which is shared (unsynchronized) by both sides.
+	 */
+	private int spins = MIN_SPINS;
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setProducer(nl.cwi.reo.runtime.Component)
+	 */
+	public void setProducer(Component p) {
+		prod = p;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setConsumer(nl.cwi.reo.runtime.Component)
+	 */
+	public void setConsumer(Component c) {
+		cons = c;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#setGet()
+	 */
+	public void setGet() {
+		set(GET);
+		unpark(producer);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#hasGet()
+	 */
+	public boolean hasGet() {
+		return state == GET;
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#hasPut()
+	 */
+	public T hasPut() {
+		return peek();
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#activateProducer()
+	 */
+	public void activateProducer() {
+		prod.activate(this);
+	}
+
+	/* (non-Javadoc)
+	 * @see nl.cwi.reo.runtime.Port#activateConsumer()
+	 */
+	public void activateConsumer() {
+		cons.activate(this);
+	}
+
+	/**
+	 * Checks whether a datum is offered at this port. This method is the
+	 * primitive counterpart of peek() != null.
+	 *
+	 * @return true, if a datum is offered.
+	 */
+	public boolean hasDatum() {
+		return (state & PUT) != 0;
+	}
+
+	/**
+	 * Blocks until a previously offered datum is taken. The producer calls
+	 * this method before it stores a new datum.
+	 *
+	 * @return true, if the current thread has been interrupted while waiting.
+	 */
+	protected final boolean reserve() {
+		return await(PENDING);
+	}
+
+	/**
+	 * Offers the stored datum, and blocks until the consumer has requested
+	 * it.
+	 *
+	 * @param interrupted
+	 *            true, if the current thread has been interrupted in
+	 *            {@link #reserve()}
+	 */
+	protected final void offer(boolean interrupted) {
+		offered();
+		cons.activate(this);
+		interrupted |= await(UNREQUESTED);
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Marks the stored datum as offered, without blocking.
+	 */
+	protected final void offered() {
+		set(PUT);
+		unpark(consumer);
+	}
+
+	/**
+	 * Requests a datum, and blocks until a datum is offered.
+	 *
+	 * @return true, if the current thread has been interrupted while waiting.
+	 */
+	protected final boolean request() {
+		set(GET);
+		unpark(producer);
+		prod.activate(this);
+		return await(ABSENT);
+	}
+
+	/**
+	 * Completes a get, after the consumer has read the stored datum.
+	 *
+	 * @param interrupted
+	 *            true, if the current thread has been interrupted in
+	 *            {@link #request()}
+	 */
+	protected final void release(boolean interrupted) {
+		taken();
+		prod.activate(this);
+		if (interrupted)
+			Thread.currentThread().interrupt();
+	}
+
+	/**
+	 * Marks the stored datum as taken, without activating the producer.
+	 */
+	protected final void taken() {
+		clear(TRANSFER);
+		unpark(producer);
+	}
+
+	/**
+	 * Atomically sets the given bits in the state word.
+	 *
+	 * @param bits
+	 *            bits to set
+	 */
+	private void set(int bits) {
+		int s;
+		do {
+			s = state;
+		} while (!STATE.compareAndSet(this, s, s | bits));
+	}
+
+	/**
+	 * Atomically clears the given bits in the state word.
+	 *
+	 * @param bits
+	 *            bits to clear
+	 */
+	private void clear(int bits) {
+		int s;
+		do {
+			s = state;
+		} while (!STATE.compareAndSet(this, s, s & ~bits));
+	}
+
+	/**
+	 * Checks whether the current thread must block on a given condition.
+	 *
+	 * @param condition
+	 *            one of PENDING, UNREQUESTED, or ABSENT
+	 * @return true, if the current thread must block.
+	 */
+	private boolean blocks(int condition) {
+		int s = state;
+		switch (condition) {
+		case PENDING:
+			return (s & PUT) != 0;
+		case UNREQUESTED:
+			return s == PUT;
+		default:
+			return (s & PUT) == 0;
+		}
+	}
+
+	/**
+	 * Blocks the current thread while a given condition holds. The thread
+	 * first spins, and then parks.
+	 *
+	 * @param condition
+	 *            one of PENDING, UNREQUESTED, or ABSENT
+	 * @return true, if the current thread has been interrupted while waiting.
+	 */
+	private boolean await(int condition) {
+		if (!blocks(condition))
+			return false;
+
+		int n = spins;
+		for (int i = 0; i < n; i++) {
+			if (!blocks(condition)) {
+				if (n < MAX_SPINS)
+					spins = n << 1;
+				return false;
+			}
+		}
+		if (n > MIN_SPINS)
+			spins = n >> 1;
+
+		boolean interrupted = false;
+		boolean isProducer = condition != ABSENT;
+		if (isProducer)
+			producer = Thread.currentThread();
+		else
+			consumer = Thread.currentThread();
+		while (blocks(condition)) {
+			LockSupport.park(this);
+			interrupted |= Thread.interrupted();
+		}
+		if (isProducer)
+			producer = null;
+		else
+			consumer = null;
+		return interrupted;
+	}
+
+	/**
+	 * Unparks a thread, if it exists.
+	 *
+	 * @param t
+	 *            thread
+	 */
+	private static void unpark(Thread t) {
+		if (t != null)
+			LockSupport.unpark(t);
+	}
+}
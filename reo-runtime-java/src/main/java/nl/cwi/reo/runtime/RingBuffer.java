@@ -0,0 +1,136 @@
+package nl.cwi.reo.runtime;
+
+/**
+ * A bounded first-in-first-out buffer that is stored in a single memory cell
+ * of a generated protocol. The compiler replaces a chain of fifo1 channels by
+ * one such buffer, which enqueues and dequeues in constant time.
+ *
+ * The static methods below are called from generated guards and commands,
+ * which treat memory cells as values and may evaluate a term more than once.
+ * Therefore, a buffer is a view on a shared array that is never modified
+ * within this view: {@link #enqueue} writes only to the free slot behind the
+ * view, and both {@link #enqueue} and {@link #dequeue} return a new view. A
+ * dequeued item remains referenced by the array until its slot is reused.
+ *
+ * Buffers are not thread safe, since only the protocol that owns the memory
+ * cell accesses them.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public final class RingBuffer<T> {
+
+	/** The array that is shared by all views of this buffer. */
+	private final Object[] items;
+
+	/** The index of the oldest item. */
+	private final int head;
+
+	/** The number of stored items. */
+	private final int size;
+
+	/**
+	 * Constructs a new view on an array.
+	 *
+	 * @param items
+	 *            array of items
+	 * @param head
+	 *            index of the oldest item
+	 * @param size
+	 *            number of items
+	 */
+	private RingBuffer(Object[] items, int head, int size) {
+		this.items = items;
+		this.head = head;
+		this.size = size;
+	}
+
+	/**
+	 * Allocates a new empty buffer.
+	 *
+	 * @param <T>
+	 *            the generic type
+	 * @param capacity
+	 *            maximum number of items
+	 * @return a new empty buffer.
+	 */
+	public static <T> RingBuffer<T> allocate(int capacity) {
+		if (capacity <= 0)
+			throw new IllegalArgumentException();
+		return new RingBuffer<T>(new Object[capacity], 0, 0);
+	}
+
+	/**
+	 * Checks whether a buffer can accept another item.
+	 *
+	 * @param q
+	 *            buffer
+	 * @return true, if buffer q is not full.
+	 */
+	public static boolean hasSpace(RingBuffer<?> q) {
+		return q.size < q.items.length;
+	}
+
+	/**
+	 * Checks whether a buffer contains an item.
+	 *
+	 * @param q
+	 *            buffer
+	 * @return true, if buffer q is not empty.
+	 */
+	public static boolean hasData(RingBuffer<?> q) {
+		return q.size > 0;
+	}
+
+	/**
+	 * Appends an item to a buffer.
+	 *
+	 * @param <T>
+	 *            the generic type
+	 * @param q
+	 *            buffer
+	 * @param datum
+	 *            item
+	 * @return buffer q followed by the given item, or buffer q itself if it is
+	 *         full.
+	 */
+	public static <T> RingBuffer<T> enqueue(RingBuffer<T> q, T datum) {
+		int n = q.items.length;
+		if (q.size == n)
+			return q;
+		int tail = q.head + q.size;
+		q.items[tail < n ? tail : tail - n] = datum;
+		return new RingBuffer<T>(q.items, q.head, q.size + 1);
+	}
+
+	/**
+	 * Gets the oldest item of a buffer.
+	 *
+	 * @param <T>
+	 *            the generic type
+	 * @param q
+	 *            buffer
+	 * @return the oldest item, or null if buffer q is empty.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> T peek(RingBuffer<T> q) {
+		return q.size > 0 ? (T) q.items[q.head] : null;
+	}
+
+	/**
+	 * Removes the oldest item from a buffer.
+	 *
+	 * @param <T>
+	 *            the generic type
+	 * @param q
+	 *            buffer
+	 * @return buffer q without its oldest item, or buffer q itself if it is
+	 *         empty.
+	 */
+	public static <T> RingBuffer<T> dequeue(RingBuffer<T> q) {
+		if (q.size == 0)
+			return q;
+		int next = q.head + 1;
+		return new RingBuffer<T>(q.items, next < q.items.length ? next : 0, q.size - 1);
+	}
+}
@@ -0,0 +1,35 @@
+package nl.cwi.reo.runtime;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Converts data to and from bytes, so that they can cross a process boundary
+ * via a {@link PortSharedMemory}.
+ *
+ * @param <T>
+ *            the generic type
+ */
+public interface Serializer<T> {
+
+	/**
+	 * Writes a datum to a buffer, starting at the position of the buffer.
+	 *
+	 * @param datum
+	 *            non-null datum
+	 * @param buffer
+	 *            buffer whose remaining bytes may be written
+	 * @throws java.nio.BufferOverflowException
+	 *             if the datum does not fit in the remaining bytes
+	 */
+	public void write(T datum, ByteBuffer buffer);
+
+	/**
+	 * Reads a datum from a buffer.
+	 *
+	 * @param buffer
+	 *            buffer whose remaining bytes are exactly those written by
+	 *            {@link #write}
+	 * @return the datum.
+	 */
+	public T read(ByteBuffer buffer);
+}
@@ -0,0 +1,88 @@
+package nl.cwi.reo.runtime;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Creates the shared memory ports of a generated program, and selects the
+ * components that run in the current process.
+ *
+ * A generated program with shared memory ports may run in several processes
+ * at once. Each process runs the components that are listed in the system
+ * property reo.components (comma separated), or all components if this
+ * property is not set. The other properties are:
+ *
+ * <ul>
+ * <li>reo.shm.dir: directory of the shared files (default java.io.tmpdir);
+ * <li>reo.shm.capacity: number of data per port that are put but not yet
+ * taken (default 1);
+ * <li>reo.shm.slot: maximum size of a serialized datum in bytes (default
+ * 4096);
+ * <li>reo.shm.serializer: class name of the {@link Serializer} (default
+ * {@link JavaSerializer}).
+ * </ul>
+ *
+ * All processes must use the same capacity, slot size and serializer.
+ */
+public final class SharedMemory {
+
+	/** Names of the components that run in this process, or null for all. */
+	private static final Set<String> LOCAL;
+
+	static {
+		String s = System.getProperty("reo.components");
+		LOCAL = s == null ? null : new HashSet<String>(Arrays.asList(s.trim().split("\\s*,\\s*")));
+	}
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private SharedMemory() {
+	}
+
+	/**
+	 * Checks whether a component runs in this process.
+	 *
+	 * @param component
+	 *            name of the component
+	 * @return true, if the component runs in this process.
+	 */
+	public static boolean isLocal(String component) {
+		return LOCAL == null || LOCAL.contains(component);
+	}
+
+	/**
+	 * Creates a new shared memory port, as configured by the system
+	 * properties.
+	 *
+	 * @param <T>
+	 *            the generic type
+	 * @param name
+	 *            name of the port, which is unique on this host
+	 * @return a new shared memory port.
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> PortSharedMemory<T> port(String name) {
+		Path dir = Paths.get(System.getProperty("reo.shm.dir", System.getProperty("java.io.tmpdir")));
+		int capacity = Integer.getInteger("reo.shm.capacity", 1);
+		int slot = Integer.getInteger("reo.shm.slot", 4096);
+		String s = System.getProperty("reo.shm.serializer");
+		Serializer<T> serializer;
+		try {
+			serializer = s == null ? new JavaSerializer<T>()
+					: (Serializer<T>) Class.forName(s).getDeclaredConstructor().newInstance();
+		} catch (ReflectiveOperationException | ClassCastException e) {
+			throw new IllegalArgumentException("Cannot instantiate serializer " + s + ".", e);
+		}
+		try {
+			return new PortSharedMemory<T>(dir.resolve(name + ".shm"), capacity, slot, serializer);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package nl.cwi.reo.runtime;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+/**
+ * Creates the threads that run the components of a generated program in
+ * virtual thread mode.
+ *
+ * On a Java runtime that supports virtual threads (Java 21 and later), every
+ * component runs in its own virtual thread. Virtual threads are scheduled on
+ * a bounded pool of carrier threads, whose size is set by the system property
+ * jdk.virtualThreadScheduler.parallelism. A virtual thread releases its
+ * carrier whenever it parks, which is why generated code in this mode blocks
+ * only via {@link java.util.concurrent.locks.LockSupport}, and never by
+ * waiting on a monitor.
+ *
+ * The runtime library itself is compiled for Java 8, so virtual threads are
+ * looked up reflectively. On older Java runtimes, components run in platform
+ * threads with a small stack instead.
+ */
+public final class Threads {
+
+	/** Stack size, in bytes, of platform threads that replace virtual threads. */
+	private static final long STACK_SIZE = 256 * 1024;
+
+	/** Thread.ofVirtual(), or null if virtual threads are not supported. */
+	private static final MethodHandle OF_VIRTUAL;
+
+	/** Thread.Builder.unstarted(Runnable), or null if not supported. */
+	private static final MethodHandle UNSTARTED;
+
+	static {
+		MethodHandle ofVirtual = null;
+		MethodHandle unstarted = null;
+		try {
+			Class<?> builder = Class.forName("java.lang.Thread$Builder");
+			MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+			ofVirtual = lookup.findStatic(Thread.class, "ofVirtual",
+					MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual")));
+			unstarted = lookup.findVirtual(builder, "unstarted", MethodType.methodType(Thread.class, Runnable.class));
+		} catch (ReflectiveOperationException e) {
+			ofVirtual = null;
+			unstarted = null;
+		}
+		OF_VIRTUAL = ofVirtual;
+		UNSTARTED = unstarted;
+	}
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private Threads() {
+	}
+
+	/**
+	 * Checks whether this Java runtime supports virtual threads.
+	 *
+	 * @return true, if {@link #newVirtualThread} returns virtual threads.
+	 */
+	public static boolean isVirtual() {
+		return UNSTARTED != null;
+	}
+
+	/**
+	 * Creates a new unstarted thread that runs a component. The thread is
+	 * virtual, if this Java runtime supports virtual threads, and otherwise it
+	 * is a platform thread with a small stack.
+	 *
+	 * @param c
+	 *            component
+	 * @return a new unstarted thread that runs component c.
+	 */
+	public static Thread newVirtualThread(Runnable c) {
+		if (UNSTARTED != null) {
+			try {
+				return (Thread) UNSTARTED.invoke(OF_VIRTUAL.invoke(), c);
+			} catch (RuntimeException | Error e) {
+				throw e;
+			} catch (Throwable e) {
+				throw new IllegalStateException(e);
+			}
+		}
+		return new Thread(null, c, c.getClass().getSimpleName(), STACK_SIZE);
+	}
+}
@@ -0,0 +1,98 @@
+package nl.cwi.reo.runtime;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts, for every transition of a protocol, how often its guard is
+ * evaluated and how often it fires. The counters are striped, so that
+ * counting is cheap even if several threads fire transitions of the same
+ * protocol.
+ */
+public final class TransitionCounters {
+
+	/** Number of guard evaluations of every transition. */
+	private final LongAdder[] guards;
+
+	/** Number of firings of every transition. */
+	private final LongAdder[] fires;
+
+	/**
+	 * Constructs counters for a number of transitions.
+	 *
+	 * @param n
+	 *            number of transitions
+	 */
+	TransitionCounters(int n) {
+		this.guards = new LongAdder[n];
+		this.fires = new LongAdder[n];
+		for (int i = 0; i < n; i++) {
+			guards[i] = new LongAdder();
+			fires[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * Counts a guard evaluation.
+	 *
+	 * @param i
+	 *            index of the transition
+	 * @param result
+	 *            value of the guard
+	 * @return the value of the guard.
+	 */
+	public boolean guard(int i, boolean result) {
+		guards[i].increment();
+		return result;
+	}
+
+	/**
+	 * Counts a firing.
+	 *
+	 * @param i
+	 *            index of the transition
+	 */
+	public void fire(int i) {
+		fires[i].increment();
+	}
+
+	/**
+	 * Gets the number of transitions.
+	 *
+	 * @return number of transitions.
+	 */
+	public int size() {
+		return fires.length;
+	}
+
+	/**
+	 * Gets the number of guard evaluations of a transition.
+	 *
+	 * @param i
+	 *            index of the transition
+	 * @return number of guard evaluations.
+	 */
+	public long getGuards(int i) {
+		return guards[i].sum();
+	}
+
+	/**
+	 * Gets the number of firings of a transition.
+	 *
+	 * @param i
+	 *            index of the transition
+	 * @return number of firings.
+	 */
+	public long getFires(int i) {
+		return fires[i].sum();
+	}
+
+	/**
+	 * Clears all counters.
+	 */
+	public void reset() {
+		for (int i = 0; i < fires.length; i++) {
+			guards[i].reset();
+			fires[i].reset();
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package nl.cwi.reo.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+/**
+ * Tests of PortSharedMemory.
+ */
+public class PortSharedMemoryTest {
+
+	/** Number of data sent from one process to the other. */
+	private static final int N = 1000;
+
+	/**
+	 * Puts N data on a shared memory port in a separate process.
+	 *
+	 * @param args
+	 *            path of the shared file
+	 * @throws Exception
+	 *             if the port fails
+	 */
+	public static void main(String[] args) throws Exception {
+		try (PortSharedMemory<String> p = new PortSharedMemory<>(Paths.get(args[0]), 4, 256,
+				new JavaSerializer<String>())) {
+			for (int i = 0; i < N; i++)
+				p.put("datum" + i);
+		}
+	}
+
+	/**
+	 * Transfers data between two JVMs.
+	 *
+	 * @throws Exception
+	 *             if the port or the producer process fails
+	 */
+	@Test
+	public void twoProcesses() throws Exception {
+		Path file = Files.createTempFile("reo", ".shm");
+		String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+		Process producer = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+				PortSharedMemoryTest.class.getName(), file.toString()).inheritIO().start();
+		try (PortSharedMemory<String> p = new PortSharedMemory<>(file, 4, 256, new JavaSerializer<String>())) {
+			for (int i = 0; i < N; i++)
+				assertEquals("datum" + i, p.get());
+			assertTrue(producer.waitFor(30, TimeUnit.SECONDS));
+			assertEquals(0, producer.exitValue());
+		} finally {
+			producer.destroy();
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * Checks the protocol side operations hasGet, peek and take.
+	 *
+	 * @throws Exception
+	 *             if the port fails
+	 */
+	@Test
+	public void protocolSide() throws Exception {
+		Path file = Files.createTempFile("reo", ".shm");
+		try (PortSharedMemory<Integer> out = new PortSharedMemory<>(file, 1, 128, new JavaSerializer<Integer>());
+				PortSharedMemory<Integer> in = new PortSharedMemory<>(file, 1, 128, new JavaSerializer<Integer>())) {
+			assertNull(in.peek());
+			assertTrue(!out.hasGet());
+			in.setGet();
+			assertTrue(out.hasGet());
+			out.setPut(42);
+			assertTrue(!out.hasGet());
+			assertEquals(Integer.valueOf(42), in.peek());
+			assertEquals(Integer.valueOf(42), in.take());
+			assertNull(in.peek());
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	/**
+	 * A put returns only once the consumer requested or took its datum.
+	 *
+	 * @throws Exception
+	 *             if the port fails
+	 */
+	@Test(timeout = 10000)
+	public void handshake() throws Exception {
+		Path file = Files.createTempFile("reo", ".shm");
+		try (final PortSharedMemory<Integer> out = new PortSharedMemory<>(file, 4, 128,
+				new JavaSerializer<Integer>());
+				PortSharedMemory<Integer> in = new PortSharedMemory<>(file, 4, 128, new JavaSerializer<Integer>())) {
+			Thread producer = new Thread(new Runnable() {
+				public void run() {
+					out.put(0);
+				}
+			});
+			producer.start();
+			producer.join(100);
+			assertTrue(producer.isAlive());
+			assertEquals(Integer.valueOf(0), in.take());
+			producer.join();
+
+			in.setGet();
+			out.put(1);
+			assertEquals(Integer.valueOf(1), in.take());
+			assertNull(in.take());
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package nl.cwi.reo.runtime;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests of PortWaitNotify.
+ */
+public class PortWaitNotifyTest {
+
+	/** Number of data sent in the stress test. */
+	private static final int N = 10000;
+
+	/**
+	 * A component that only wakes up the threads that wait for it.
+	 */
+	private static final class Waiter implements Component {
+
+		public void activate() {
+			synchronized (this) {
+				notifyAll();
+			}
+		}
+
+		public void run() {
+		}
+	}
+
+	/**
+	 * Constructs a port with a producer and a consumer.
+	 *
+	 * @return a new port.
+	 */
+	private static PortWaitNotify<Integer> newPort() {
+		PortWaitNotify<Integer> p = new PortWaitNotify<>();
+		p.setProducer(new Waiter());
+		p.setConsumer(new Waiter());
+		return p;
+	}
+
+	/**
+	 * Starts a thread.
+	 *
+	 * @param r
+	 *            body of the thread
+	 * @return the started thread.
+	 */
+	private static Thread start(Runnable r) {
+		Thread t = new Thread(r);
+		t.setDaemon(true);
+		t.start();
+		return t;
+	}
+
+	/**
+	 * Waits until a port has an open get request.
+	 *
+	 * @param p
+	 *            port
+	 */
+	private static void awaitGet(Port<?> p) {
+		while (!p.hasGet())
+			Thread.yield();
+	}
+
+	/**
+	 * Takes a batch of data one by one, and checks that putAll returns only
+	 * after the last datum is taken.
+	 *
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test(timeout = 10000)
+	public void putAll() throws InterruptedException {
+		final PortWaitNotify<Integer> p = newPort();
+		Thread producer = start(new Runnable() {
+			public void run() {
+				p.putAll(Arrays.asList(1, 2, 3));
+			}
+		});
+		for (int i = 1; i <= 3; i++)
+			assertEquals(Integer.valueOf(i), p.get());
+		producer.join();
+		assertNull(p.peek());
+	}
+
+	/**
+	 * Delivers several data to a single drainTo. The consumer cannot observe
+	 * the first datum before the last one is put, since the producer holds
+	 * the lock of the consumer.
+	 *
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test(timeout = 10000)
+	public void drainTo() throws InterruptedException {
+		final PortWaitNotify<Integer> p = new PortWaitNotify<>();
+		Waiter cons = new Waiter();
+		p.setProducer(new Waiter());
+		p.setConsumer(cons);
+		final List<Integer> list = new ArrayList<>();
+		final int[] n = new int[1];
+		Thread consumer = start(new Runnable() {
+			public void run() {
+				n[0] = p.drainTo(list, 3);
+			}
+		});
+		while (consumer.getState() != Thread.State.WAITING)
+			Thread.yield();
+		synchronized (cons) {
+			for (int i = 1; i <= 3; i++) {
+				assertTrue(p.hasGet());
+				p.put(i);
+			}
+		}
+		consumer.join();
+		assertTrue(!p.hasGet());
+		assertEquals(list.size(), n[0]);
+		assertEquals(Arrays.asList(1, 2, 3), list);
+	}
+
+	/**
+	 * Puts a datum for a drainTo that has returned already. The put does not
+	 * block, and the datum is kept for the next get.
+	 *
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test(timeout = 10000)
+	public void drainToClosesDuringPut() throws InterruptedException {
+		final PortWaitNotify<Integer> p = newPort();
+		final List<Integer> list = new ArrayList<>();
+		final int[] n = new int[1];
+		Thread consumer = start(new Runnable() {
+			public void run() {
+				n[0] = p.drainTo(list, 10);
+			}
+		});
+		awaitGet(p);
+		p.put(1);
+		consumer.join();
+		assertEquals(1, n[0]);
+		assertEquals(Arrays.asList(1), list);
+
+		// The producer observed the request before it was closed.
+		p.put(2);
+		assertEquals(Integer.valueOf(2), p.peek());
+		assertEquals(Integer.valueOf(2), p.get());
+	}
+
+	/**
+	 * Transfers data from a producer that, like a protocol, checks for a
+	 * request and only then puts, to a consumer that mixes get and drainTo.
+	 * The producer often waits between its check and its put until drainTo
+	 * withdraws the request, and the consumer does not always open the next
+	 * request right away. Every datum must arrive once and in order.
+	 *
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test(timeout = 60000)
+	public void drainToRacingPut() throws InterruptedException {
+		final PortWaitNotify<Integer> p = newPort();
+		Thread producer = start(new Runnable() {
+			public void run() {
+				Random r = new Random(1);
+				for (int i = 0; i < N; i++) {
+					awaitGet(p);
+					if (r.nextBoolean())
+						for (int k = 0; k < 100 && p.hasGet(); k++)
+							Thread.yield();
+					p.put(i);
+				}
+			}
+		});
+		Random r = new Random(2);
+		List<Integer> list = new ArrayList<>();
+		while (list.size() < N) {
+			if (r.nextBoolean())
+				Thread.yield();
+			if (r.nextInt(4) == 0)
+				list.add(p.get());
+			else
+				assertTrue(p.drainTo(list, Math.min(2 + r.nextInt(3), N - list.size())) > 0);
+		}
+		producer.join();
+		assertNull(p.peek());
+		for (int i = 0; i < N; i++)
+			assertEquals(Integer.valueOf(i), list.get(i));
+	}
+
+	/**
+	 * Transfers data from a producer that puts as long as a request is open
+	 * to a consumer that drains them in batches.
+	 *
+	 * @throws InterruptedException
+	 *             if the test is interrupted
+	 */
+	@Test(timeout = 60000)
+	public void drainToStress() throws InterruptedException {
+		final PortWaitNotify<Integer> p = newPort();
+		Thread producer = start(new Runnable() {
+			public void run() {
+				for (int i = 0; i < N; i++) {
+					awaitGet(p);
+					p.put(i);
+				}
+			}
+		});
+		List<Integer> list = new ArrayList<>();
+		while (list.size() < N)
+			assertTrue(p.drainTo(list, 16) > 0);
+		producer.join();
+		for (int i = 0; i < N; i++)
+			assertEquals(Integer.valueOf(i), list.get(i));
+	}
+}
@@ -0,0 +1,124 @@
+package nl.cwi.reo.graphgames;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Frozen copy of the adjacency lists of a {@link GameGraph} in compressed
+ * sparse row form. Vertices are numbered by their position in a given array,
+ * and the forward and reverse edges of every vertex are stored in consecutive
+ * ranges of primitive arrays.
+ */
+final class CsrGraph {
+
+	/** Vertices, ordered by their number. */
+	final Vertex[] vertices;
+
+	/** Owner of every vertex. */
+	final int[] owner;
+
+	/** Forward edges of vertex v are at positions outStart[v] to outStart[v + 1]. */
+	final int[] outStart;
+
+	/** Target of every forward edge. */
+	final int[] outTarget;
+
+	/** Weight of every forward edge. */
+	final int[] outWeight;
+
+	/** Time of every forward edge. */
+	final int[] outTime;
+
+	/** Reverse edges of vertex v are at positions inStart[v] to inStart[v + 1]. */
+	final int[] inStart;
+
+	/** Source of every reverse edge. */
+	final int[] inSource;
+
+	/** Weight of every reverse edge. */
+	final int[] inWeight;
+
+	/** Time of every reverse edge. */
+	final int[] inTime;
+
+	/** Number of every vertex. */
+	private final Map<Vertex, Integer> index;
+
+	/**
+	 * Freezes adjacency lists. An edge in the list of vertex v is a forward
+	 * edge of v if v is its source, and a reverse edge of v if v is its
+	 * target.
+	 *
+	 * @param vertices
+	 *            all vertices of the graph
+	 * @param adjc
+	 *            adjacency list of every vertex
+	 */
+	CsrGraph(Vertex[] vertices, Map<Vertex, Set<Edge>> adjc) {
+		int n = vertices.length;
+		this.vertices = vertices;
+		this.owner = new int[n];
+		this.index = new HashMap<Vertex, Integer>(2 * n);
+		for (int v = 0; v < n; v++) {
+			owner[v] = vertices[v].owner;
+			index.put(vertices[v], v);
+		}
+
+		this.outStart = new int[n + 1];
+		this.inStart = new int[n + 1];
+		for (int v = 0; v < n; v++) {
+			outStart[v + 1] = outStart[v];
+			inStart[v + 1] = inStart[v];
+			for (Edge e : adjc.get(vertices[v])) {
+				if (vertices[v].equals(e.source))
+					outStart[v + 1]++;
+				if (vertices[v].equals(e.target))
+					inStart[v + 1]++;
+			}
+		}
+
+		this.outTarget = new int[outStart[n]];
+		this.outWeight = new int[outStart[n]];
+		this.outTime = new int[outStart[n]];
+		this.inSource = new int[inStart[n]];
+		this.inWeight = new int[inStart[n]];
+		this.inTime = new int[inStart[n]];
+		for (int v = 0; v < n; v++) {
+			int i = outStart[v];
+			int j = inStart[v];
+			for (Edge e : adjc.get(vertices[v])) {
+				if (vertices[v].equals(e.source)) {
+					outTarget[i] = index.get(e.target);
+					outWeight[i] = e.weight;
+					outTime[i++] = e.time;
+				}
+				if (vertices[v].equals(e.target)) {
+					inSource[j] = index.get(e.source);
+					inWeight[j] = e.weight;
+					inTime[j++] = e.time;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of vertices.
+	 *
+	 * @return number of vertices.
+	 */
+	int size() {
+		return vertices.length;
+	}
+
+	/**
+	 * Gets the number of a vertex.
+	 *
+	 * @param v
+	 *            vertex
+	 * @return number of vertex v.
+	 */
+	int indexOf(Vertex v) {
+		return index.get(v);
+	}
+}
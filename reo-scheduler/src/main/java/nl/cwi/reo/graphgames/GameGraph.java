@@ -8,6 +8,7 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeMap;
 import java.util.TreeSet;
@@ -386,76 +387,120 @@ public class GameGraph {
 	 *         t(e), for every edge e
 	 */
 	public HashMap<Vertex, Double> minimalCredit(int p, int q) {
-		HashMap<Vertex, Double> f = new HashMap<Vertex, Double>();
-		HashMap<Vertex, Integer> count = new HashMap<Vertex, Integer>();
-		Set<Vertex> L = new HashSet<Vertex>();
+		CsrGraph G = new CsrGraph(vert.values().toArray(new Vertex[0]), adjc);
+		boolean[] in0 = new boolean[G.size()];
+		for (Vertex v : vert0)
+			in0[G.indexOf(v)] = true;
+
+		double[] f = minimalCredit(G, in0, p, q);
+
+		HashMap<Vertex, Double> credit = new HashMap<Vertex, Double>();
+		for (int v = 0; v < G.size(); v++)
+			if (in0[v])
+				credit.put(G.vertices[v], f[v]);
+		return credit;
+	}
+
+	/**
+	 * Computes minimal credit function on a frozen game graph.
+	 * 
+	 * @param G
+	 *            frozen game graph
+	 * @param in0
+	 *            indicates for every vertex whether it is optimal
+	 * @param p
+	 *            numerator of value v
+	 * @param q
+	 *            denominator of value
+	 * @return the minimal credit of every optimal vertex.
+	 */
+	private static double[] minimalCredit(CsrGraph G, boolean[] in0, int p, int q) {
+		int n = G.size();
+		double[] f = new double[n];
+		int[] count = new int[n];
+
+		// Worklist of inconsistent vertices, as a circular int deque
+		int[] L = new int[n];
+		boolean[] inL = new boolean[n];
+		int head = 0;
+		int size = 0;
 		int M = 0;
 
-		for (Vertex v : vert0) {
+		for (int v = 0; v < n; v++) {
+			if (!in0[v])
+				continue;
 			int cnt = 0;
 			boolean ic = false;
-			List<Integer> w = new ArrayList<Integer>();
-			w.add(0);
-
-			for (Edge e : adjc.get(v)) {
-				if (v.equals(e.source) && vert0.contains(e.target)) {
-					int we = q * e.weight - p * e.time;
-					w.add(-we);
-					if (v.owner == 0 && we >= 0)
+			int max = 0;
+
+			for (int k = G.outStart[v]; k < G.outStart[v + 1]; k++) {
+				if (in0[G.outTarget[k]]) {
+					int we = q * G.outWeight[k] - p * G.outTime[k];
+					max = Math.max(max, -we);
+					if (G.owner[v] == 0 && we >= 0)
 						cnt++;
-					if (v.owner == 1 && we < 0)
+					if (G.owner[v] == 1 && we < 0)
 						ic = true;
 				}
 			}
 
-			f.put(v, 0.0);
-			count.put(v, cnt);
-			if ((v.owner == 0 && cnt == 0) || (v.owner == 1 && ic))
-				L.add(v);
-			M += Collections.max(w); // is this still correct in throughput
-										// games?
+			count[v] = cnt;
+			if ((G.owner[v] == 0 && cnt == 0) || (G.owner[v] == 1 && ic)) {
+				L[(head + size++) % n] = v;
+				inL[v] = true;
+			}
+			M += max; // is this still correct in throughput games?
 		}
 
-		while (!L.isEmpty()) {
+		while (size > 0) {
 
-			Vertex v = L.iterator().next();
-			L.remove(v);
-			Double oldf = f.get(v);
+			int v = L[head];
+			head = (head + 1) % n;
+			size--;
+			inL[v] = false;
+			double oldf = f[v];
 
 			// Compute the new value of f at v
-			List<Double> c = new ArrayList<Double>();
-			for (Edge e : adjc.get(v))
-				if (v.equals(e.source) && vert0.contains(e.target))
-					c.add(f.get(e.target) - q * e.weight + p * e.time);
-			Double newf = v.owner == 0 ? Collections.min(c) : Collections.max(c);
+			boolean hasSuccessor = false;
+			double newf = G.owner[v] == 0 ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+			for (int k = G.outStart[v]; k < G.outStart[v + 1]; k++) {
+				if (in0[G.outTarget[k]]) {
+					double c = f[G.outTarget[k]] - q * G.outWeight[k] + p * G.outTime[k];
+					newf = G.owner[v] == 0 ? Math.min(newf, c) : Math.max(newf, c);
+					hasSuccessor = true;
+				}
+			}
+			if (!hasSuccessor)
+				throw new NoSuchElementException();
 			if (newf < 0.0)
 				newf = 0.0;
 			if (newf > M)
 				newf = Double.POSITIVE_INFINITY;
-			f.put(v, newf);
+			f[v] = newf;
 
 			// Update the counter at v
-			if (v.owner == 0) {
+			if (G.owner[v] == 0) {
 				int cnt = 0;
-				for (Edge e : adjc.get(v))
-					if (v.equals(e.source) && vert0.contains(e.target))
-						if (f.get(e.source) + q * e.weight - p * e.time >= f.get(e.target))
+				for (int k = G.outStart[v]; k < G.outStart[v + 1]; k++)
+					if (in0[G.outTarget[k]])
+						if (f[v] + q * G.outWeight[k] - p * G.outTime[k] >= f[G.outTarget[k]])
 							cnt++;
-				count.put(v, cnt);
+				count[v] = cnt;
 			}
 
 			// Find new inconsistencies and update their counters
-			for (Edge e : adjc.get(v)) {
-				if (v.equals(e.target) && vert0.contains(e.source)) {
-					if (f.get(e.source) + q * e.weight - p * e.time < f.get(e.target)) {
-						if (e.source.owner == 0) {
-							if (f.get(e.source) + q * e.weight - p * e.time >= oldf)
-								count.put(e.source, count.get(e.source) - 1);
-							if (count.get(e.source) <= 0)
-								L.add(e.source);
-						} else {
-							L.add(e.source);
-						}
+			for (int k = G.inStart[v]; k < G.inStart[v + 1]; k++) {
+				int u = G.inSource[k];
+				if (in0[u] && f[u] + q * G.inWeight[k] - p * G.inTime[k] < f[v]) {
+					if (G.owner[u] == 0) {
+						if (f[u] + q * G.inWeight[k] - p * G.inTime[k] >= oldf)
+							count[u]--;
+						if (count[u] > 0)
+							continue;
+					}
+					if (!inL[u]) {
+						L[(head + size++) % n] = u;
+						inL[u] = true;
 					}
 				}
 			}
@@ -470,6 +515,14 @@ public class GameGraph {
 	 */
 	public void synthesize() {
 
+		// Freeze the game graph
+		Vertex[] vertices = vert.values().toArray(new Vertex[0]);
+		CsrGraph G = new CsrGraph(vertices, adjc);
+		boolean[] in0 = new boolean[G.size()];
+		for (Vertex v : vert0)
+			in0[G.indexOf(v)] = true;
+		int s0 = G.indexOf(v0);
+
 		// This code assumes that there the minimal weight is <= 0 and the
 		// maximal weight is >= 0.
 		int V0 = V;
@@ -478,54 +531,60 @@ public class GameGraph {
 		int pmax = 0;
 		int qmax = 1;
 
-		for (Vertex v : vert0) {
-			for (Edge e : adjc.get(v)) {
-				pmin = Math.min(pmin, V0 * e.weight);
-				pmax = Math.max(pmax, V0 * e.weight);
+		for (int v = 0; v < G.size(); v++) {
+			if (!in0[v])
+				continue;
+			for (int k = G.outStart[v]; k < G.outStart[v + 1]; k++) {
+				pmin = Math.min(pmin, V0 * G.outWeight[k]);
+				pmax = Math.max(pmax, V0 * G.outWeight[k]);
+			}
+			for (int k = G.inStart[v]; k < G.inStart[v + 1]; k++) {
+				pmin = Math.min(pmin, V0 * G.inWeight[k]);
+				pmax = Math.max(pmax, V0 * G.inWeight[k]);
 			}
 		}
 
+		int[] stack = new int[G.size()];
+
 		while (V0 * (V0 - 1) * (pmax * qmin - pmin * qmax) >= qmin * qmax) {
 
 			int g = gcd(pmin * qmax + pmax * qmin, 2 * qmin * qmax);
 			int p = (pmin * qmax + pmax * qmin) / g;
 			int q = (2 * qmin * qmax) / g;
 
-			HashMap<Vertex, Double> f = minimalCredit(p, q);
-			// System.out.println("p0/q0 = " + pmin + "/" + qmin + "; " + "p/q =
-			// " + p + "/" + q + "; " + "p1/q1 = " + pmax + "/" + qmax + "; ");
-			// System.out.println("f = " + f);
+			double[] f = minimalCredit(G, in0, p, q);
 
 			// the code does not handle atomic cycles, i.e., cycles C with \sum
 			// t(C) = 0
 
 			// Let G0 be the reachable part of G0(f)
 			V0 = 0;
-			HashSet<Vertex> reachable = new HashSet<Vertex>();
-			HashSet<Vertex> L = new HashSet<Vertex>();
-			L.add(v0);
-			while (!L.isEmpty()) {
-				Vertex v = L.iterator().next();
-				L.remove(v);
-				reachable.add(v);
+			boolean[] reachable = new boolean[G.size()];
+			int top = 0;
+			stack[top++] = s0;
+			reachable[s0] = true;
+			while (top > 0) {
+				int v = stack[--top];
 				V0++;
 				TreeSet<Edge> delete = new TreeSet<Edge>();
-				for (Edge e : adjc0.get(v)) {
-					if (v.equals(e.source)) {
-						if (f.get(e.source) + q * e.weight - p * e.time < f.get(e.target))
+				for (Edge e : adjc0.get(vertices[v])) {
+					if (vertices[v].equals(e.source)) {
+						int u = G.indexOf(e.target);
+						if (f[v] + q * e.weight - p * e.time < f[u])
 							delete.add(e);
-						if (!reachable.contains(e.target))
-							L.add(e.target);
+						if (!reachable[u]) {
+							reachable[u] = true;
+							stack[top++] = u;
+						}
 					}
 				}
 				for (Edge e : delete)
-					adjc0.get(v).remove(e);
+					adjc0.get(vertices[v]).remove(e);
 			}
 
-			vert0 = reachable;
-			// System.out.println(vert0);
+			in0 = reachable;
 
-			if (f.get(v0) < Double.POSITIVE_INFINITY) { // if val(v0) >= p/q
+			if (f[s0] < Double.POSITIVE_INFINITY) { // if val(v0) >= p/q
 				pmin = p;
 				qmin = q;
 			} else { // if val(v0) < p/q
@@ -534,7 +593,11 @@ public class GameGraph {
 			}
 		}
 
-		// System.out.println(vert0);
+		// Thaw the optimal vertices
+		vert0 = new HashSet<Vertex>();
+		for (int v = 0; v < G.size(); v++)
+			if (in0[v])
+				vert0.add(vertices[v]);
 	}
 
 	/**
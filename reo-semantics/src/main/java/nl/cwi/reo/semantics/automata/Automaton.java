@@ -3,16 +3,19 @@ package nl.cwi.reo.semantics.automata;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 import nl.cwi.reo.interpret.Scope;
 import nl.cwi.reo.interpret.ports.Port;
@@ -169,7 +172,8 @@ public class Automaton<L extends Label<L>> {
 
 	/**
 	 * Compose this automaton with an array of automata by means of a breadth
-	 * first algorithm.
+	 * first algorithm. Every level of the search is expanded in parallel, and
+	 * global states are identified by tuples of local state indices.
 	 * 
 	 * @param automata
 	 *            a array of automata
@@ -179,86 +183,153 @@ public class Automaton<L extends Label<L>> {
 	public Automaton<L> compose(Iterable<? extends Automaton<L>> automata) {
 
 		// Initialize the automaton fields.
-		SortedSet<State> Q = new TreeSet<State>();
 		SortedSet<Port> P = new TreeSet<Port>();
-		Map<State, Set<Transition<L>>> T = new HashMap<State, Set<Transition<L>>>();
-		State q0;
+		List<Automaton<L>> As = new ArrayList<Automaton<L>>();
+		As.add(this);
+		for (Automaton<L> Ai : automata) {
+			As.add(Ai);
+			P.addAll(Ai.iface);
+		}
+
+		// Number the local states of every automaton.
+		List<Map<State, Integer>> index = new ArrayList<Map<State, Integer>>();
+		List<List<State>> local = new ArrayList<List<State>>();
+		for (Automaton<L> A : As) {
+			Map<State, Integer> indexA = new HashMap<State, Integer>();
+			List<State> localA = new ArrayList<State>();
+			addState(A.initial, indexA, localA);
+			for (State q : A.states)
+				addState(q, indexA, localA);
+			for (Set<Transition<L>> outq : A.out.values())
+				for (Transition<L> t : outq)
+					addState(t.getTarget(), indexA, localA);
+			index.add(indexA);
+			local.add(localA);
+		}
+
+		// Visited global states.
+		ConcurrentMap<Tuple, State> visited = new ConcurrentHashMap<Tuple, State>();
+		Map<State, Set<Transition<L>>> T = new ConcurrentHashMap<State, Set<Transition<L>>>();
 
 		// Find the global initial state.
+		int[] s0 = new int[As.size()];
 		List<State> qi0 = new ArrayList<State>();
-		for (Automaton<L> Ai : automata) {
+		for (Automaton<L> Ai : automata)
 			qi0.add(Ai.initial);
-			P.addAll(Ai.iface);
-		}
-		q0 = this.initial.compose(qi0);
+		State q0 = this.initial.compose(qi0);
+		visited.put(new Tuple(s0), q0);
 
-		// Initialize the queue L of unexplored global states.
-		Queue<Pair<State, List<State>>> L = new LinkedList<Pair<State, List<State>>>();
+		// Expand all unexplored global states, until none is left.
+		List<Tuple> frontier = Collections.singletonList(new Tuple(s0));
+		while (!frontier.isEmpty())
+			frontier = frontier.parallelStream().flatMap(s -> expand(s, As, index, local, visited, T).stream())
+					.collect(Collectors.toList());
 
-		// Add the initial state to the queue.
-		L.add(Pair.create(this.initial, qi0));
-		Q.add(q0);
-		T.put(q0, new HashSet<Transition<L>>());
+		return new Automaton<L>(new TreeSet<State>(visited.values()), P, T, q0, lbl);
+	}
 
-		// Loop until the queue is empty.
-		while (!L.isEmpty()) {
-
-			// Get and remove the first unexplored global state in L.
-			Pair<State, List<State>> s1 = L.poll();
-			if (s1 != null) {
-				State q1 = s1.first.compose(s1.second);
-
-				// Add global state s1 to the set of states Q
-				Q.add(q1);
-
-				// Iterate over all *composable* combinations of local
-				// transitions from s1.
-				// TODO this.setInitial(q) unnecessarily copies the whole
-				// automaton.
-				List<Automaton<L>> As = new ArrayList<Automaton<L>>();
-				As.add(this.setInitial(s1.first));
-				Iterator<? extends Automaton<L>> Ai = automata.iterator();
-				Iterator<State> si = s1.second.iterator();
-				while (Ai.hasNext() && si.hasNext())
-					As.add(Ai.next().setInitial(si.next()));
-				TransitionIterator<L> combination = new TransitionIterator<L>(As);
-
-				// Iterate over all combinations of local transitions.
-				while (combination.hasNext()) {
-
-					// Get the next composable combination of local transitions.
-					List<Transition<L>> tuple = combination.next();
-
-					// Construct the global transition.
-					Transition<L> t0 = tuple.get(0);
-					List<Transition<L>> ti = new ArrayList<Transition<L>>(tuple);
-					ti.remove(0);
-					Transition<L> t = t0.compose(ti);
-
-					// Construct the target state.
-					State q02 = t0.getTarget();
-					List<State> qi2 = new ArrayList<State>();
-					for (Transition<L> tr : ti)
-						qi2.add(tr.getTarget());
-					Pair<State, List<State>> s2 = Pair.create(q02, qi2);
-					State q2 = s2.first.compose(s2.second);
-
-					// Add the target state to the work automaton, and add it to
-					// the queue if its new.
-					if (Q.add(q2)) {
-						T.put(q2, new HashSet<Transition<L>>());
-						L.add(s2);
-					}
+	/**
+	 * Adds a state to the numbering of the local states of an automaton.
+	 *
+	 * @param q
+	 *            local state
+	 * @param index
+	 *            maps every local state to its number
+	 * @param local
+	 *            list of local states
+	 */
+	private static void addState(State q, Map<State, Integer> index, List<State> local) {
+		if (index.putIfAbsent(q, local.size()) == null)
+			local.add(q);
+	}
 
-					// Add the global transition to the work automaton
-					Set<Transition<L>> outq1 = T.get(q1);
-					if (outq1 != null)
-						outq1.add(t);
-				}
-			}
+	/**
+	 * Constructs all outgoing transitions of a global state, which are all
+	 * composable combinations of local transitions.
+	 *
+	 * @param s
+	 *            global state
+	 * @param As
+	 *            list of automata
+	 * @param index
+	 *            numbering of the local states of every automaton
+	 * @param local
+	 *            list of local states of every automaton
+	 * @param visited
+	 *            all visited global states
+	 * @param T
+	 *            outgoing transitions of all expanded global states
+	 * @return list of global states that are visited for the first time.
+	 */
+	private static <L extends Label<L>> List<Tuple> expand(Tuple s, List<Automaton<L>> As,
+			List<Map<State, Integer>> index, List<List<State>> local, ConcurrentMap<Tuple, State> visited,
+			Map<State, Set<Transition<L>>> T) {
+		List<State> qs = new ArrayList<State>();
+		for (int i = 0; i < s.states.length; i++)
+			qs.add(local.get(i).get(s.states[i]));
+
+		List<Tuple> next = new ArrayList<Tuple>();
+		Set<Transition<L>> outq = new HashSet<Transition<L>>();
+
+		// Iterate over all *composable* combinations of local transitions.
+		TransitionIterator<L> combination = new TransitionIterator<L>(As, qs);
+		while (combination.hasNext()) {
+			List<Transition<L>> tuple = combination.next();
+
+			// Construct the global transition.
+			Transition<L> t = tuple.get(0).compose(tuple.subList(1, tuple.size()));
+			outq.add(t);
+
+			// Add the target state, if it is new.
+			int[] s2 = new int[tuple.size()];
+			for (int i = 0; i < s2.length; i++)
+				s2[i] = index.get(i).get(tuple.get(i).getTarget());
+			Tuple target = new Tuple(s2);
+			if (visited.putIfAbsent(target, t.getTarget()) == null)
+				next.add(target);
 		}
 
-		return new Automaton<L>(Q, P, T, q0, lbl);
+		T.put(visited.get(s), outq);
+		return next;
+	}
+
+	/**
+	 * Global state of a product, given by the number of each local state.
+	 */
+	private static final class Tuple {
+
+		/** Numbers of the local states. */
+		private final int[] states;
+
+		/** Hash code of the local states. */
+		private final int hash;
+
+		/**
+		 * Constructs a new global state.
+		 *
+		 * @param states
+		 *            numbers of the local states
+		 */
+		private Tuple(int[] states) {
+			this.states = states;
+			this.hash = Arrays.hashCode(states);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(@Nullable Object other) {
+			return other instanceof Tuple && Arrays.equals(states, ((Tuple) other).states);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return hash;
+		}
 	}
 
 	/**
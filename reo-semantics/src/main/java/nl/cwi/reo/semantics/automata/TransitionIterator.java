@@ -54,8 +54,24 @@ public class TransitionIterator<L extends Label<L>> implements Iterator<List<Tra
 	 *             automaton.
 	 */
 	public TransitionIterator(List<Automaton<L>> automata) {
+		this(automata, getInitials(automata));
+	}
 
-		if (automata == null)
+	/**
+	 * Constructs an iterator that enumerates all global transitions originating
+	 * from a given global state, without copying any automaton.
+	 * 
+	 * @param automata
+	 *            list of automata
+	 * @param states
+	 *            list of local states, one for each automaton
+	 * @throws NullPointerException
+	 *             if a list is null, or if the list of automata contains a
+	 *             null automaton.
+	 */
+	public TransitionIterator(List<Automaton<L>> automata, List<State> states) {
+
+		if (automata == null || states == null)
 			throw new NullPointerException("Undefined list of automata.");
 
 		// Initialize all fields.
@@ -65,24 +81,44 @@ public class TransitionIterator<L extends Label<L>> implements Iterator<List<Tra
 		this.tuple = new ArrayList<Transition<L>>();
 		this.isNext = false;
 
+		Iterator<State> qi = states.iterator();
 		for (Automaton<L> A : automata) {
 			if (A == null)
 				throw new NullPointerException("Undefined automaton in list of automata.");
+			State q = qi.next();
 
 			List<Transition<L>> outA = new ArrayList<Transition<L>>();
-			outA.add(0, new Transition<L>(A.initial, A.initial, new TreeSet<Port>(), A.lbl));
-			Set<Transition<L>> transitions = A.out.get(A.initial);
-
-			if (transitions == null)
-				throw new NullPointerException("Undefined set outgoing transitions of initial state.");
-
-			outA.addAll(transitions);
+			outA.add(0, new Transition<L>(q, q, new TreeSet<Port>(), A.lbl));
+			Set<Transition<L>> transitions = A.out.get(q);
+			if (transitions != null)
+				outA.addAll(transitions);
 			outs.add(outA);
 			Iterator<Transition<L>> iterA = outA.iterator();
 			iters.add(iterA);
 			tuple.add(iterA.next());
+		}
+	}
 
+	/**
+	 * Gets the initial state of every automaton in a list.
+	 * 
+	 * @param automata
+	 *            list of automata
+	 * @return list of initial states.
+	 * @throws NullPointerException
+	 *             if the list is null, or if the list contains a null
+	 *             automaton.
+	 */
+	private static <L extends Label<L>> List<State> getInitials(List<Automaton<L>> automata) {
+		if (automata == null)
+			throw new NullPointerException("Undefined list of automata.");
+		List<State> initials = new ArrayList<State>();
+		for (Automaton<L> A : automata) {
+			if (A == null)
+				throw new NullPointerException("Undefined automaton in list of automata.");
+			initials.add(A.initial);
 		}
+		return initials;
 	}
 
 	/**
@@ -3,11 +3,16 @@ package nl.cwi.reo.semantics.hypergraphs;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.checkerframework.checker.nullness.qual.Nullable;
 
@@ -21,7 +26,6 @@ import nl.cwi.reo.semantics.predicates.Equality;
 import nl.cwi.reo.semantics.predicates.Formula;
 import nl.cwi.reo.semantics.predicates.Formulas;
 import nl.cwi.reo.semantics.predicates.MemoryVariable;
-import nl.cwi.reo.semantics.predicates.Negation;
 import nl.cwi.reo.semantics.predicates.PortVariable;
 import nl.cwi.reo.semantics.predicates.Term;
 import nl.cwi.reo.semantics.predicates.Terms;
@@ -40,6 +44,12 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	 */
 	private final Set<HyperEdge> hyperedges;
 
+	/**
+	 * Index that assigns to each port the list of hyperedges of this
+	 * hypergraph that have this port as their root.
+	 */
+	private final Map<Port, List<HyperEdge>> index;
+
 	/**
 	 * Map that assigns an initial value to each memory cell.
 	 */
@@ -50,6 +60,7 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	 */
 	public ConstraintHypergraph() {
 		hyperedges = new HashSet<>();
+		index = new HashMap<>();
 		initial = new HashMap<>();
 	}
 
@@ -70,7 +81,10 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	 *            the initial
 	 */
 	public ConstraintHypergraph(List<HyperEdge> h, Map<MemoryVariable, Term> initial) {
-		this.hyperedges = new HashSet<HyperEdge>(h);
+		this.hyperedges = new HashSet<HyperEdge>();
+		this.index = new HashMap<>();
+		for (HyperEdge e : h)
+			add(e);
 		this.initial = new HashMap<>(initial);
 	}
 
@@ -84,20 +98,21 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	 */
 	public ConstraintHypergraph(Set<Set<Rule>> s, Map<MemoryVariable, Term> initial) {
 		hyperedges = new HashSet<HyperEdge>();
+		index = new HashMap<>();
 		for (Set<Rule> rules : s) {
 			for(Rule r : rules){
 				RuleNode rule = new RuleNode(new HashSet<>(Arrays.asList(r)));
-				if(!rule.getSync().values().contains(Boolean.TRUE)){
+				if(!rule.hasActivePorts()){
 					Port v = new Port("hidden");
 					if (!getHyperedges(v).isEmpty()) {
 						rule.addToHyperedge(getHyperedges(v).get(0));
 					} else {
 						Set<RuleNode> ruleNodes = new HashSet<RuleNode>();
 						ruleNodes.add(rule);
-						hyperedges.add(new HyperEdge(v, ruleNodes));
+						add(new HyperEdge(v, ruleNodes));
 					}
 				}
-				for (Map.Entry<Port, Boolean> sc : rule.getSync().entrySet()) {
+				for (Map.Entry<Port, Boolean> sc : r.getSync().entrySet()) {
 					if (sc.getValue() == true) {
 						Port v = sc.getKey();
 						if (!getHyperedges(v).isEmpty()) {
@@ -105,7 +120,7 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 						} else {
 							Set<RuleNode> ruleNodes = new HashSet<RuleNode>();
 							ruleNodes.add(rule);
-							hyperedges.add(new HyperEdge(v, ruleNodes));
+							add(new HyperEdge(v, ruleNodes));
 						}
 					}
 				}
@@ -123,9 +138,12 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	 */
 	public List<HyperEdge> getHyperedges(Port p) {
 		List<HyperEdge> hyperedgeList = new ArrayList<HyperEdge>();
-		for (HyperEdge h : hyperedges) {
-			if (h.getSource().equals(p) && !h.getTarget().isEmpty()) {
-				hyperedgeList.add(h);
+		List<HyperEdge> rooted = index.get(p);
+		if (rooted != null) {
+			for (HyperEdge h : rooted) {
+				if (!h.getTarget().isEmpty()) {
+					hyperedgeList.add(h);
+				}
 			}
 		}
 		return hyperedgeList;
@@ -134,10 +152,50 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	/**
 	 * Gets the list of hyperedges of this constraint hypergraph.
 	 * 
-	 * @return list of hyperedges of this constraint hypergraph.
+	 * @return unmodifiable view of the hyperedges of this constraint
+	 *         hypergraph.
 	 */
 	public Set<HyperEdge> getHyperedges() {
-		return hyperedges;
+		return Collections.unmodifiableSet(hyperedges);
+	}
+
+	/**
+	 * Adds a hyperedge to this constraint hypergraph, and indexes it by its
+	 * root.
+	 * 
+	 * @param h
+	 *            hyperedge
+	 */
+	private void add(HyperEdge h) {
+		if (hyperedges.add(h)) {
+			List<HyperEdge> rooted = index.get(h.getSource());
+			if (rooted == null)
+				index.put(h.getSource(), rooted = new ArrayList<>());
+			rooted.add(h);
+		}
+	}
+
+	/**
+	 * Removes all hyperedges with an empty target and a given root from this
+	 * constraint hypergraph.
+	 * 
+	 * @param p
+	 *            root port
+	 */
+	private void prune(Port p) {
+		List<HyperEdge> rooted = index.get(p);
+		if (rooted == null)
+			return;
+		Iterator<HyperEdge> iter = rooted.iterator();
+		while (iter.hasNext()) {
+			HyperEdge h = iter.next();
+			if (h.getTarget().isEmpty()) {
+				iter.remove();
+				hyperedges.remove(h);
+			}
+		}
+		if (rooted.isEmpty())
+			index.remove(p);
 	}
 
 	/**
@@ -318,6 +376,7 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	
 	public ConstraintHypergraph(Set<Rule> s) {
 		hyperedges = new HashSet<>();
+		index = new HashMap<>();
 
 		for (Rule r : s) {
 			RuleNode rule = new RuleNode(new HashSet<>(Arrays.asList(r)));
@@ -329,7 +388,7 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 					} else {
 						Set<RuleNode> ruleNodes = new HashSet<RuleNode>();
 						ruleNodes.add(rule);
-						hyperedges.add(new HyperEdge(v, ruleNodes));
+						add(new HyperEdge(v, ruleNodes));
 					}
 				}
 			}
@@ -364,7 +423,8 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 		ConstraintHypergraph composition = new ConstraintHypergraph();
 
 		for (ConstraintHypergraph h : components) {
-			composition.getHyperedges().addAll(h.getHyperedges());
+			for (HyperEdge e : h.getHyperedges())
+				composition.add(e);
 			composition.getInitials().putAll(h.getInitials());
 		}
 
@@ -374,10 +434,13 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	}
 	
 	/**
-	 * Distribute multi rules hyperedges.
+	 * Distribute multi rules hyperedges. All synchronization constraints of
+	 * this distribution share one table of port identifiers, which is
+	 * discarded afterwards.
 	 */
 	public void distribute() {
 		Set<Port> variables = getVariables();
+		PortIds ids = new PortIds();
 
 		for (Port p : variables) {
 			List<HyperEdge> multiEdge = getHyperedges(p);
@@ -387,18 +450,15 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 				boolean mult = false;
 				for (HyperEdge h : multiEdge) {
 					if (!h.getTarget().isEmpty()) {
-						toDistribute.compose(h);
+						toDistribute.compose(h, ids);
 						mult = true;
 					}
 				}
 				/*
 				 * Remove empty hyperedges
 				 */
-				if (mult) {
-					Set<HyperEdge> s = new HashSet<>(hyperedges);
-					hyperedges.clear();
-					hyperedges.addAll(s);
-				}
+				if (mult)
+					prune(p);
 			}
 		}
 	}
@@ -426,23 +486,14 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 					}
 				}
 			}
-			Map<String, String> _rename = new HashMap<>();
-			for(String name : rename.keySet()){
-				if(rename.containsKey(rename.get(name))|| _rename.containsValue("m"+i)){
-					while( _rename.containsValue("m"+i) || ("m"+i).equals(name) || rename.containsKey("m"+i))
-						i++;
-					_rename.put(name, "m"+i);
-				}
-				else
-					_rename.put(name, rename.get(name));
-			}
-			
+			// Memory cells are renamed simultaneously, hence a fresh name
+			// never clashes with an old name that is yet to be renamed.
 			for (RuleNode r : A.getRuleNodes())
-				r.substitute(_rename);
+				r.substitute(rename);
 
 			Map<MemoryVariable, Term> newInit = new HashMap<>();
 			for (Map.Entry<MemoryVariable, Term> e : A.getInitials().entrySet()) {
-				String newName = _rename.get(e.getKey().getName());
+				String newName = rename.get(e.getKey().getName());
 				if (newName == null)
 					newName = e.getKey().getName();
 				newInit.put(new MemoryVariable(newName, e.getKey().hasPrime(), e.getKey().getTypeTag()), e.getValue());
@@ -459,29 +510,44 @@ public class ConstraintHypergraph implements Semantics<ConstraintHypergraph> {
 	 */
 	@Override
 	public ConstraintHypergraph restrict(Collection<? extends Port> intface) {
-		Set<Rule> setRules = new HashSet<Rule>();
-		Set<Formula> setFormula = new HashSet<>();
-		
-		for (RuleNode ruleNodes : getRuleNodes()) {
-			Set<Formula> list = new HashSet<>();
-			for(Rule _r : ruleNodes.getRules())
-				list.add(_r.getFormula());
-			Formula g = new Conjunction(list);
-			for (Port p : ruleNodes.getPorts()) {
-				if (!intface.contains(p)) {
-					if(g instanceof Conjunction)
-						g = Formulas.eliminate(((Conjunction) g).getClauses(), Arrays.asList(new PortVariable(p)));
-					else if(g instanceof Negation)
-						g = Formulas.eliminate(Arrays.asList(g), Arrays.asList(new PortVariable(p)));
-				}
-			}
-			setFormula.add(g);
-		}
-		for(Formula g : setFormula)
+		List<RuleNode> nodes = new ArrayList<>(getRuleNodes());
+		nodes.sort(Comparator.comparingInt(RuleNode::getId));
+
+		// Rule nodes are independent, hence we hide their ports in parallel.
+		// The stream is ordered, so the result does not depend on scheduling.
+		List<Formula> formulas = nodes.parallelStream().map(n -> hide(n, intface))
+				.collect(Collectors.toList());
+
+		Set<Rule> setRules = new LinkedHashSet<>();
+		for (Formula g : formulas)
 			setRules.add(new Rule(g));
 		return new ConstraintHypergraph(new HashSet<>(Arrays.asList(setRules)), initial);
 	}
 
+	/**
+	 * Eliminates, in a single pass, every port variable of a rule node that is
+	 * not in a given interface from the conjunction of its rules.
+	 * 
+	 * @param node
+	 *            rule node
+	 * @param intface
+	 *            set of ports that remain visible
+	 * @return conjunction of the rules of the node without hidden ports.
+	 */
+	private static Formula hide(RuleNode node, Collection<? extends Port> intface) {
+		Set<Formula> list = new HashSet<>();
+		for (Rule r : node.getRules())
+			list.add(r.getFormula());
+		Conjunction g = new Conjunction(list);
+		List<Variable> V = new ArrayList<>();
+		for (Port p : node.getPorts())
+			if (!intface.contains(p))
+				V.add(new PortVariable(p));
+		if (V.isEmpty())
+			return g;
+		return Formulas.eliminate(g.getClauses(), V);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
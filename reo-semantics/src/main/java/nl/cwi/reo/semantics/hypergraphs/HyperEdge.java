@@ -156,6 +156,22 @@ public class HyperEdge {
 	 *             if the hyperedges have different source ports.
 	 */
 	public void compose(HyperEdge h) {
+		compose(h, new PortIds());
+	}
+
+	/**
+	 * Composes this hyperedge with another hyperedge with the same source port
+	 * by distributing their rules, and compares synchronization constraints
+	 * via given port identifiers.
+	 * 
+	 * @param h
+	 *            hyperedge
+	 * @param ids
+	 *            port identifiers of the current composition
+	 * @throws IllegalArgumentException
+	 *             if the hyperedges have different source ports.
+	 */
+	void compose(HyperEdge h, PortIds ids) {
 		if (!port.equals(h.getSource()))
 			new IllegalArgumentException("Hyperedges must have the same source.");
 
@@ -181,7 +197,7 @@ public class HyperEdge {
 				 */
 				RuleNode r = rulesToCompose.poll();
 //				if(!r.equals(h_ruleNode)){
-					RuleNode rule = r.composeF(h_ruleNode); 
+					RuleNode rule = r.composeF(h_ruleNode, ids);
 					if (rule!=null){
 						if(!rule.equals(r))
 							r.erase();
@@ -217,7 +233,7 @@ public class HyperEdge {
 					/*
 					 * compose both rules, and eventually add the new rule to the hypergraph
 					 */
-					RuleNode r = r1.composeF(r2);
+					RuleNode r = r1.composeF(r2, ids);
 					if (r != null && r.equals(r2)) {
 						areEqual.add(r2);
 						equal = true;
@@ -0,0 +1,39 @@
+package nl.cwi.reo.semantics.hypergraphs;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import nl.cwi.reo.interpret.ports.Port;
+
+/**
+ * Assigns dense integer identifiers to ports, which index the bitsets of the
+ * synchronization constraints of a single composition. Constraints are
+ * comparable only if they use the same identifiers. Since a table belongs to
+ * one composition, it is discarded together with that composition.
+ *
+ * This class is not thread-safe.
+ */
+final class PortIds {
+
+	/**
+	 * Identifiers of the ports.
+	 */
+	private final Map<Port, Integer> ids = new HashMap<>();
+
+	/**
+	 * Gets the identifier of a port, and assigns a new identifier if
+	 * necessary.
+	 *
+	 * @param p
+	 *            port
+	 * @return identifier of port p.
+	 */
+	int id(Port p) {
+		Integer i = ids.get(p);
+		if (i == null) {
+			i = ids.size();
+			ids.put(p, i);
+		}
+		return i;
+	}
+}
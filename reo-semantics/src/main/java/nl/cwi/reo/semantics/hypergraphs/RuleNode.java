@@ -18,6 +18,7 @@ import nl.cwi.reo.semantics.predicates.Formula;
 import nl.cwi.reo.semantics.predicates.Formulas;
 import nl.cwi.reo.semantics.predicates.MemoryVariable;
 import nl.cwi.reo.semantics.predicates.PortVariable;
+import nl.cwi.reo.semantics.predicates.Term;
 import nl.cwi.reo.semantics.predicates.Variable;
 import nl.cwi.reo.semantics.rulebasedautomata.Rule;
 import nl.cwi.reo.util.Monitor;
@@ -57,9 +58,16 @@ public class RuleNode {
 	private Set<Rule> rules;
 
 	/**
-	 * Synchronous set.
+	 * Synchronization constraint of the rules of this node, or null if it is
+	 * not computed yet.
 	 */
-	private final Map<Port, Boolean> sync;
+	private @Nullable SyncSet sync;
+
+	/**
+	 * Port identifiers of the synchronization constraint, or null if it is
+	 * not computed yet.
+	 */
+	private @Nullable PortIds ids;
 
 	
 	/**
@@ -73,10 +81,6 @@ public class RuleNode {
 	public RuleNode(Set<Rule> r, Set<HyperEdge> hyperedge) {
 		this.rules = r;
 		this.hyperedges = new HashSet<>();
-		this.sync = new HashMap<>();
-
-		for(Rule rule : r)
-			sync.putAll(rule.getSync());
 		
 		id = ++N;
 		for (HyperEdge h : hyperedge)
@@ -94,13 +98,40 @@ public class RuleNode {
 	public RuleNode(Set<Rule> r) {
 		this.rules = r;
 		this.hyperedges = new HashSet<HyperEdge>();
-		this.sync = new HashMap<>();
-		for(Rule rule : r)
-			sync.putAll(rule.getSync());
 		
 		id = ++N;
 	}
 
+	/**
+	 * Constructs a new node from a given set of rules and their
+	 * synchronization constraint, with an empty set of adjacent hyperedges.
+	 * The set of rules is shared, and not copied.
+	 * 
+	 * @param r
+	 *            rules of this node
+	 * @param sync
+	 *            synchronization constraint of the rules
+	 * @param ids
+	 *            port identifiers of the synchronization constraint
+	 */
+	private RuleNode(Set<Rule> r, SyncSet sync, PortIds ids) {
+		this.rules = r;
+		this.hyperedges = new HashSet<HyperEdge>();
+		this.sync = sync;
+		this.ids = ids;
+		id = ++N;
+	}
+
+	/**
+	 * Gets the identifier of this node. Nodes are numbered in order of
+	 * construction.
+	 * 
+	 * @return identifier of this node.
+	 */
+	int getId() {
+		return id;
+	}
+
 	/**
 	 * Gets the set of rules of this node.
 	 * 
@@ -134,12 +165,35 @@ public class RuleNode {
 	}
 	
 	/**
-	 * Gets the rule of this node.
+	 * Gets the synchronization constraints of the rules of this node. This
+	 * map is constructed on every call.
 	 * 
-	 * @return rule of this node.
+	 * @return map that states for some ports whether they fire.
 	 */
 	public Map<Port,Boolean> getSync() {
-		return sync;
+		Map<Port, Boolean> map = new HashMap<>();
+		for (Rule rule : rules)
+			map.putAll(rule.getSync());
+		return map;
+	}
+
+	/**
+	 * Gets the synchronization constraint of the rules of this node, with
+	 * respect to given port identifiers. The constraint is computed again only
+	 * if the rules or the identifiers change.
+	 * 
+	 * @param ids
+	 *            port identifiers
+	 * @return synchronization constraint of the rules of this node.
+	 */
+	private SyncSet getSyncSet(PortIds ids) {
+		SyncSet s = sync;
+		if (s == null || this.ids != ids) {
+			s = SyncSet.of(rules, ids);
+			sync = s;
+			this.ids = ids;
+		}
+		return s;
 	}
 
 	/**
@@ -213,7 +267,9 @@ public class RuleNode {
 
 	/**
 	 * Joins this node with a given rule node by conjunction of the rules and
-	 * union of the adjacent hyperedges.
+	 * union of the adjacent hyperedges. Sets of rules are never modified in
+	 * place, so the composed node shares the set of rules of this node or
+	 * of r, whenever one contains the other.
 	 * 
 	 * @param r
 	 *            rule node
@@ -222,34 +278,53 @@ public class RuleNode {
 	 */
 	
 	public RuleNode composeF(RuleNode r) {
+		return composeF(r, new PortIds());
+	}
+
+	/**
+	 * Joins this node with a given rule node, and compares their
+	 * synchronization constraints via given port identifiers.
+	 * 
+	 * @param r
+	 *            rule node
+	 * @param ids
+	 *            port identifiers of the current composition
+	 * @return conjunction this node with the given rule node, if the rules of
+	 *         both node can synchronize, or null otherwise.
+	 */
+	RuleNode composeF(RuleNode r, PortIds ids) {
+		SyncSet s1 = getSyncSet(ids);
+		SyncSet s2 = r.getSyncSet(ids);
+
 		// If the two rules can not synchronize, the composition fails.
-		if (!canSync(sync, r.getSync()))
+		if (!s1.canSync(s2))
 			return null;
 
-		Map<Port, Boolean> map = new HashMap<>(getSync());
-		map.putAll(r.getSync());
-
 		Set<Rule> r1;
 		// If the two rules are equals, return one this.rule (idempotency)
 		// otherwise, return the conjunction.
-		if (rules.equals(r.getRules())) {
-			if (r.getSync().equals(getSync()))
+		if (rules == r.rules || rules.equals(r.rules)) {
+			if (s1.equals(s2))
 				return this;
 			else
-				r1 = new HashSet<>(rules);
+				r1 = rules;
+		} else if (rules.size() >= r.rules.size() && rules.containsAll(r.rules)) {
+			r1 = rules;
+		} else if (r.rules.containsAll(rules)) {
+			r1 = r.rules;
 		} else {
 			r1 = new HashSet<>(rules);
-			r1.addAll(r.getRules());
+			r1.addAll(r.rules);
 		}
 
 		// Add the new rule to the hyperegde.
-		Set<HyperEdge> set = new HashSet<>(hyperedges);
-		for (HyperEdge h : r.getHyperedges()) {
+		RuleNode node = new RuleNode(r1, s1.union(s2), ids);
+		for (HyperEdge h : hyperedges)
+			node.addToHyperedge(h);
+		for (HyperEdge h : r.hyperedges)
 			if (!h.getTarget().isEmpty())
-				set.add(h);
-		}
-
-		return new RuleNode(r1, set);
+				node.addToHyperedge(h);
+		return node;
 	}
 
 	/**
@@ -300,44 +375,53 @@ public class RuleNode {
 	}
 
 	/**
-	 * Renames the memory cells in the rule of this node.
+	 * Renames the memory cells in the rule of this node. All memory cells are
+	 * renamed simultaneously, in a single pass over each rule.
 	 * 
 	 * @param rename
 	 *            map that assigns a new name to each old name
 	 * @return reference to this node.
 	 */
 	public RuleNode substitute(Map<String, String> rename) {
-		Set<Rule> _rules = new HashSet<>();
+		Map<Variable, Term> map = new HashMap<>();
 		for (Map.Entry<String, String> entry : rename.entrySet()) {
-			for(Rule r : rules){
-				Rule _r = new Rule(r.getFormula().substitute(
-						new MemoryVariable(entry.getValue(), false), new MemoryVariable(entry.getKey(), false)));
-				_r = new Rule(_r.getFormula().substitute(
-						new MemoryVariable(entry.getValue(), true), new MemoryVariable(entry.getKey(), true)));
-				_rules.add(_r);
-			}
-			rules = new HashSet<>(_rules);
-			_rules.clear();
+			map.put(new MemoryVariable(entry.getKey(), false), new MemoryVariable(entry.getValue(), false));
+			map.put(new MemoryVariable(entry.getKey(), true), new MemoryVariable(entry.getValue(), true));
 		}
+		Set<Rule> _rules = new HashSet<>();
+		for (Rule r : rules)
+			_rules.add(new Rule(r.getFormula().substitute(map)));
+		rules = _rules;
 		return this;
 	}
 
+	/**
+	 * Checks whether two synchronization constraints can synchronize, i.e.,
+	 * whether no port fires in one and is blocked in the other, and some port
+	 * fires in both.
+	 * 
+	 * @param r1
+	 *            synchronization constraint
+	 * @param r2
+	 *            synchronization constraint
+	 * @return true, if r1 and r2 can synchronize.
+	 */
 	public boolean canSync(Map<Port,Boolean> r1, Map<Port,Boolean> r2) {
+		PortIds ids = new PortIds();
+		return SyncSet.of(r1, ids).canSync(SyncSet.of(r2, ids));
+	}
 
-		boolean hasEdge = false;
-		for (Port p : r1.keySet()) {
-			if (r1.get(p)) {
-				if (r2.get(p)!=null && r2.get(p)) {
-					hasEdge = true;
-				} else if(r2.get(p)!=null && !r2.get(p)){ 
-					return false;
-				}
-			}
-			else if(r2!=null && r2.get(p)!=null &&r2.get(p))
-				return false;
-		}
-		return hasEdge;
-}
+	/**
+	 * Checks whether some port fires in the rules of this node.
+	 * 
+	 * @return true, if some port fires.
+	 */
+	public boolean hasActivePorts() {
+		for (Rule r : rules)
+			if (r.getSync().containsValue(true))
+				return true;
+		return false;
+	}
 	
 	
 	/**
@@ -356,6 +440,7 @@ public class RuleNode {
 			list.add(r.getFormula());
 		}
 		rules = new HashSet<>(Arrays.asList(new Rule(Formulas.eliminate(list, V)))); 
+		sync = null;
 		return this;
 	}
 
@@ -372,6 +457,7 @@ public class RuleNode {
 		for(Rule r : rules)
 			_rules.add(r.evaluate(s, m));
 		rules = _rules;
+		sync = null;
 	}
 	
 	public Set<Port> getActivePorts() {
@@ -0,0 +1,218 @@
+package nl.cwi.reo.semantics.hypergraphs;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+import nl.cwi.reo.interpret.ports.Port;
+import nl.cwi.reo.semantics.rulebasedautomata.Rule;
+
+/**
+ * Immutable synchronization constraint of a rule node, which states for some
+ * ports whether they fire or are blocked. Every port is mapped to a dense
+ * integer identifier by a {@link PortIds} table, and the constraint is stored
+ * as two bitsets over these identifiers. Each bitset is stored only for the range of words that
+ * contains a set bit, such that the constraint of a node that refers to a few
+ * neighbouring ports remains small in large connectors.
+ */
+final class SyncSet {
+
+	/**
+	 * Empty synchronization constraint.
+	 */
+	static final SyncSet EMPTY = new SyncSet(0, new long[0], new long[0]);
+
+	/**
+	 * Index of the first stored word.
+	 */
+	private final int offset;
+
+	/**
+	 * Bitset of the ports that fire, starting at the word with index offset.
+	 */
+	private final long[] fires;
+
+	/**
+	 * Bitset of the ports that are blocked, starting at the word with index
+	 * offset. This array has the same length as fires.
+	 */
+	private final long[] blocked;
+
+	/**
+	 * Constructs a synchronization constraint from two bitsets.
+	 *
+	 * @param offset
+	 *            index of the first word
+	 * @param fires
+	 *            bitset of firing ports
+	 * @param blocked
+	 *            bitset of blocked ports
+	 */
+	private SyncSet(int offset, long[] fires, long[] blocked) {
+		this.offset = offset;
+		this.fires = fires;
+		this.blocked = blocked;
+	}
+
+	/**
+	 * Constructs the synchronization constraint of a map that states for some
+	 * ports whether they fire.
+	 *
+	 * @param sync
+	 *            map from ports to true (fires) or false (blocked)
+	 * @param ids
+	 *            identifiers of the ports
+	 * @return synchronization constraint of the given map.
+	 */
+	static SyncSet of(Map<Port, Boolean> sync, PortIds ids) {
+		if (sync.isEmpty())
+			return EMPTY;
+		int[] id = new int[sync.size()];
+		boolean[] fire = new boolean[id.length];
+		int min = Integer.MAX_VALUE;
+		int max = 0;
+		int n = 0;
+		for (Map.Entry<Port, Boolean> e : sync.entrySet()) {
+			int i = ids.id(e.getKey());
+			fire[n] = e.getValue();
+			id[n++] = i;
+			min = Math.min(min, i);
+			max = Math.max(max, i);
+		}
+		int offset = min >>> 6;
+		long[] fires = new long[(max >>> 6) - offset + 1];
+		long[] blocked = new long[fires.length];
+		for (int k = 0; k < n; k++) {
+			int i = id[k];
+			if (fire[k])
+				fires[(i >>> 6) - offset] |= 1L << i;
+			else
+				blocked[(i >>> 6) - offset] |= 1L << i;
+		}
+		return new SyncSet(offset, fires, blocked);
+	}
+
+	/**
+	 * Constructs the union of the synchronization constraints of a set of
+	 * rules.
+	 *
+	 * @param rules
+	 *            set of rules
+	 * @param ids
+	 *            identifiers of the ports
+	 * @return union of the synchronization constraints of the given rules.
+	 */
+	static SyncSet of(Collection<Rule> rules, PortIds ids) {
+		SyncSet s = EMPTY;
+		for (Rule r : rules)
+			s = s.union(of(r.getSync(), ids));
+		return s;
+	}
+
+	/**
+	 * Checks whether two nodes with these synchronization constraints can
+	 * synchronize. This is the case if no port fires in one constraint and is
+	 * blocked in the other, and some port fires in both.
+	 *
+	 * @param s
+	 *            synchronization constraint
+	 * @return true, if this constraint and s can synchronize.
+	 */
+	boolean canSync(SyncSet s) {
+		int lo = Math.max(offset, s.offset);
+		int hi = Math.min(offset + fires.length, s.offset + s.fires.length);
+		boolean hasEdge = false;
+		for (int w = lo; w < hi; w++) {
+			long f1 = fires[w - offset];
+			long b1 = blocked[w - offset];
+			long f2 = s.fires[w - s.offset];
+			long b2 = s.blocked[w - s.offset];
+			if (((f1 & b2) | (b1 & f2)) != 0)
+				return false;
+			hasEdge |= (f1 & f2) != 0;
+		}
+		return hasEdge;
+	}
+
+	/**
+	 * Constructs the union of this constraint and another constraint. If one
+	 * of them contains the other, no new constraint is allocated.
+	 *
+	 * @param s
+	 *            synchronization constraint
+	 * @return union of this constraint and s.
+	 */
+	SyncSet union(SyncSet s) {
+		if (s.contains(this))
+			return s;
+		if (contains(s))
+			return this;
+		int lo = Math.min(offset, s.offset);
+		int hi = Math.max(offset + fires.length, s.offset + s.fires.length);
+		long[] f = new long[hi - lo];
+		long[] b = new long[hi - lo];
+		for (int i = 0; i < fires.length; i++) {
+			f[offset - lo + i] = fires[i];
+			b[offset - lo + i] = blocked[i];
+		}
+		for (int i = 0; i < s.fires.length; i++) {
+			f[s.offset - lo + i] |= s.fires[i];
+			b[s.offset - lo + i] |= s.blocked[i];
+		}
+		return new SyncSet(lo, f, b);
+	}
+
+	/**
+	 * Checks whether this constraint contains every firing and blocked port
+	 * of another constraint.
+	 *
+	 * @param s
+	 *            synchronization constraint
+	 * @return true, if s is contained in this constraint.
+	 */
+	private boolean contains(SyncSet s) {
+		for (int i = 0; i < s.fires.length; i++) {
+			int w = s.offset + i - offset;
+			long f = 0 <= w && w < fires.length ? fires[w] : 0;
+			long b = 0 <= w && w < fires.length ? blocked[w] : 0;
+			if ((s.fires[i] & ~f) != 0 || (s.blocked[i] & ~b) != 0)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean equals(@Nullable Object other) {
+		if (other == this)
+			return true;
+		if (!(other instanceof SyncSet))
+			return false;
+		SyncSet s = (SyncSet) other;
+		return contains(s) && s.contains(this);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int hashCode() {
+		int h = 0;
+		for (int i = 0; i < fires.length; i++)
+			if (fires[i] != 0 || blocked[i] != 0)
+				h += (offset + i) * 31 + Long.hashCode(fires[i]) * 17 + Long.hashCode(blocked[i]);
+		return h;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String toString() {
+		return offset + ":" + Arrays.toString(fires) + "/" + Arrays.toString(blocked);
+	}
+}
@@ -87,6 +87,17 @@ public final class Distribution implements Term {
 		return new Distribution(_distr);
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Term substitute(Map<Variable, Term> map) {
+		Map<Term, Term> _distr = new HashMap<>();
+		for (Map.Entry<Term, Term> entry : distr.entrySet())
+			_distr.put(entry.getKey().substitute(map), entry.getValue().substitute(map));
+		return new Distribution(_distr);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
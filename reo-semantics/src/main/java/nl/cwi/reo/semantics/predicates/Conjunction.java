@@ -41,6 +41,22 @@ public final class Conjunction implements Formula {
 	 */
 	private final Set<Variable> vars;
 
+	/**
+	 * List of clauses, where nested conjunctions are replaced by their
+	 * clauses.
+	 */
+	private final List<Formula> flat;
+
+	/**
+	 * Hash code of this conjunction.
+	 */
+	private final int hash;
+
+	/**
+	 * Recent substitutions into this formula.
+	 */
+	private transient volatile @Nullable Substitution<Formula> memo;
+
 	/**
 	 * Constructs the conjunction of a list of formulas.
 	 * 
@@ -48,11 +64,19 @@ public final class Conjunction implements Formula {
 	 *            collection of formulas
 	 */
 	public Conjunction(Collection<Formula> clauses) {
-		this.clauses = Collections.unmodifiableSet(new HashSet<>(clauses));
+		this.clauses = Collections.unmodifiableSet(new HashSet<>(Interner.internAll(clauses)));
 		Set<Variable> vars = new HashSet<Variable>();
 		for (Formula f : clauses)
 			vars.addAll(f.getFreeVariables());
 		this.vars = Collections.unmodifiableSet(vars);
+		List<Formula> flat = new ArrayList<>();
+		for (Formula f : this.clauses)
+			if (f instanceof Conjunction)
+				flat.addAll(((Conjunction) f).flat);
+			else
+				flat.add(f);
+		this.flat = Collections.unmodifiableList(flat);
+		this.hash = flat.hashCode();
 	}
 
 	/**
@@ -61,13 +85,7 @@ public final class Conjunction implements Formula {
 	 * @return list of clauses of this conjunction.
 	 */
 	public List<Formula> getClauses() {
-		List<Formula> listF = new ArrayList<>();
-		for(Formula f : clauses)
-			if(f instanceof Conjunction)
-				listF.addAll(((Conjunction) f).getClauses());
-			else
-				listF.add(f);
-		return listF;
+		return new ArrayList<>(flat);
 	}
 
 	/**
@@ -173,10 +191,28 @@ public final class Conjunction implements Formula {
 	public Formula substitute(Term t, Variable x) {
 		if (!vars.contains(x))
 			return this;
+		Formula memoized = Substitution.find(memo, t, x);
+		if (memoized != null)
+			return memoized;
 		List<Formula> _clauses = new ArrayList<>();
 		for (Formula f : clauses)
 			_clauses.add(f.substitute(t, x));
-		return new Conjunction(_clauses);
+		Formula result = Interner.intern(new Conjunction(_clauses));
+		memo = Substitution.add(memo, t, x, result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		if (!Substitution.affects(vars, map))
+			return this;
+		List<Formula> _clauses = new ArrayList<>();
+		for (Formula f : clauses)
+			_clauses.add(f.substitute(map));
+		return Interner.intern(new Conjunction(_clauses));
 	}
 
 
@@ -210,7 +246,8 @@ public final class Conjunction implements Formula {
 			return true;
 		if (!(other instanceof Conjunction))
 			return false;
-		return Objects.equals(this.getClauses(), ((Conjunction) other).getClauses());
+		Conjunction c = (Conjunction) other;
+		return hash == c.hash && Objects.equals(this.flat, c.flat);
 	}
 
 	/**
@@ -228,7 +265,7 @@ public final class Conjunction implements Formula {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(clauses);
+		return hash;
 	}
 
 	@Override
@@ -300,5 +337,14 @@ public final class Conjunction implements Formula {
 		return set;
 	}
 
-
+	/**
+	 * Replaces a deserialized formula by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical formula identical to this formula.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Conjunction(clauses));
+	}
 }
@@ -61,6 +61,14 @@ public final class Constant implements Term {
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Term substitute(Map<Variable, Term> map) {
+		return this;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -37,6 +37,21 @@ public final class Disjunction implements Formula {
 	 */
 	private final Set<Variable> vars;
 
+	/**
+	 * Set of clauses in this disjunction.
+	 */
+	private final Set<Formula> set;
+
+	/**
+	 * Hash code of this disjunction.
+	 */
+	private final int hash;
+
+	/**
+	 * Recent substitutions into this formula.
+	 */
+	private transient volatile @Nullable Substitution<Formula> memo;
+
 	/**
 	 * Constructs the disjunction of a list of formulas.
 	 * 
@@ -44,11 +59,13 @@ public final class Disjunction implements Formula {
 	 *            list of formulas
 	 */
 	public Disjunction(List<Formula> clauses) {
-		this.clauses = Collections.unmodifiableList(new ArrayList<>(clauses));
+		this.clauses = Collections.unmodifiableList(Interner.internAll(clauses));
 		Set<Variable> vars = new HashSet<Variable>();
 		for (Formula f : clauses)
 			vars.addAll(f.getFreeVariables());
 		this.vars = Collections.unmodifiableSet(vars);
+		this.set = Collections.unmodifiableSet(new HashSet<>(this.clauses));
+		this.hash = Objects.hash(this.set);
 	}
 
 	/**
@@ -149,10 +166,28 @@ public final class Disjunction implements Formula {
 	public Formula substitute(Term t, Variable x) {
 		if (!vars.contains(x))
 			return this;
+		Formula memoized = Substitution.find(memo, t, x);
+		if (memoized != null)
+			return memoized;
 		List<Formula> _clauses = new ArrayList<>();
 		for (Formula f : clauses)
 			_clauses.add(f.substitute(t, x));
-		return new Disjunction(_clauses);
+		Formula result = Interner.intern(new Disjunction(_clauses));
+		memo = Substitution.add(memo, t, x, result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		if (!Substitution.affects(vars, map))
+			return this;
+		List<Formula> _clauses = new ArrayList<>();
+		for (Formula f : clauses)
+			_clauses.add(f.substitute(map));
+		return Interner.intern(new Disjunction(_clauses));
 	}
 	
 
@@ -201,10 +236,8 @@ public final class Disjunction implements Formula {
 			return true;
 		if (!(other instanceof Disjunction))
 			return false;
-		Set<Formula> s = new HashSet<>(this.getClauses());
-		Set<Formula> s2 = new HashSet<>(((Disjunction) other).getClauses());
-
-		return Objects.equals(s, s2);
+		Disjunction d = (Disjunction) other;
+		return hash == d.hash && Objects.equals(set, d.set);
 	}
 
 	/**
@@ -212,8 +245,7 @@ public final class Disjunction implements Formula {
 	 */
 	@Override
 	public int hashCode() {
-		Set<Formula> s = new HashSet<>(clauses);
-		return Objects.hash(s);
+		return hash;
 	}
 
 	
@@ -226,4 +258,14 @@ public final class Disjunction implements Formula {
 		return s;
 	}
 
+	/**
+	 * Replaces a deserialized formula by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical formula identical to this formula.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Disjunction(clauses));
+	}
 }
@@ -40,6 +40,16 @@ public final class Equality implements Formula {
 	 */
 	private final Set<Variable> vars;
 
+	/**
+	 * Hash code of this equality.
+	 */
+	private final int hash;
+
+	/**
+	 * Recent substitutions into this formula.
+	 */
+	private transient volatile @Nullable Substitution<Formula> memo;
+
 	/**
 	 * Constructs an equality of two terms.
 	 * 
@@ -49,11 +59,13 @@ public final class Equality implements Formula {
 	 *            right-hand-side term.
 	 */
 	public Equality(Term t1, Term t2) {
-		this.t1 = t1;
-		this.t2 = t2;
+		this.t1 = Interner.intern(t1);
+		this.t2 = Interner.intern(t2);
 		Set<Variable> vars = new HashSet<>(t1.getFreeVariables());
 		vars.addAll(t2.getFreeVariables());
 		this.vars = Collections.unmodifiableSet(vars);
+		// Symmetric, because equality is symmetric.
+		this.hash = t1.hashCode() + t2.hashCode();
 	}
 
 	/**
@@ -141,7 +153,22 @@ public final class Equality implements Formula {
 	public Formula substitute(Term t, Variable x) {
 		if (!vars.contains(x))
 			return this;
-		return new Equality(t1.substitute(t, x), t2.substitute(t, x));
+		Formula memoized = Substitution.find(memo, t, x);
+		if (memoized != null)
+			return memoized;
+		Formula result = Interner.intern(new Equality(t1.substitute(t, x), t2.substitute(t, x)));
+		memo = Substitution.add(memo, t, x, result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		if (!Substitution.affects(vars, map))
+			return this;
+		return Interner.intern(new Equality(t1.substitute(map), t2.substitute(map)));
 	}
 
 	/**
@@ -186,6 +213,8 @@ public final class Equality implements Formula {
 		if (!(other instanceof Equality))
 			return false;
 		Equality eq = (Equality) other;
+		if (hash != eq.hash)
+			return false;
 		return (Objects.equals(this.t1, eq.t1) && Objects.equals(this.t2, eq.t2))
 				|| Objects.equals(this.t1, eq.t2) && Objects.equals(this.t2, eq.t1);
 	}
@@ -287,7 +316,7 @@ public final class Equality implements Formula {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.t1, this.t2);
+		return hash;
 	}
 
 	@Override
@@ -304,4 +333,15 @@ public final class Equality implements Formula {
 		_set.add(set);
 		return _set;
 	}
+
+	/**
+	 * Replaces a deserialized formula by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical formula identical to this formula.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Equality(t1, t2));
+	}
 }
@@ -35,6 +35,11 @@ public final class Existential implements Formula {
 	 */
 	private final Set<Variable> vars;
 
+	/**
+	 * Hash code of this existential quantification.
+	 */
+	private final int hash;
+
 	/**
 	 * Constructs an existential quantification of a variable in a formula.
 	 * 
@@ -44,11 +49,12 @@ public final class Existential implements Formula {
 	 *            formula
 	 */
 	public Existential(Variable x, Formula f) {
-		this.x = x;
-		this.f = f;
+		this.x = Interner.intern(x);
+		this.f = Interner.intern(f);
 		Set<Variable> vars = new HashSet<>(f.getFreeVariables());
 		vars.remove(x);
 		this.vars = Collections.unmodifiableSet(vars);
+		this.hash = Objects.hash(this.x, this.f);
 	}
 
 	/**
@@ -60,6 +66,15 @@ public final class Existential implements Formula {
 		return x;
 	}
 
+	/**
+	 * Gets the quantified formula.
+	 * 
+	 * @return quantified formula.
+	 */
+	public Formula getFormula() {
+		return f;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -130,6 +145,18 @@ public final class Existential implements Formula {
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		if (map.containsKey(x)) {
+			map = new HashMap<>(map);
+			map.remove(x);
+		}
+		return new Existential(x, f.substitute(map));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -168,7 +195,7 @@ public final class Existential implements Formula {
 		if (!(other instanceof Existential))
 			return false;
 		Existential e = (Existential) other;
-		return Objects.equals(this.x, e.x) && Objects.equals(this.f, e.f);
+		return hash == e.hash && Objects.equals(this.x, e.x) && Objects.equals(this.f, e.f);
 	}
 
 	@Override
@@ -180,7 +207,7 @@ public final class Existential implements Formula {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.x, this.f);
+		return hash;
 	}
 
 	@Override
@@ -198,4 +225,15 @@ public final class Existential implements Formula {
 				_set.remove(s);
 		return _set;
 	}
+
+	/**
+	 * Replaces a deserialized formula by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical formula identical to this formula.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Existential(x, f));
+	}
 }
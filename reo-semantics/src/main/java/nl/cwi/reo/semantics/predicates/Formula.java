@@ -95,6 +95,17 @@ public interface Formula extends Expression<Formula> {
 	 */
 	public Formula substitute(Term t, Variable x);
 
+	/**
+	 * Simultaneously substitutes, for every variable x in the domain of a
+	 * map, the term assigned to x for every occurrence of x in this formula.
+	 * Substituted terms are not substituted again.
+	 * 
+	 * @param map
+	 *            map that assigns a substituted term to a free variable
+	 * @return substituted formula.
+	 */
+	public Formula substitute(Map<Variable, Term> map);
+
 	/**
 	 * Tries to determine which variables in this formula must evaluate to null
 	 * and which variables must evaluate to a non-null datum.
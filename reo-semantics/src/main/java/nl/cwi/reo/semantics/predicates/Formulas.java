@@ -229,7 +229,7 @@ public class Formulas {
 		case 1:
 			return _clauses.get(0);
 		default:
-			return new Conjunction(_clauses);
+			return Interner.intern(new Conjunction(_clauses));
 		}
 	}
 
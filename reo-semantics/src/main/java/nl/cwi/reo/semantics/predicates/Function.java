@@ -1,6 +1,7 @@
 package nl.cwi.reo.semantics.predicates;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -54,6 +55,16 @@ public final class Function implements Term {
 	 */
 	private final Set<Variable> vars;
 
+	/**
+	 * Hash code of this function.
+	 */
+	private final int hash;
+
+	/**
+	 * Recent substitutions into this term.
+	 */
+	private transient volatile @Nullable Substitution<Term> memo;
+
 	/**
 	 * Constructs a new function from a name, a value, and a list of arguments.
 	 *
@@ -68,13 +79,14 @@ public final class Function implements Term {
 	 */
 	public Function(String name, List<Term> args, boolean infix, TypeTag tag) {
 		this.name = name;
-		this.args = args;
+		this.args = Collections.unmodifiableList(Interner.internAll(args));
 		this.infix = infix;
 		this.tag = tag;
 		Set<Variable> vars = new HashSet<Variable>();
 		for (Term t : args)
 			vars.addAll(t.getFreeVariables());
 		this.vars = vars;
+		this.hash = Objects.hash(name, this.args);
 	}
 
 	/**
@@ -134,10 +146,28 @@ public final class Function implements Term {
 	public Term substitute(Term t, Variable x) {
 		if (!vars.contains(x))
 			return this;
+		Term memoized = Substitution.find(memo, t, x);
+		if (memoized != null)
+			return memoized;
 		List<Term> _args = new ArrayList<>();
 		for (Term u : args)
 			_args.add(u.substitute(t, x));
-		return new Function(name, _args, infix, tag);
+		Term result = Interner.intern(new Function(name, _args, infix, tag));
+		memo = Substitution.add(memo, t, x, result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Term substitute(Map<Variable, Term> map) {
+		if (!Substitution.affects(vars, map))
+			return this;
+		List<Term> _args = new ArrayList<>();
+		for (Term u : args)
+			_args.add(u.substitute(map));
+		return Interner.intern(new Function(name, _args, infix, tag));
 	}
 
 	/**
@@ -209,7 +239,7 @@ public final class Function implements Term {
 		if (!(other instanceof Function))
 			return false;
 		Function func = (Function) other;
-		return Objects.equals(name, func.name) && Objects.equals(args, func.args);
+		return hash == func.hash && Objects.equals(name, func.name) && Objects.equals(args, func.args);
 	}
 
 	/**
@@ -217,7 +247,7 @@ public final class Function implements Term {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(name, this.args);
+		return hash;
 	}
 
 	@Override
@@ -237,5 +267,14 @@ public final class Function implements Term {
 			return setTag(getTypeTag());
 	}
 
+	/**
+	 * Replaces a deserialized term by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical term identical to this term.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Function(name, args, infix, tag));
+	}
 }
-
@@ -0,0 +1,204 @@
+package nl.cwi.reo.semantics.predicates;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.WeakHashMap;
+
+import nl.cwi.reo.interpret.ports.Port;
+
+/**
+ * Hash-conses terms and formulas, such that identical terms and formulas share
+ * a single instance.
+ *
+ * <p>
+ * Two terms or formulas are identical, if they are equal, have the same type
+ * tags, and their subterms and subformulas are identical. Identity is finer
+ * than equality, since equality of terms ignores type tags. Hence, a canonical
+ * instance never replaces a typed term by an untyped term.
+ *
+ * <p>
+ * The constructors of composite terms and formulas intern their arguments.
+ * Therefore, every subterm and subformula is canonical, and identity of two
+ * equal instances is decided by comparing their arguments by reference.
+ *
+ * <p>
+ * The table refers to its canonical instances only weakly. A canonical
+ * instance is removed from the table once no formula uses it anymore.
+ */
+public final class Interner {
+
+	/** Number of independently locked tables. */
+	private static final int STRIPES = 16;
+
+	/**
+	 * Tables that assign to a term or formula the list of canonical instances
+	 * that are equal to it.
+	 */
+	private static final List<Map<Object, List<WeakReference<Object>>>> tables = new ArrayList<>();
+
+	static {
+		for (int i = 0; i < STRIPES; i++)
+			tables.add(new WeakHashMap<Object, List<WeakReference<Object>>>());
+	}
+
+	/**
+	 * Prevents instantiation.
+	 */
+	private Interner() {
+	}
+
+	/**
+	 * Gets the canonical instance of a term.
+	 *
+	 * @param <T>
+	 *            the type of the term
+	 * @param t
+	 *            term
+	 * @return canonical term identical to t.
+	 */
+	public static <T extends Term> T intern(T t) {
+		return canonical(t);
+	}
+
+	/**
+	 * Gets the canonical instance of a formula.
+	 *
+	 * @param <F>
+	 *            the type of the formula
+	 * @param f
+	 *            formula
+	 * @return canonical formula identical to f.
+	 */
+	public static <F extends Formula> F intern(F f) {
+		return canonical(f);
+	}
+
+	/**
+	 * Gets the canonical instances of a list of terms or formulas.
+	 *
+	 * @param <P>
+	 *            the type of the terms or formulas
+	 * @param list
+	 *            collection of terms or formulas
+	 * @return list of canonical instances.
+	 */
+	static <P> List<P> internAll(Iterable<? extends P> list) {
+		List<P> _list = new ArrayList<>();
+		for (P p : list)
+			_list.add(canonical(p));
+		return _list;
+	}
+
+	/**
+	 * Checks whether two terms or formulas are identical.
+	 *
+	 * @param p
+	 *            term or formula
+	 * @param q
+	 *            term or formula
+	 * @return true, if p and q are equal, have the same type tags, and their
+	 *         arguments are identical.
+	 */
+	static boolean identical(Object p, Object q) {
+		if (p == q)
+			return true;
+		if (p.getClass() != q.getClass() || !p.equals(q))
+			return false;
+		if (p instanceof Term && !Objects.equals(((Term) p).getTypeTag(), ((Term) q).getTypeTag()))
+			return false;
+		if (p instanceof PortVariable && !identical(((PortVariable) p).getPort(), ((PortVariable) q).getPort()))
+			return false;
+		if (p instanceof Function && ((Function) p).getInfix() != ((Function) q).getInfix())
+			return false;
+		if (p instanceof Relation && ((Relation) p).isInfix() != ((Relation) q).isInfix())
+			return false;
+		List<?> a = getArguments(p);
+		List<?> b = getArguments(q);
+		if (a.size() != b.size())
+			return false;
+		for (int i = 0; i < a.size(); i++)
+			if (!identical(a.get(i), b.get(i)))
+				return false;
+		return true;
+	}
+
+	/**
+	 * Gets the canonical instance of a term or formula.
+	 *
+	 * @param <P>
+	 *            the type of the term or formula
+	 * @param p
+	 *            term or formula
+	 * @return canonical instance identical to p.
+	 */
+	@SuppressWarnings("unchecked")
+	private static <P> P canonical(P p) {
+		Map<Object, List<WeakReference<Object>>> table = tables.get((p.hashCode() & 0x7fffffff) % STRIPES);
+		synchronized (table) {
+			List<WeakReference<Object>> list = table.get(p);
+			if (list == null) {
+				list = new ArrayList<>(1);
+				table.put(p, list);
+			}
+			Iterator<WeakReference<Object>> iter = list.iterator();
+			while (iter.hasNext()) {
+				Object q = iter.next().get();
+				if (q == null)
+					iter.remove();
+				else if (identical(p, q))
+					return (P) q;
+			}
+			list.add(new WeakReference<Object>(p));
+			return p;
+		}
+	}
+
+	/**
+	 * Checks whether two ports agree on all their attributes.
+	 *
+	 * @param p
+	 *            port
+	 * @param q
+	 *            port
+	 * @return true, if p and q have the same name, type, priority, type tag,
+	 *         and visibility.
+	 */
+	private static boolean identical(Port p, Port q) {
+		return p == q || (Objects.equals(p.getName(), q.getName()) && p.getType() == q.getType()
+				&& p.getPrioType() == q.getPrioType() && Objects.equals(p.getTypeTag(), q.getTypeTag())
+				&& p.isHidden() == q.isHidden());
+	}
+
+	/**
+	 * Gets the arguments of a composite term or formula.
+	 *
+	 * @param p
+	 *            term or formula
+	 * @return list of subterms and subformulas of p.
+	 */
+	private static List<?> getArguments(Object p) {
+		if (p instanceof Conjunction)
+			return ((Conjunction) p).getClauses();
+		if (p instanceof Disjunction)
+			return ((Disjunction) p).getClauses();
+		if (p instanceof Negation)
+			return Collections.singletonList(((Negation) p).getFormula());
+		if (p instanceof Equality)
+			return Arrays.asList(((Equality) p).getLHS(), ((Equality) p).getRHS());
+		if (p instanceof Relation)
+			return ((Relation) p).getArgs();
+		if (p instanceof Function)
+			return ((Function) p).getArgs();
+		if (p instanceof Existential)
+			return Arrays.asList(((Existential) p).getVariable(), ((Existential) p).getFormula());
+		if (p instanceof Universal)
+			return Arrays.asList(((Universal) p).getVariable(), ((Universal) p).getFormula());
+		return Collections.emptyList();
+	}
+}
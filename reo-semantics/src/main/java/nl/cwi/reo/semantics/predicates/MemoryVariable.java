@@ -135,6 +135,15 @@ public final class MemoryVariable implements Variable, Comparable<MemoryVariable
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Term substitute(Map<Variable, Term> map) {
+		Term t = map.get(this);
+		return t != null ? t : this;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -30,6 +30,16 @@ public final class Negation implements Formula {
 	 */
 	private final Formula f;
 
+	/**
+	 * Hash code of this negation.
+	 */
+	private final int hash;
+
+	/**
+	 * Recent substitutions into this formula.
+	 */
+	private transient volatile @Nullable Substitution<Formula> memo;
+
 	/**
 	 * Constructs a new negation of an original predicate.
 	 *
@@ -37,7 +47,8 @@ public final class Negation implements Formula {
 	 *            original predicate
 	 */
 	public Negation(Formula f) {
-		this.f = f;
+		this.f = Interner.intern(f);
+		this.hash = Objects.hash(f);
 	}
 
 	/**
@@ -128,7 +139,24 @@ public final class Negation implements Formula {
 	 */
 	@Override
 	public Formula substitute(Term t, Variable x) {
-		return new Negation(f.substitute(t, x));
+		if (!f.getFreeVariables().contains(x))
+			return this;
+		Formula memoized = Substitution.find(memo, t, x);
+		if (memoized != null)
+			return memoized;
+		Formula result = Interner.intern(new Negation(f.substitute(t, x)));
+		memo = Substitution.add(memo, t, x, result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		if (!Substitution.affects(f.getFreeVariables(), map))
+			return this;
+		return Interner.intern(new Negation(f.substitute(map)));
 	}
 
 	/**
@@ -174,7 +202,7 @@ public final class Negation implements Formula {
 		if (!(other instanceof Negation))
 			return false;
 		Negation n = (Negation) other;
-		return Objects.equals(f, n.getFormula());
+		return hash == n.hash && Objects.equals(f, n.getFormula());
 	}
 
 	@Override
@@ -186,7 +214,7 @@ public final class Negation implements Formula {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(f);
+		return hash;
 	}
 
 	@Override
@@ -218,4 +246,15 @@ public final class Negation implements Formula {
 		}
 		return set;
 	}
+
+	/**
+	 * Replaces a deserialized formula by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical formula identical to this formula.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Negation(f));
+	}
 }
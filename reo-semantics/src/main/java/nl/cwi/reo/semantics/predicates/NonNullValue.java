@@ -51,6 +51,14 @@ public final class NonNullValue implements Term {
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Term substitute(Map<Variable, Term> map) {
+		return this;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -80,4 +88,13 @@ public final class NonNullValue implements Term {
 		return this;
 	}
 
-}
\ No newline at end of file
+	/**
+	 * Replaces a deserialized non-null value by {@link Terms#NonNull}, which is
+	 * compared by reference.
+	 * 
+	 * @return {@link Terms#NonNull}
+	 */
+	private Object readResolve() {
+		return Terms.NonNull;
+	}
+}
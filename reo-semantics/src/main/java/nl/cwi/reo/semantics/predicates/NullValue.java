@@ -47,6 +47,14 @@ public final class NullValue implements Term {
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Term substitute(Map<Variable, Term> map) {
+		return this;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -77,4 +85,13 @@ public final class NullValue implements Term {
 		return this;
 	}
 
+	/**
+	 * Replaces a deserialized null value by {@link Terms#Null}, which is
+	 * compared by reference.
+	 * 
+	 * @return {@link Terms#Null}
+	 */
+	private Object readResolve() {
+		return Terms.Null;
+	}
 }
@@ -105,6 +105,19 @@ public final class PortVariable implements Variable {
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Term substitute(Map<Variable, Term> map) {
+		Term t = map.get(this);
+		if (t == null)
+			return this;
+		if (t instanceof PortVariable)
+			return new PortVariable(((PortVariable) t).getPort());
+		return t;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
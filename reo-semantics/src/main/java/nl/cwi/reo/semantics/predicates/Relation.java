@@ -52,6 +52,16 @@ public final class Relation implements Formula {
 	 */
 	private final Set<Variable> vars;
 
+	/**
+	 * Hash code of this relation.
+	 */
+	private final int hash;
+
+	/**
+	 * Recent substitutions into this formula.
+	 */
+	private transient volatile @Nullable Substitution<Formula> memo;
+
 	/**
 	 * Constructs a new relation with a given name and a given list of
 	 * arguments.
@@ -65,12 +75,13 @@ public final class Relation implements Formula {
 	 */
 	public Relation(String name, Collection<Term> args, boolean infix) {
 		this.name = name;
-		this.args = Collections.unmodifiableList(new ArrayList<>(args));
+		this.args = Collections.unmodifiableList(Interner.internAll(args));
 		this.infix = infix;
 		Set<Variable> vars = new HashSet<Variable>();
 		for (Term t : args)
 			vars.addAll(t.getFreeVariables());
 		this.vars = Collections.unmodifiableSet(vars);
+		this.hash = Objects.hash(this.name, this.args);
 	}
 
 	/**
@@ -194,10 +205,28 @@ public final class Relation implements Formula {
 	public Formula substitute(Term t, Variable x) {
 		if (!vars.contains(x))
 			return this;
+		Formula memoized = Substitution.find(memo, t, x);
+		if (memoized != null)
+			return memoized;
 		List<Term> _args = new ArrayList<>();
 		for (Term u : args)
 			_args.add(u.substitute(t, x));
-		return new Relation(name, _args, infix);
+		Formula result = Interner.intern(new Relation(name, _args, infix));
+		memo = Substitution.add(memo, t, x, result);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		if (!Substitution.affects(vars, map))
+			return this;
+		List<Term> _args = new ArrayList<>();
+		for (Term u : args)
+			_args.add(u.substitute(map));
+		return Interner.intern(new Relation(name, _args, infix));
 	}
 
 	/**
@@ -248,7 +277,7 @@ public final class Relation implements Formula {
 		if (!(other instanceof Relation))
 			return false;
 		Relation p = (Relation) other;
-		return Objects.equals(this.name, p.name) && Objects.equals(this.args, p.args);
+		return hash == p.hash && Objects.equals(this.name, p.name) && Objects.equals(this.args, p.args);
 	}
 
 	@Override
@@ -297,7 +326,7 @@ public final class Relation implements Formula {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.name, this.args);
+		return hash;
 	}
 
 	@Override
@@ -333,4 +362,14 @@ public final class Relation implements Formula {
 		return s;
 	}
 
+	/**
+	 * Replaces a deserialized formula by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical formula identical to this formula.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Relation(name, args, infix));
+	}
 }
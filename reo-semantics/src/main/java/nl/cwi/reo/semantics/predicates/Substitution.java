@@ -0,0 +1,141 @@
+package nl.cwi.reo.semantics.predicates;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Result of substituting a term for a variable in a formula or term. Formulas
+ * and terms keep a list of their most recent substitutions, which answers a
+ * repeated substitution without traversing all subterms again.
+ *
+ * @param <R>
+ *            the type of the result
+ */
+final class Substitution<R> {
+
+	/** Maximum number of substitutions that a formula or term keeps. */
+	private static final int SIZE = 8;
+
+	/** Substituted term. */
+	private final Term t;
+
+	/** Replaced variable. */
+	private final Variable x;
+
+	/** Result of the substitution. */
+	private final R result;
+
+	/** Less recent substitution, if any. */
+	private final @Nullable Substitution<R> next;
+
+	/** Number of substitutions in the list that starts here. */
+	private final int size;
+
+	/**
+	 * Constructs the result of a substitution.
+	 *
+	 * @param t
+	 *            substituted term
+	 * @param x
+	 *            replaced variable
+	 * @param result
+	 *            result of the substitution
+	 * @param next
+	 *            less recent substitution
+	 */
+	private Substitution(Term t, Variable x, R result, @Nullable Substitution<R> next) {
+		this.t = t;
+		this.x = x;
+		this.result = result;
+		this.next = next;
+		this.size = next == null ? 1 : next.size + 1;
+	}
+
+	/**
+	 * Finds the result of substituting a term for a variable. The term must
+	 * be identical to the substituted term, because equality of terms ignores
+	 * their type tags.
+	 *
+	 * @param <R>
+	 *            the type of the result
+	 * @param s
+	 *            most recent substitution, or null
+	 * @param t
+	 *            substituted term
+	 * @param x
+	 *            replaced variable
+	 * @return result of substituting t for x, or null if it is not kept.
+	 */
+	static <R> @Nullable R find(@Nullable Substitution<R> s, Term t, Variable x) {
+		for (; s != null; s = s.next)
+			if (s.x.equals(x) && Interner.identical(s.t, t))
+				return s.result;
+		return null;
+	}
+
+	/**
+	 * Adds the result of a substitution to a list of substitutions, and drops
+	 * the least recent substitution if the list is full.
+	 *
+	 * @param <R>
+	 *            the type of the result
+	 * @param s
+	 *            most recent substitution, or null
+	 * @param t
+	 *            substituted term
+	 * @param x
+	 *            replaced variable
+	 * @param result
+	 *            result of substituting t for x
+	 * @return list of substitutions that starts with the new substitution.
+	 */
+	static <R> Substitution<R> add(@Nullable Substitution<R> s, Term t, Variable x, R result) {
+		return new Substitution<R>(t, x, result, copy(s, SIZE - 1));
+	}
+
+	/**
+	 * Copies the most recent substitutions of a list. The copy shares the
+	 * substitutions that it keeps entirely.
+	 *
+	 * @param <R>
+	 *            the type of the result
+	 * @param s
+	 *            most recent substitution, or null
+	 * @param n
+	 *            maximum number of substitutions to keep
+	 * @return list of at most n substitutions.
+	 */
+	private static <R> @Nullable Substitution<R> copy(@Nullable Substitution<R> s, int n) {
+		if (s == null || n == 0)
+			return null;
+		if (s.size <= n)
+			return s;
+		return new Substitution<R>(s.t, s.x, s.result, copy(s.next, n - 1));
+	}
+
+	/**
+	 * Checks whether a simultaneous substitution affects a formula or term
+	 * with a given set of free variables. The smaller of both sets is
+	 * traversed.
+	 *
+	 * @param vars
+	 *            free variables
+	 * @param map
+	 *            map that assigns a substituted term to a variable
+	 * @return true, if some free variable is substituted.
+	 */
+	static boolean affects(Set<Variable> vars, Map<Variable, Term> map) {
+		if (vars.size() <= map.size()) {
+			for (Variable v : vars)
+				if (map.containsKey(v))
+					return true;
+		} else {
+			for (Variable v : map.keySet())
+				if (vars.contains(v))
+					return true;
+		}
+		return false;
+	}
+}
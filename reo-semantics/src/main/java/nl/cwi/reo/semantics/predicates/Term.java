@@ -35,6 +35,17 @@ public interface Term extends Expression<Term> {
 	 */
 	public Term substitute(Term t, Variable x);
 
+	/**
+	 * Simultaneously substitutes, for every variable x in the domain of a
+	 * map, the term assigned to x for every occurrence of x in this term.
+	 * Substituted terms are not substituted again.
+	 * 
+	 * @param map
+	 *            map that assigns a substituted term to a free variable
+	 * @return substituted term.
+	 */
+	public Term substitute(Map<Variable, Term> map);
+
 	/**
 	 * Gets the set of all free variables in this term.
 	 * 
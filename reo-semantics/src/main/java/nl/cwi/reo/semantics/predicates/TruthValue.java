@@ -103,6 +103,14 @@ public final class TruthValue implements Formula {
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		return this;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
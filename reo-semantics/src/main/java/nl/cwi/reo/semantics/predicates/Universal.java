@@ -35,6 +35,11 @@ public final class Universal implements Formula {
 	 */
 	private final Set<Variable> vars;
 
+	/**
+	 * Hash code of this universal quantification.
+	 */
+	private final int hash;
+
 	/**
 	 * Constructs an universal quantification of a variable in a formula.
 	 * 
@@ -44,11 +49,12 @@ public final class Universal implements Formula {
 	 *            formula
 	 */
 	public Universal(Variable x, Formula f) {
-		this.x = x;
-		this.f = f;
+		this.x = Interner.intern(x);
+		this.f = Interner.intern(f);
 		Set<Variable> vars = new HashSet<>(f.getFreeVariables());
 		vars.remove(x);
 		this.vars = Collections.unmodifiableSet(vars);
+		this.hash = Objects.hash(this.x, this.f);
 	}
 
 	/**
@@ -140,6 +146,18 @@ public final class Universal implements Formula {
 		return this;
 	}
 
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Formula substitute(Map<Variable, Term> map) {
+		if (map.containsKey(x)) {
+			map = new HashMap<>(map);
+			map.remove(x);
+		}
+		return new Universal(x, f.substitute(map));
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -178,7 +196,7 @@ public final class Universal implements Formula {
 		if (!(other instanceof Universal))
 			return false;
 		Universal u = (Universal) other;
-		return Objects.equals(this.x, u.x) && Objects.equals(this.f, u.f);
+		return hash == u.hash && Objects.equals(this.x, u.x) && Objects.equals(this.f, u.f);
 	}
 
 	/**
@@ -186,7 +204,7 @@ public final class Universal implements Formula {
 	 */
 	@Override
 	public int hashCode() {
-		return Objects.hash(this.x, this.f);
+		return hash;
 	}
 
 	@Override
@@ -206,4 +224,14 @@ public final class Universal implements Formula {
 		return null;
 	}
 
+	/**
+	 * Replaces a deserialized formula by its canonical instance, and recomputes
+	 * its hash code, since the hash codes of its arguments need not survive
+	 * serialization.
+	 * 
+	 * @return canonical formula identical to this formula.
+	 */
+	private Object readResolve() {
+		return Interner.intern(new Universal(x, f));
+	}
 }
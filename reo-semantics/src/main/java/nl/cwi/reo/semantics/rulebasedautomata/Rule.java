@@ -1,5 +1,6 @@
 package nl.cwi.reo.semantics.rulebasedautomata;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -27,7 +28,7 @@ import nl.cwi.reo.semantics.predicates.Terms;
 import nl.cwi.reo.semantics.predicates.Variable;
 import nl.cwi.reo.util.Monitor;
 
-public class Rule {
+public class Rule implements Serializable {
 
 	private final Map<Port, Boolean> sync;
 
@@ -75,7 +76,7 @@ public class Rule {
 			this.sync = _sync;
 		else
 			this.sync = new HashMap<>();
-		this.hash = Objects.hash(sync, f);
+		this.hash = Objects.hash(this.sync, this.f);
 	}
 	
 	public Rule(Formula f) {
@@ -106,10 +107,20 @@ public class Rule {
 		}
 		else
 			this.sync = new HashMap<>();
-		this.hash = Objects.hash(sync, f);
+		this.hash = Objects.hash(this.sync, this.f);
 		
 	}
 
+	/**
+	 * Rebuilds a deserialized rule, such that its hash code is recomputed
+	 * from its deserialized formula.
+	 * 
+	 * @return rule with the same formula.
+	 */
+	private Object readResolve() {
+		return new Rule(f);
+	}
+
 	public Map<Port, Boolean> getSync() {
 		return sync;
 	}
@@ -150,10 +161,7 @@ public class Rule {
 	}
 
 	public Rule renameMemory(Map<MemoryVariable, MemoryVariable> rename) {
-		Formula _f = f;
-		for (Map.Entry<MemoryVariable, MemoryVariable> entry : rename.entrySet())
-			_f = _f.substitute(entry.getValue(), entry.getKey());
-		return new Rule(_f);
+		return new Rule(f.substitute(new HashMap<Variable, Term>(rename)));
 	}
 
 	public Rule restrict(Collection<? extends Port> intface) {
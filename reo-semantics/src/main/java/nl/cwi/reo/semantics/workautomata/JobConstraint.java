@@ -1,5 +1,6 @@
 package nl.cwi.reo.semantics.workautomata;
 
+import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.SortedMap;
@@ -15,7 +16,7 @@ import java.util.Map.Entry;
  * A job constraint that is used in
  * {@link nl.cwi.reo.semantics.workautomata.WorkAutomaton}.
  */
-public final class JobConstraint implements Comparable<JobConstraint> {
+public final class JobConstraint implements Serializable, Comparable<JobConstraint> {
 
 	/**
 	 * Satisfiability.
@@ -0,0 +1,141 @@
+package nl.cwi.reo.semantics.workautomata;
+
+import java.util.Arrays;
+
+/**
+ * Set of global states of a product of work automata. A global state is a
+ * tuple of local state numbers, one for each work automaton. All tuples are
+ * packed into a single int array, and every tuple is numbered in the order in
+ * which it is added.
+ */
+final class ProductStates {
+
+	/**
+	 * Length of every tuple.
+	 */
+	private final int arity;
+
+	/**
+	 * Concatenation of all tuples, ordered by their number.
+	 */
+	private int[] tuples;
+
+	/**
+	 * Open addressing hash table that contains the number plus one of every
+	 * tuple, and zero for an empty slot.
+	 */
+	private int[] table;
+
+	/**
+	 * Number of tuples.
+	 */
+	private int size;
+
+	/**
+	 * Constructs an empty set of tuples.
+	 *
+	 * @param arity
+	 *            length of every tuple
+	 */
+	ProductStates(int arity) {
+		this.arity = arity;
+		this.tuples = new int[16 * arity];
+		this.table = new int[32];
+		this.size = 0;
+	}
+
+	/**
+	 * Gets the number of tuples in this set.
+	 *
+	 * @return number of tuples.
+	 */
+	int size() {
+		return size;
+	}
+
+	/**
+	 * Copies a tuple into a given array.
+	 *
+	 * @param id
+	 *            number of the tuple
+	 * @param tuple
+	 *            array of length at least the arity
+	 */
+	void get(int id, int[] tuple) {
+		System.arraycopy(tuples, id * arity, tuple, 0, arity);
+	}
+
+	/**
+	 * Adds a tuple to this set, if it is not yet contained in this set.
+	 *
+	 * @param tuple
+	 *            array whose first elements form the tuple
+	 * @return the number of the given tuple, which equals the previous size of
+	 *         this set if the tuple is new.
+	 */
+	int add(int[] tuple) {
+		int mask = table.length - 1;
+		for (int h = hash(tuple, 0) & mask;; h = (h + 1) & mask) {
+			int e = table[h];
+			if (e == 0) {
+				if (size * arity == tuples.length)
+					tuples = Arrays.copyOf(tuples, 2 * tuples.length);
+				System.arraycopy(tuple, 0, tuples, size * arity, arity);
+				table[h] = ++size;
+				if (2 * size > table.length)
+					rehash();
+				return size - 1;
+			}
+			if (matches(e - 1, tuple))
+				return e - 1;
+		}
+	}
+
+	/**
+	 * Checks whether a stored tuple equals a given tuple.
+	 *
+	 * @param id
+	 *            number of the stored tuple
+	 * @param tuple
+	 *            array whose first elements form the tuple
+	 * @return true, if the tuples are equal.
+	 */
+	private boolean matches(int id, int[] tuple) {
+		int offset = id * arity;
+		for (int i = 0; i < arity; i++)
+			if (tuples[offset + i] != tuple[i])
+				return false;
+		return true;
+	}
+
+	/**
+	 * Computes the hash of a tuple.
+	 *
+	 * @param a
+	 *            array that contains the tuple
+	 * @param offset
+	 *            index of the first element of the tuple
+	 * @return hash of the tuple.
+	 */
+	private int hash(int[] a, int offset) {
+		int h = 1;
+		for (int i = 0; i < arity; i++)
+			h = 31 * h + a[offset + i];
+		h *= 0x9E3779B9;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Doubles the size of the hash table.
+	 */
+	private void rehash() {
+		table = new int[2 * table.length];
+		int mask = table.length - 1;
+		for (int id = 0; id < size; id++) {
+			int h = hash(tuples, id * arity) & mask;
+			while (table[h] != 0)
+				h = (h + 1) & mask;
+			table[h] = id + 1;
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package nl.cwi.reo.semantics.workautomata;
 
+import java.io.Serializable;
 import java.util.Map;
 import java.util.SortedSet;
 import java.util.TreeSet;
@@ -13,7 +14,7 @@ import nl.cwi.reo.interpret.ports.Port;
  * A work automaton transition that is used in a
  * {@link nl.cwi.reo.semantics.workautomata.WorkAutomaton}.
  */
-public final class Transition implements Comparable<Transition> {
+public final class Transition implements Serializable, Comparable<Transition> {
 
 	/**
 	 * Source state of the transition.
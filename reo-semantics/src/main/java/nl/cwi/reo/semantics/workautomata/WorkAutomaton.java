@@ -2,13 +2,16 @@ package nl.cwi.reo.semantics.workautomata;
 
 import java.io.FileWriter;
 import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.SortedSet;
@@ -32,7 +35,7 @@ import java.util.HashMap;
 public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 
 	/** Set of states. */
-	private final Set<String> Q;
+	private Set<String> Q;
 
 	/** Set of ports. */
 	private final SortedSet<Port> P;
@@ -50,12 +53,23 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	/**
 	 * List of outgoing transitions.
 	 */
-	private final Map<String, Set<Transition>> T;
+	private Map<String, Set<Transition>> T;
 
 	/**
 	 * Initial state.
 	 */
-	private final String q0;
+	private String q0;
+
+	/**
+	 * Numbered global states and transitions of a product that is not yet
+	 * named, or null if the states of this work automaton are named.
+	 */
+	private transient @Nullable Graph graph;
+
+	/**
+	 * Name of every numbered global state, once a product is named.
+	 */
+	private transient @Nullable List<String> names;
 
 	/**
 	 * Constructs a single state work automaton which is the identity with
@@ -99,6 +113,84 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 		this.q0 = q0;
 	}
 
+	/**
+	 * Constructs a product work automaton, whose states are named only once
+	 * they are requested.
+	 * 
+	 * @param P
+	 *            set of ports
+	 * @param graph
+	 *            numbered global states and transitions
+	 */
+	private WorkAutomaton(SortedSet<Port> P, Graph graph) {
+		this.Q = Collections.emptySet();
+		this.P = P;
+		this.J = new HashSet<String>();
+		this.I = new HashMap<String, JobConstraint>();
+		this.T = Collections.emptyMap();
+		this.q0 = "";
+		this.graph = graph;
+	}
+
+	/**
+	 * Names the states and transitions of a product, if they are not yet
+	 * named. The name of a global state joins the names of its local states
+	 * by '|'.
+	 */
+	private synchronized void name() {
+		Graph g = graph;
+		if (g == null)
+			return;
+		int[] s = new int[g.components.size()];
+		List<String[]> local = new ArrayList<String[]>();
+		for (int i = 0; i < s.length; i++) {
+			WorkAutomaton A = g.components.get(i);
+			List<String> names = g.local.get(i);
+			if (names == null) {
+				A.name();
+				names = A.names;
+			}
+			local.add(names.toArray(new String[names.size()]));
+		}
+
+		String[] global = new String[g.S.size()];
+		for (int id = 0; id < global.length; id++) {
+			g.S.get(id, s);
+			StringBuilder str = new StringBuilder(local.get(0)[s[0]]);
+			for (int i = 1; i < s.length; i++)
+				str.append('|').append(local.get(i)[s[i]]);
+			global[id] = str.toString();
+		}
+
+		Set<String> Q = new HashSet<String>();
+		Map<String, Set<Transition>> T = new HashMap<String, Set<Transition>>();
+		for (int id = 0; id < global.length; id++) {
+			Set<Transition> outq = new HashSet<Transition>();
+			for (Edge e : g.out.get(id))
+				outq.add(new Transition(global[id], global[e.target], e.N, e.jc));
+			Q.add(global[id]);
+			T.put(global[id], outq);
+		}
+		this.Q = Q;
+		this.T = T;
+		this.q0 = global[0];
+		this.names = Arrays.asList(global);
+		this.graph = null;
+	}
+
+	/**
+	 * Names the states of a product before it is serialized.
+	 * 
+	 * @param out
+	 *            object output stream
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 */
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		name();
+		out.defaultWriteObject();
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * 
@@ -148,6 +240,7 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	 * @return the states
 	 */
 	public Set<String> getStates() {
+		name();
 		return this.Q;
 	}
 
@@ -177,6 +270,7 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	 * @return the invariant
 	 */
 	public @Nullable JobConstraint getInvariant(String q) {
+		name();
 		return this.I.get(q);
 	}
 
@@ -188,6 +282,7 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	 * @return set of outgoing transitions from the given state.
 	 */
 	public @Nullable Set<Transition> getTransitions(String q) {
+		name();
 		return this.T.get(q);
 	}
 
@@ -197,6 +292,7 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	 * @return the initial
 	 */
 	public String getInitial() {
+		name();
 		return this.q0;
 	}
 
@@ -208,6 +304,7 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	 * @return the work automaton
 	 */
 	public WorkAutomaton rename(Map<Port, Port> links) {
+		name();
 
 		// Initialize the Work Automaton fields.
 		Set<String> Q = new HashSet<String>(this.Q);
@@ -242,6 +339,7 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	 * @return the string
 	 */
 	public String toDOT() {
+		name();
 		StringBuilder str = new StringBuilder();
 
 		str.append("// WorkAutomaton with interface " + this.P + " and jobs " + this.J + "\n");
@@ -272,6 +370,7 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 	 */
 	@Override
 	public String toString() {
+		name();
 		return "(" + this.Q + "," + this.P + "," + this.J + "," + this.I + "," + this.T + "," + this.q0 + ")";
 	}
 
@@ -297,7 +396,12 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 
 	/**
 	 * Computes the product of a list of work automata by means of a breadth
-	 * first algorithm.
+	 * first algorithm. Global states are explored as tuples of local state
+	 * numbers, and synchronization constraints are combined as bit sets of
+	 * port numbers. The port set of a synchronization constraint is
+	 * constructed only once. Global states are named only when the states or
+	 * transitions of the product are requested, and a product that is
+	 * composed again is explored by the numbers of its global states.
 	 * 
 	 * @param automata
 	 *            a list of work automata
@@ -319,135 +423,444 @@ public final class WorkAutomaton implements Semantics<WorkAutomaton> {
 		if (size == 1)
 			return automata.get(0);
 
-		// Initialize the work automaton fields.
-		Set<String> Q = new HashSet<String>();
+		// Number the ports, and encode each interface as a bit set.
 		SortedSet<Port> P = new TreeSet<Port>();
-		Set<String> J = new HashSet<String>();
-		Map<String, JobConstraint> I = new HashMap<>();
-		Map<String, Set<Transition>> T = new HashMap<>();
-		String q0;
+		List<Port> ports = new ArrayList<Port>();
+		Map<Port, Integer> portIds = new HashMap<Port, Integer>();
+		BitSet[] ifaces = new BitSet[size];
+		for (int i = 0; i < size; i++) {
+			P.addAll(automata.get(i).P);
+			ifaces[i] = encode(automata.get(i).P, ports, portIds);
+		}
+
+		// Number the local states, and encode the local transitions. The
+		// states of a product that is not yet named are numbered already.
+		List<List<String>> names = new ArrayList<List<String>>();
+		LocalTransition[][][] out = new LocalTransition[size][][];
+		int[] s0 = new int[size];
+		for (int i = 0; i < size; i++) {
+			WorkAutomaton A = automata.get(i);
+			Graph g;
+			synchronized (A) {
+				g = A.graph;
+			}
+			if (g != null) {
+				out[i] = new LocalTransition[g.S.size()][];
+				for (int q = 0; q < g.S.size(); q++) {
+					Edge[] outq = g.out.get(q);
+					out[i][q] = new LocalTransition[outq.length];
+					for (int k = 0; k < outq.length; k++)
+						out[i][q][k] = new LocalTransition(outq[k].target, encode(outq[k].N, ports, portIds),
+								outq[k].jc);
+				}
+				names.add(null);
+				continue;
+			}
+			Map<String, Integer> ids = new HashMap<String, Integer>();
+			List<String> local = new ArrayList<String>();
+			s0[i] = number(A.q0, ids, local);
+			for (String q : A.Q)
+				number(q, ids, local);
+			for (Set<Transition> outq : A.T.values())
+				for (Transition t : outq)
+					number(t.getTarget(), ids, local);
+			out[i] = new LocalTransition[local.size()][];
+			for (int q = 0; q < local.size(); q++) {
+				Set<Transition> outq = A.T.get(local.get(q));
+				List<LocalTransition> list = new ArrayList<LocalTransition>();
+				if (outq != null)
+					for (Transition t : outq)
+						list.add(new LocalTransition(ids.get(t.getTarget()),
+								encode(t.getSyncConstraint(), ports, portIds), t.getJobConstraint()));
+				out[i][q] = list.toArray(new LocalTransition[list.size()]);
+			}
+			names.add(local);
+		}
+
+		// Union of the interfaces of the first k work automata.
+		BitSet[] prefix = new BitSet[size];
+		prefix[0] = new BitSet();
+		for (int k = 1; k < size; k++) {
+			prefix[k] = (BitSet) prefix[k - 1].clone();
+			prefix[k].or(ifaces[k - 1]);
+		}
 
-		// Find the global initial state.
-		List<String> s0 = new ArrayList<>();
-		for (WorkAutomaton A : automata)
-			s0.add(A.q0);
-		q0 = composeState(s0);
+		// Add the initial state, which gets number 0.
+		ProductStates S = new ProductStates(size);
+		S.add(s0);
 
-		// Initialize the queue L of unexplored global states.
-		Queue<List<String>> L = new LinkedList<>();
+		// Explore the global states in the order in which they are found.
+		List<Edge[]> edges = new ArrayList<Edge[]>();
+		Product product = new Product(size, out, ifaces, prefix, ports, S, edges);
+		for (int id = 0; id < S.size(); id++)
+			product.explore(id);
 
-		// Add the initial state to the queue.
-		L.add(s0);
-		Q.add(q0);
-		T.put(q0, new TreeSet<>());
-
-		// Just for fun: count the actual and total number of steps to find
-		// composable tuples of local transitions.
-		int actual = 0;
-		int total = 0;
-
-		// Loop until the queue is empty.
-		while (!L.isEmpty()) {
-
-			// Get and remove the first unexplored global state in L.
-			List<String> s1 = L.poll();
-
-			if (s1 != null) {
-				// Add global state q1 to the set of states Q
-				Q.add(composeState(s1));
-
-				// For each work automaton A.get(i), find the list
-				// localtransitions.get(i) of all possible
-				// local transitions from the local state s1.get(i).
-				List<List<Transition>> localtransitions = new ArrayList<List<Transition>>();
-				for (int i = 0; i < size; i++) {
-					Set<Transition> x = automata.get(i).T.get(s1.get(i));
-					if (x != null)
-						localtransitions.add(new ArrayList<Transition>(x));
+		return new WorkAutomaton(P, new Graph(new ArrayList<WorkAutomaton>(automata), names, S, edges));
+	}
+
+	/**
+	 * Encodes a set of ports as a bit set of port numbers.
+	 *
+	 * @param N
+	 *            set of ports
+	 * @param ports
+	 *            list of numbered ports, which is extended with new ports
+	 * @param portIds
+	 *            number of every port in the list
+	 * @return bit set that contains the number of every port in N.
+	 */
+	private static BitSet encode(Set<Port> N, List<Port> ports, Map<Port, Integer> portIds) {
+		BitSet bits = new BitSet();
+		for (Port p : N) {
+			Integer id = portIds.get(p);
+			if (id == null) {
+				id = ports.size();
+				ports.add(p);
+				portIds.put(p, id);
+			}
+			bits.set(id);
+		}
+		return bits;
+	}
+
+	/**
+	 * Numbers a local state, if it is not yet numbered.
+	 *
+	 * @param q
+	 *            local state
+	 * @param ids
+	 *            number of every local state in the list
+	 * @param local
+	 *            list of numbered local states
+	 * @return number of the local state q.
+	 */
+	private static int number(String q, Map<String, Integer> ids, List<String> local) {
+		Integer id = ids.get(q);
+		if (id == null) {
+			id = local.size();
+			local.add(q);
+			ids.put(q, id);
+		}
+		return id;
+	}
+
+	/**
+	 * Local transition, encoded by the number of its target state and the bit
+	 * set of its synchronization constraint.
+	 */
+	private static final class LocalTransition {
+
+		/** Number of the target state. */
+		private final int target;
+
+		/** Port numbers of the synchronization constraint. */
+		private final BitSet N;
+
+		/** Job constraint. */
+		private final JobConstraint jc;
+
+		/**
+		 * Constructs a new local transition.
+		 *
+		 * @param target
+		 *            number of the target state
+		 * @param N
+		 *            port numbers of the synchronization constraint
+		 * @param jc
+		 *            job constraint
+		 */
+		private LocalTransition(int target, BitSet N, JobConstraint jc) {
+			this.target = target;
+			this.N = N;
+			this.jc = jc;
+		}
+	}
+
+	/**
+	 * Construction of the outgoing transitions of global states of a product
+	 * of work automata.
+	 */
+	private static final class Product {
+
+		/** Number of work automata. */
+		private final int size;
+
+		/** Encoded local transitions, by automaton and local state. */
+		private final LocalTransition[][][] out;
+
+		/** Encoded interface of every work automaton. */
+		private final BitSet[] ifaces;
+
+		/** Union of the interfaces of the first k work automata. */
+		private final BitSet[] prefix;
+
+		/** Numbered ports. */
+		private final List<Port> ports;
+
+		/** Global states found so far. */
+		private final ProductStates S;
+
+		/** Outgoing transitions of every explored global state. */
+		private final List<Edge[]> edges;
+
+		/** Shared synchronization constraint of every bit set. */
+		private final Map<BitSet, SortedSet<Port>> syncs = new HashMap<BitSet, SortedSet<Port>>();
+
+		/** Local state numbers of the current global state. */
+		private final int[] source;
+
+		/** Local state numbers of the current target state. */
+		private final int[] target;
+
+		/** Chosen local transitions, where null means idling. */
+		private final LocalTransition[] choice;
+
+		/** Union of the chosen synchronization constraints up to k. */
+		private final BitSet[] sync;
+
+		/** Outgoing transitions of the current global state. */
+		private final Set<Edge> outq1 = new LinkedHashSet<Edge>();
+
+		/**
+		 * Constructs the product construction.
+		 *
+		 * @param size
+		 *            number of work automata
+		 * @param out
+		 *            encoded local transitions
+		 * @param ifaces
+		 *            encoded interfaces
+		 * @param prefix
+		 *            unions of the interfaces of the first k work automata
+		 * @param ports
+		 *            numbered ports
+		 * @param S
+		 *            global states found so far
+		 * @param edges
+		 *            outgoing transitions of every explored global state
+		 */
+		private Product(int size, LocalTransition[][][] out, BitSet[] ifaces, BitSet[] prefix, List<Port> ports,
+				ProductStates S, List<Edge[]> edges) {
+			this.size = size;
+			this.out = out;
+			this.ifaces = ifaces;
+			this.prefix = prefix;
+			this.ports = ports;
+			this.S = S;
+			this.edges = edges;
+			this.source = new int[size];
+			this.target = new int[size];
+			this.choice = new LocalTransition[size];
+			this.sync = new BitSet[size + 1];
+			for (int k = 0; k <= size; k++)
+				sync[k] = new BitSet();
+		}
+
+		/**
+		 * Adds all outgoing transitions of a global state, and adds all new
+		 * target states. Global states are explored in the order of their
+		 * numbers.
+		 *
+		 * @param id
+		 *            number of the global state
+		 */
+		private void explore(int id) {
+			S.get(id, source);
+			outq1.clear();
+			choose(0, false);
+			edges.add(outq1.toArray(new Edge[outq1.size()]));
+		}
+
+		/**
+		 * Chooses a local transition, or idling, for the k-th work automaton
+		 * that is composable with the choices for all work automata before k.
+		 * Because the previous choices are mutually composable, it suffices to
+		 * compare with their combined interface and synchronization
+		 * constraint.
+		 *
+		 * @param k
+		 *            index of a work automaton
+		 * @param moved
+		 *            whether some work automaton before k does not idle
+		 */
+		private void choose(int k, boolean moved) {
+			if (k == size) {
+				if (moved)
+					add();
+				return;
+			}
+			if (!sync[k].intersects(ifaces[k])) {
+				choice[k] = null;
+				sync[k + 1].clear();
+				sync[k + 1].or(sync[k]);
+				choose(k + 1, moved);
+			}
+			for (LocalTransition t : out[k][source[k]]) {
+				if (isComposable(k, t.N)) {
+					choice[k] = t;
+					sync[k + 1].clear();
+					sync[k + 1].or(sync[k]);
+					sync[k + 1].or(t.N);
+					choose(k + 1, true);
 				}
+			}
+		}
+
+		/**
+		 * Checks whether a synchronization constraint of the k-th work
+		 * automaton agrees with the choices for all work automata before k.
+		 *
+		 * @param k
+		 *            index of a work automaton
+		 * @param N
+		 *            encoded synchronization constraint
+		 * @return true, if N and the previous choices share exactly the same
+		 *         ports.
+		 */
+		private boolean isComposable(int k, BitSet N) {
+			BitSet a = (BitSet) N.clone();
+			a.and(prefix[k]);
+			BitSet b = (BitSet) sync[k].clone();
+			b.and(ifaces[k]);
+			return a.equals(b);
+		}
 
-				// Iterate over all *composable* combinations of local
-				// transitions
-				// from s1.
-				TransitionIterator combination = new TransitionIterator(automata, s1, localtransitions);
-
-				// Iterate over all combinations of local transitions.
-				while (combination.hasNext()) {
-
-					// Get the next composable combination of local transitions.
-					List<Transition> tuple = combination.next();
-
-					// Instantiate the synchronization constraint, job
-					// constraint
-					// and target state of the
-					// global transition.
-					SortedSet<Port> N = new TreeSet<Port>();
-					SortedMap<String, Integer> w = new TreeMap<String, Integer>();
-					Set<String> R = new HashSet<String>();
-					List<String> s2 = new ArrayList<String>();
-
-					for (int i = 0; i < size; i++) {
-						// Add the ports in the synchronization constraint
-						N.addAll(tuple.get(i).getSyncConstraint());
-
-						// Add the job constraints and use the index as suffix
-						// for
-						// unique job names.
-						for (Map.Entry<String, Integer> atom : tuple.get(i).getJobConstraint().getW().entrySet())
-							w.put(atom.getKey() + i, atom.getValue());
-
-						// Add the required jobs with index suffix.
-						for (String job : tuple.get(i).getJobConstraint().getR())
-							R.add(job + i);
-
-						// Add the target state
-						s2.add(tuple.get(i).getTarget());
-					}
-
-					// Construct the source and target state and job constraint.
-					String q1 = composeState(s1);
-					String q2 = composeState(s2);
-					JobConstraint jc = new JobConstraint(w, R);
-
-					// Construct the global transition.
-					Transition t = new Transition(q1, q2, N, jc);
-
-					// Add the target state to the work automaton, and add it to
-					// the
-					// queue if its new.
-					if (!Q.add(q2))
-						L.add(s2);
-
-					// Add the global transition to the work automaton
-					Set<Transition> outq1 = T.get(q1);
-					if (outq1 != null)
-						outq1.add(t);
+		/**
+		 * Adds the global transition of the current choice of local
+		 * transitions.
+		 */
+		private void add() {
+			SortedMap<String, Integer> w = new TreeMap<String, Integer>();
+			Set<String> R = new HashSet<String>();
+			for (int i = 0; i < size; i++) {
+				LocalTransition t = choice[i];
+				if (t == null) {
+					target[i] = source[i];
+				} else {
+					target[i] = t.target;
+					// Use the index as suffix for unique job names.
+					for (Map.Entry<String, Integer> atom : t.jc.getW().entrySet())
+						w.put(atom.getKey() + i, atom.getValue());
+					for (String job : t.jc.getR())
+						R.add(job + i);
 				}
+			}
+
+			int id = S.add(target);
+			outq1.add(new Edge(id, getSyncConstraint(sync[size]), new JobConstraint(w, R)));
+		}
 
-				// Just for fun: add the total and actual number of increments
-				actual += combination.actual;
-				total += combination.total;
+		/**
+		 * Gets the synchronization constraint of a bit set of port numbers.
+		 * Equal synchronization constraints are shared.
+		 *
+		 * @param bits
+		 *            port numbers
+		 * @return unmodifiable set of ports.
+		 */
+		private SortedSet<Port> getSyncConstraint(BitSet bits) {
+			SortedSet<Port> N = syncs.get(bits);
+			if (N == null) {
+				SortedSet<Port> set = new TreeSet<Port>();
+				for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1))
+					set.add(ports.get(i));
+				N = Collections.unmodifiableSortedSet(set);
+				syncs.put((BitSet) bits.clone(), N);
 			}
+			return N;
 		}
+	}
 
-		// Just for fun: print the total and actual number of increments.
-		System.out.println("Actual/total number of increments: " + actual + "/" + total);
+	/**
+	 * Global transition, encoded by the number of its target state.
+	 */
+	private static final class Edge {
+
+		/** Number of the target state. */
+		private final int target;
+
+		/** Synchronization constraint, which is shared by equal constraints. */
+		private final SortedSet<Port> N;
+
+		/** Job constraint. */
+		private final JobConstraint jc;
+
+		/**
+		 * Constructs a new global transition.
+		 *
+		 * @param target
+		 *            number of the target state
+		 * @param N
+		 *            shared synchronization constraint
+		 * @param jc
+		 *            job constraint
+		 */
+		private Edge(int target, SortedSet<Port> N, JobConstraint jc) {
+			this.target = target;
+			this.N = N;
+			this.jc = jc;
+		}
 
-		return new WorkAutomaton(Q, P, J, I, T, q0);
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public boolean equals(@Nullable Object other) {
+			if (!(other instanceof Edge))
+				return false;
+			Edge e = (Edge) other;
+			return target == e.target && N == e.N && jc.getW().equals(e.jc.getW())
+					&& jc.getR().equals(e.jc.getR());
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		public int hashCode() {
+			return 31 * (31 * target + System.identityHashCode(N)) + jc.getW().hashCode();
+		}
 	}
 
 	/**
-	 * Gets a global state from a list of local states.
-	 * 
-	 * @param q
-	 *            list of local states
-	 * @return name of the global state.
-	 */
-	private String composeState(List<String> q) {
-		String s = q.get(0);
-		for (int i = 1; i < q.size(); i++)
-			s += "|" + q.get(i);
-		return s;
+	 * Global states and transitions of a product of work automata, by number.
+	 * The initial state has number 0.
+	 */
+	private static final class Graph {
+
+		/** Work automata in the product. */
+		private final List<WorkAutomaton> components;
+
+		/**
+		 * Local state names of every work automaton, by number, or null for a
+		 * product that was not yet named.
+		 */
+		private final List<List<String>> local;
+
+		/** Global states. */
+		private final ProductStates S;
+
+		/** Outgoing transitions of every global state. */
+		private final List<Edge[]> out;
+
+		/**
+		 * Constructs the numbered states and transitions of a product.
+		 *
+		 * @param components
+		 *            work automata in the product
+		 * @param local
+		 *            local state names, or null for unnamed products
+		 * @param S
+		 *            global states
+		 * @param out
+		 *            outgoing transitions of every global state
+		 */
+		private Graph(List<WorkAutomaton> components, List<List<String>> local, ProductStates S, List<Edge[]> out) {
+			this.components = components;
+			this.local = local;
+			this.S = S;
+			this.out = out;
+		}
 	}
 
 	/*
@@ -1,8 +1,21 @@
 package nl.cwi.reo.semantics.automata;
 
-//import static org.junit.Assert.*;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
 import org.junit.Test;
 
+import nl.cwi.reo.interpret.ports.Port;
+import nl.cwi.reo.semantics.seepageautomata.SeepageFunction;
+
 // TODO: Auto-generated Javadoc
 /**
  * The Class AutomatonTest.
@@ -66,6 +79,38 @@ public class AutomatonTest {
 		// // dot -Tps A.dot -o A.ps
 	}
 
+	/**
+	 * Composes independent two-state automata, whose product is the full
+	 * Cartesian product of their states.
+	 */
+	@Test
+	public void composeProduct() {
+		int k = 6;
+		List<Automaton<SeepageFunction>> automata = new ArrayList<Automaton<SeepageFunction>>();
+		for (int i = 0; i < k; i++) {
+			State q0 = new State("q0");
+			State q1 = new State("q1");
+			SortedSet<State> Q = new TreeSet<State>();
+			Q.add(q0);
+			Q.add(q1);
+			SortedSet<Port> P = new TreeSet<Port>();
+			P.add(new Port("a" + i));
+			Map<State, Set<Transition<SeepageFunction>>> T = new HashMap<State, Set<Transition<SeepageFunction>>>();
+			T.put(q0, new HashSet<Transition<SeepageFunction>>());
+			T.put(q1, new HashSet<Transition<SeepageFunction>>());
+			T.get(q0).add(new Transition<SeepageFunction>(q0, q1, P, new SeepageFunction()));
+			T.get(q1).add(new Transition<SeepageFunction>(q1, q0, P, new SeepageFunction()));
+			automata.add(new Automaton<SeepageFunction>(Q, P, T, q0, new SeepageFunction()));
+		}
+
+		Automaton<SeepageFunction> A = new Automaton<SeepageFunction>(new SeepageFunction()).compose(automata);
+
+		assertEquals(1 << k, A.getStates().size());
+		assertEquals(k, A.getInterface().size());
+		for (State q : A.getStates())
+			assertEquals((1 << k) - 1, A.getTransitions().get(q).size());
+	}
+
 	// public void GameGraph() {
 	//
 	// WorkAutomaton A = new WorkAutomaton();
@@ -0,0 +1,143 @@
+package nl.cwi.reo.semantics.hypergraphs;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import nl.cwi.reo.interpret.ports.Port;
+import nl.cwi.reo.interpret.ports.PortType;
+import nl.cwi.reo.interpret.ports.PrioType;
+import nl.cwi.reo.semantics.predicates.Conjunction;
+import nl.cwi.reo.semantics.predicates.Equality;
+import nl.cwi.reo.semantics.predicates.Formula;
+import nl.cwi.reo.semantics.predicates.MemoryVariable;
+import nl.cwi.reo.semantics.predicates.PortVariable;
+import nl.cwi.reo.semantics.predicates.Terms;
+import nl.cwi.reo.semantics.predicates.Variable;
+import nl.cwi.reo.semantics.rulebasedautomata.Rule;
+
+/**
+ * The Class ConstraintHypergraphTest.
+ */
+public class ConstraintHypergraphTest {
+
+	/**
+	 * Constructs the constraint hypergraph of a sync channel.
+	 *
+	 * @param a
+	 *            name of the input port
+	 * @param b
+	 *            name of the output port
+	 * @return constraint hypergraph of sync(a,b).
+	 */
+	private static ConstraintHypergraph sync(String a, String b) {
+		Port p = new Port(a, PortType.IN, PrioType.NONE, null, true);
+		Port q = new Port(b, PortType.OUT, PrioType.NONE, null, true);
+		Map<Port, Boolean> sc = new HashMap<>();
+		sc.put(p, true);
+		sc.put(q, true);
+		Rule r = new Rule(sc, new Equality(new PortVariable(p), new PortVariable(q)));
+		Set<Set<Rule>> rules = new HashSet<>();
+		rules.add(new HashSet<>(Arrays.asList(r)));
+		return new ConstraintHypergraph(rules, new HashMap<>());
+	}
+
+	/**
+	 * Composition of a chain of sync channels.
+	 */
+	@Test
+	public void compose_SyncChain() {
+		int n = 50;
+		List<ConstraintHypergraph> list = new ArrayList<>();
+		for (int i = 0; i < n; i++)
+			list.add(sync("x" + i, "x" + (i + 1)));
+
+		ConstraintHypergraph composition = new ConstraintHypergraph().compose(list);
+
+		// Every inner node is the root of exactly one non-empty hyperedge.
+		for (int i = 1; i < n; i++)
+			assertEquals(1, composition.getHyperedges(new Port("x" + i)).size());
+		assertTrue(composition.getHyperedges(new Port("y")).isEmpty());
+
+		// All rules are composed into a single rule node.
+		assertEquals(1, composition.getRuleNodes().size());
+
+		Set<Port> intface = new HashSet<>(Arrays.asList(new Port("x0"), new Port("x" + n)));
+		ConstraintHypergraph restricted = composition.restrict(intface);
+		assertEquals(1, restricted.getFormulas().size());
+		for (Formula f : restricted.getFormulas()) {
+			Set<String> names = new HashSet<>();
+			for (Variable v : f.getFreeVariables())
+				names.add(v.getName());
+			assertTrue(names.contains("x0"));
+			assertTrue(names.contains("x" + n));
+			assertFalse(names.contains("x1"));
+		}
+	}
+
+	/**
+	 * Constructs the rule m1' = m2, m2' = a, m1 = null, or its image under
+	 * swapping memory cells m1 and m2.
+	 *
+	 * @param swap
+	 *            swaps m1 and m2, if true
+	 * @return formula of the rule.
+	 */
+	private static Formula swapRule(boolean swap) {
+		String m1 = swap ? "m2" : "m1";
+		String m2 = swap ? "m1" : "m2";
+		Port a = new Port("a", PortType.IN, PrioType.NONE, null, false);
+		return new Conjunction(Arrays.<Formula>asList(
+				new Equality(new MemoryVariable(m1, true), new MemoryVariable(m2, false)),
+				new Equality(new MemoryVariable(m2, true), new PortVariable(a)),
+				new Equality(new MemoryVariable(m1, false), Terms.Null)));
+	}
+
+	/**
+	 * Gets the clauses of the rules of a rule node.
+	 *
+	 * @param node
+	 *            rule node
+	 * @return set of clauses of all rules of node.
+	 */
+	private static Set<Formula> getClauses(RuleNode node) {
+		Set<Formula> clauses = new HashSet<>();
+		for (Rule r : node.getRules())
+			clauses.addAll(((Conjunction) r.getFormula()).getClauses());
+		return clauses;
+	}
+
+	/**
+	 * Swaps two memory cells, which is correct only if both are renamed
+	 * simultaneously.
+	 */
+	@Test
+	public void substitute_SwapMemoryCells() {
+		Map<String, String> rename = new HashMap<>();
+		rename.put("m1", "m2");
+		rename.put("m2", "m1");
+		RuleNode node = new RuleNode(new HashSet<>(Arrays.asList(new Rule(swapRule(false)))));
+		node.substitute(rename);
+		assertEquals(1, node.getRules().size());
+		assertEquals(new HashSet<>(((Conjunction) swapRule(true)).getClauses()), getClauses(node));
+
+		Map<MemoryVariable, MemoryVariable> swap = new HashMap<>();
+		for (boolean prime : Arrays.asList(false, true)) {
+			swap.put(new MemoryVariable("m1", prime), new MemoryVariable("m2", prime));
+			swap.put(new MemoryVariable("m2", prime), new MemoryVariable("m1", prime));
+		}
+		Rule r = new Rule(swapRule(false)).renameMemory(swap);
+		assertEquals(Collections.singleton(r), node.getRules());
+	}
+}
@@ -0,0 +1,63 @@
+package nl.cwi.reo.semantics.predicates;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import nl.cwi.reo.interpret.typetags.TypeTags;
+
+/**
+ * The Class InternerTest.
+ */
+public class InternerTest {
+
+	/**
+	 * Equal formulas that are constructed independently share their
+	 * subformulas, and intern to the same instance.
+	 */
+	@Test
+	public void intern_SharesEqualFormulas() {
+		Formula f = new Negation(new Equality(new MemoryVariable("m", false), Terms.Null));
+		Formula g = new Negation(new Equality(new MemoryVariable("m", false), Terms.Null));
+		assertNotSame(f, g);
+		assertSame(((Negation) f).getFormula(), ((Negation) g).getFormula());
+		assertSame(Interner.intern(f), Interner.intern(g));
+	}
+
+	/**
+	 * Terms that differ only in their type tags are equal, but not identical.
+	 */
+	@Test
+	public void intern_KeepsTypeTags() {
+		MemoryVariable m = new MemoryVariable("m", false, TypeTags.Object);
+		MemoryVariable n = new MemoryVariable("m", false, TypeTags.Integer);
+		assertEquals(m, n);
+		assertNotSame(Interner.intern(m), Interner.intern(n));
+		assertSame(TypeTags.Integer, Interner.intern(n).getTypeTag());
+
+		Equality e = new Equality(m, Terms.Null);
+		Equality d = new Equality(n, Terms.Null);
+		assertSame(TypeTags.Integer, d.getLHS().getTypeTag());
+		assertNotSame(Interner.intern(e), Interner.intern(d));
+	}
+
+	/**
+	 * A repeated substitution returns the same result, also if the substituted
+	 * term is constructed again.
+	 */
+	@Test
+	public void substitute_Memoized() {
+		MemoryVariable m = new MemoryVariable("m", false);
+		MemoryVariable n = new MemoryVariable("n", false);
+		Formula f = new Conjunction(Arrays.<Formula>asList(new Equality(m, Terms.Null), new Equality(n, m)));
+		Formula g = f.substitute(new MemoryVariable("k", false), m);
+		assertSame(g, f.substitute(new MemoryVariable("k", false), m));
+		assertSame(g, new Conjunction(Arrays.<Formula>asList(new Equality(n, m), new Equality(m, Terms.Null)))
+				.substitute(new MemoryVariable("k", false), m));
+		assertNotSame(g, f.substitute(new MemoryVariable("k", false, TypeTags.Integer), m));
+	}
+}
@@ -0,0 +1,90 @@
+package nl.cwi.reo.semantics.rulebasedautomata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Test;
+
+import nl.cwi.reo.interpret.ports.Port;
+import nl.cwi.reo.interpret.ports.PortType;
+import nl.cwi.reo.interpret.ports.PrioType;
+import nl.cwi.reo.interpret.typetags.TypeTags;
+import nl.cwi.reo.semantics.predicates.Equality;
+import nl.cwi.reo.semantics.predicates.Formula;
+import nl.cwi.reo.semantics.predicates.Interner;
+import nl.cwi.reo.semantics.predicates.MemoryVariable;
+import nl.cwi.reo.semantics.predicates.PortVariable;
+import nl.cwi.reo.semantics.predicates.Terms;
+
+/**
+ * The Class RuleTest.
+ */
+public class RuleTest {
+
+	/**
+	 * Serializes and deserializes an object.
+	 *
+	 * @param <T>
+	 *            the type of the object
+	 * @param obj
+	 *            object
+	 * @return deserialized copy of obj.
+	 * @throws IOException
+	 *             Signals that an I/O exception has occurred.
+	 * @throws ClassNotFoundException
+	 *             if a class of the copy cannot be found
+	 */
+	@SuppressWarnings("unchecked")
+	private static <T> T copy(T obj) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(obj);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (T) in.readObject();
+		}
+	}
+
+	/**
+	 * A deserialized rule is equal to the original rule, and shares its
+	 * canonical formula.
+	 */
+	@Test
+	public void serialize_PreservesRule() throws Exception {
+		Port a = new Port("a", PortType.IN, PrioType.NONE, TypeTags.Integer, true);
+		Port b = new Port("b", PortType.OUT, PrioType.NONE, null, true);
+		Map<Port, Boolean> sc = new HashMap<>();
+		sc.put(a, true);
+		sc.put(b, true);
+		Rule r = new Rule(sc, new Equality(new PortVariable(a), new PortVariable(b)));
+
+		Rule s = copy(r);
+		assertNotSame(r, s);
+		assertEquals(r, s);
+		assertEquals(r.hashCode(), s.hashCode());
+		assertEquals(r.getSync(), s.getSync());
+		assertSame(Interner.intern(r.getFormula()), s.getFormula());
+	}
+
+	/**
+	 * Deserialized constants and type tags are the shared instances, which are
+	 * compared by reference.
+	 */
+	@Test
+	public void serialize_ResolvesConstants() throws Exception {
+		Formula f = new Equality(new MemoryVariable("m", false, TypeTags.String), Terms.Null);
+		Equality g = (Equality) copy(f);
+		assertSame(Interner.intern(f), g);
+		assertSame(Terms.Null, g.getRHS());
+		assertSame(TypeTags.String, g.getLHS().getTypeTag());
+	}
+}
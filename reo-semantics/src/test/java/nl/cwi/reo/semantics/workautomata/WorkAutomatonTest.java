@@ -0,0 +1,111 @@
+package nl.cwi.reo.semantics.workautomata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import nl.cwi.reo.interpret.ports.Port;
+
+/**
+ * The Class WorkAutomatonTest.
+ */
+public class WorkAutomatonTest {
+
+	/**
+	 * Constructs a work automaton from a list of transitions.
+	 *
+	 * @param iface
+	 *            interface
+	 * @param transitions
+	 *            list of transitions
+	 * @return work automaton with initial state 0.
+	 */
+	private static WorkAutomaton automaton(SortedSet<Port> iface, Transition... transitions) {
+		Set<String> Q = new HashSet<String>();
+		Map<String, Set<Transition>> T = new HashMap<String, Set<Transition>>();
+		Map<String, JobConstraint> I = new HashMap<String, JobConstraint>();
+		for (Transition t : transitions) {
+			for (String q : Arrays.asList(t.getSource(), t.getTarget())) {
+				Q.add(q);
+				T.putIfAbsent(q, new TreeSet<Transition>());
+				I.put(q, new JobConstraint(true));
+			}
+			T.get(t.getSource()).add(t);
+		}
+		return new WorkAutomaton(Q, iface, new HashSet<String>(), I, T, "0");
+	}
+
+	/**
+	 * Gets a set of ports.
+	 *
+	 * @param names
+	 *            port names
+	 * @return set of ports.
+	 */
+	private static SortedSet<Port> ports(String... names) {
+		SortedSet<Port> N = new TreeSet<Port>();
+		for (String name : names)
+			N.add(new Port(name));
+		return N;
+	}
+
+	/**
+	 * Composes three work automata, two of which share a port.
+	 */
+	@Test
+	public void compose() {
+		JobConstraint jc = new JobConstraint(true);
+		WorkAutomaton A = automaton(ports("a"), new Transition("0", "1", ports("a"), jc),
+				new Transition("1", "0", ports(), jc));
+		WorkAutomaton B = automaton(ports("a"), new Transition("0", "0", ports("a"), jc));
+		WorkAutomaton C = automaton(ports("c"), new Transition("0", "0", ports("c"), jc));
+
+		WorkAutomaton P = new WorkAutomaton().compose(Arrays.asList(A, B, C));
+
+		assertEquals("0|0|0", P.getInitial());
+		assertEquals(new HashSet<String>(Arrays.asList("0|0|0", "1|0|0")), P.getStates());
+		assertEquals(ports("a", "c"), P.getInterface());
+
+		Set<Transition> out0 = P.getTransitions("0|0|0");
+		Set<Transition> out1 = P.getTransitions("1|0|0");
+		assertNotNull(out0);
+		assertNotNull(out1);
+		assertEquals(3, out0.size());
+		assertEquals(3, out1.size());
+		for (Transition t : out0)
+			assertEquals(t.getSyncConstraint().contains(new Port("a")) ? "1|0|0" : "0|0|0", t.getTarget());
+	}
+
+	/**
+	 * Composes a product that is not yet named, which gives the same states
+	 * and transitions as the flat product.
+	 */
+	@Test
+	public void compose_Nested() {
+		JobConstraint jc = new JobConstraint(true);
+		WorkAutomaton A = automaton(ports("a"), new Transition("0", "1", ports("a"), jc),
+				new Transition("1", "0", ports(), jc));
+		WorkAutomaton B = automaton(ports("a", "b"), new Transition("0", "1", ports("a"), jc),
+				new Transition("1", "0", ports("b"), jc));
+		WorkAutomaton C = automaton(ports("b"), new Transition("0", "0", ports("b"), jc));
+
+		WorkAutomaton AB = new WorkAutomaton().compose(Arrays.asList(A, B));
+		WorkAutomaton P = new WorkAutomaton().compose(Arrays.asList(AB, C));
+		WorkAutomaton Q = new WorkAutomaton().compose(Arrays.asList(A, B, C));
+
+		assertEquals("0|0|0", P.getInitial());
+		assertEquals(Q.getStates(), P.getStates());
+		for (String q : Q.getStates())
+			assertEquals(Q.getTransitions(q), P.getTransitions(q));
+		assertEquals(new HashSet<String>(Arrays.asList("0|0", "1|1", "0|1", "1|0")), AB.getStates());
+	}
+}